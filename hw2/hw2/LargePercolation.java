@@ -0,0 +1,253 @@
+package hw2;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.SplittableRandom;
+
+// all methods take constant time plus a constant number of union-find operations,
+// which take near-constant amortized time with path halving and union by rank
+
+/**
+ * A percolation system for grids too big for the heap, up to 46340-by-46340 (about
+ * 2.1 billion sites). Sites are kept off the heap, in direct ByteBuffers: one bit
+ * per site for whether it is open, and one int per site for the union-find, for
+ * 4.125 bytes per site in all (8.9 GB at the largest N). The open bits fit in one
+ * buffer, of at most 256 MB, but no buffer can hold more than 2^31 bytes, so the
+ * union-find array is split into chunks of 2^30 bytes.
+ *
+ * The union-find entries are compressed into one int. Site indices are below
+ * 2^31, so the sign bit is free to mark a root, whose entry holds, instead of a
+ * parent, the TOP and BOTTOM flags of its set (as in Percolation) and its rank.
+ * An entry is only written when its site is opened, so the arrays are never
+ * cleared or initialized beyond the zeroing of a fresh direct buffer.
+ *
+ * The memory is freed when this object is garbage collected; direct memory is
+ * limited separately from the heap, by -XX:MaxDirectMemorySize.
+ */
+public class LargePercolation {
+
+    /** Largest N for which N * N sites fit below 2^31 */
+    public static final int MAX_N = 46340;
+
+    /* Bits of a root's union-find entry. */
+    private static final int ROOT = 0x80000000;
+    private static final int TOP = 1;
+    private static final int BOTTOM = 2;
+    private static final int RANK_SHIFT = 2;
+
+    private static final int CHUNK_SHIFT = 28;  // 2^28 ints, 1 GB per direct buffer
+
+    /** Instance variables */
+    private final int sideLength;
+    private final long numSites;
+    private final LongBuffer open;    // one bit per site, 64 sites per long
+    private final IntBuffer[] uf;     // parent index, or ROOT | rank | flags
+    private long numOpenSites;
+    private boolean percolates;
+
+    /**
+     * Create an N-by-N grid, with all sites initially blocked
+     */
+    public LargePercolation(int N) {
+        if (N <= 0 || N > MAX_N) {
+            throw new IllegalArgumentException("N must be in [1, " + MAX_N + "]");
+        }
+        this.sideLength = N;
+        this.numSites = (long) N * N;
+        this.open = allocate(((numSites + 63) >>> 6) * Long.BYTES).asLongBuffer();
+        this.uf = new IntBuffer[(int) ((numSites + (1 << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < uf.length; i += 1) {
+            long ints = Math.min(1 << CHUNK_SHIFT, numSites - ((long) i << CHUNK_SHIFT));
+            uf[i] = allocate(ints * Integer.BYTES).asIntBuffer();
+        }
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private boolean isOpen(int site) {
+        return (open.get(site >>> 6) & (1L << site)) != 0;
+    }
+
+    private void setOpen(int site) {
+        open.put(site >>> 6, open.get(site >>> 6) | (1L << site));
+    }
+
+    private int entry(int site) {
+        return uf[site >>> CHUNK_SHIFT].get(site & ((1 << CHUNK_SHIFT) - 1));
+    }
+
+    private void setEntry(int site, int value) {
+        uf[site >>> CHUNK_SHIFT].put(site & ((1 << CHUNK_SHIFT) - 1), value);
+    }
+
+    /**
+     * Open the site (row, col) if it is not open already
+     */
+    public void open(int row, int col) {
+        int curr = xyTo1D(row, col);
+        if (isOpen(curr)) {
+            return;
+        }
+        int flags = ROOT;
+        if (row == 0) {
+            flags |= TOP;
+        }
+        if (row == sideLength - 1) {
+            flags |= BOTTOM;
+        }
+        setOpen(curr);
+        setEntry(curr, flags);
+        numOpenSites += 1;
+        connectAdjacents(row, col, curr);
+        if ((entry(find(curr)) & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    /**
+     * Joins the newly opened site curr, at (row, col), with its open neighbours
+     */
+    private void connectAdjacents(int row, int col, int curr) {
+        if (col > 0) {
+            join(curr - 1, curr);
+        }
+        if (col < sideLength - 1) {
+            join(curr + 1, curr);
+        }
+        if (row > 0) {
+            join(curr - sideLength, curr);
+        }
+        if (row < sideLength - 1) {
+            join(curr + sideLength, curr);
+        }
+    }
+
+    /**
+     * if adj is open, add current site to set of adjacent site
+     */
+    private void join(int adj, int curr) {
+        if (isOpen(adj)) {
+            union(adj, curr);
+        }
+    }
+
+    /**
+     * Returns the root of the set of site p, halving the path on the way: every
+     * other site on it is pointed at its grandparent.
+     */
+    private int find(int p) {
+        int parent = entry(p);
+        while (parent >= 0) {
+            int grandparent = entry(parent);
+            if (grandparent < 0) {
+                return parent;
+            }
+            setEntry(p, grandparent);
+            p = grandparent;
+            parent = entry(p);
+        }
+        return p;
+    }
+
+    /**
+     * Merges the sets of sites p and q, putting the one of lower rank under the
+     * other, and gives the new root the top and bottom flags of both.
+     */
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        int entryP = entry(rootP);
+        int entryQ = entry(rootQ);
+        int rankP = (entryP & ~ROOT) >>> RANK_SHIFT;
+        int rankQ = (entryQ & ~ROOT) >>> RANK_SHIFT;
+        if (rankP < rankQ) {
+            int t = rootP;
+            rootP = rootQ;
+            rootQ = t;
+            t = entryP;
+            entryP = entryQ;
+            entryQ = t;
+        }
+        int merged = entryP | (entryQ & (TOP | BOTTOM));
+        if (rankP == rankQ) {
+            merged += 1 << RANK_SHIFT;
+        }
+        setEntry(rootQ, rootP);
+        setEntry(rootP, merged);
+    }
+
+    /**
+     * Is the site (row, col) open (i.e., has been excavated)?
+     */
+    public boolean isOpen(int row, int col) {
+        return isOpen(xyTo1D(row, col));
+    }
+
+    /**
+     * Is the site (row, col) full (has water reached it)?
+     * Approach: see if the root of the site's set touches the top row
+     */
+    public boolean isFull(int row, int col) {
+        int site = xyTo1D(row, col);
+        return isOpen(site) && (entry(find(site)) & TOP) != 0;
+    }
+
+    /**
+     * Converts a row, col pair to a 1D coordinate,
+     * where the top left corner is 0, increasing from left to right
+     * */
+    public int xyTo1D(int row, int col) {
+        if (row < 0 || row >= sideLength || col < 0 || col >= sideLength) {
+            throw new IndexOutOfBoundsException("(" + row + ", " + col + ") is outside the "
+                + sideLength + "-by-" + sideLength + " grid");
+        }
+        return sideLength * row + col;
+    }
+
+    /**
+     * number of open sites
+     */
+    public long numberOfOpenSites() {
+        return numOpenSites;
+    }
+
+    /**
+     * total number of sites
+     */
+    public long numberOfTotalSites() {
+        return numSites;
+    }
+
+    /**
+     * Does the system percolate?
+     * Approach: set by open once some set touches both the top and bottom rows
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * Opens random sites of an N-by-N grid until it percolates, and prints the
+     * threshold and the time taken. Run with e.g.
+     * java -XX:MaxDirectMemorySize=10g hw2.LargePercolation 40000
+     */
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        long start = System.nanoTime();
+        LargePercolation perc = new LargePercolation(N);
+        SplittableRandom random = new SplittableRandom();
+        while (!perc.percolates()) {
+            perc.open(random.nextInt(N), random.nextInt(N));
+        }
+        System.out.printf("N = %d: threshold %.5f in %.1f s%n", N,
+            perc.numberOfOpenSites() / (double) perc.numberOfTotalSites(),
+            (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,103 +1,156 @@
 package hw2;
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
 
-// all methods should take constant time plus a number of constant calls to union-find methods
-
-// void union(int p, int q): Unions two items.
-// int find(int p): Returns set number (parent, i.e., root) of a given item.
-// boolean connected(int p, int q): Returns true if items are connected.
-// int count(): Returns the num of sets.
+// all methods take constant time plus a constant number of union-find operations,
+// which take near-constant amortized time with path halving and union by size
 
 public class Percolation {
 
+    /* Bits of a site's state. TOP and BOTTOM are only kept up to date on the root
+     * of each set, and say whether the set reaches the top or bottom row. */
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
     /** Instance variables */
-    private final boolean[][] grid; // When grid[row][col] is true, the corresponding site is open
     private final int sideLength;
     private final int numSites;
+    private final byte[] state;   // OPEN, TOP and BOTTOM bits per site
+    private final int[] parent;   // union-find parent; only meaningful for open sites
+    private final int[] setSize;  // number of sites in the set, for roots
     private int numOpenSites;
-    private final WeightedQuickUnionUF sets;
-    private int top; // n*n is top
-    private int bottom; // n*n + 1 is bottom
+    private boolean percolates;
 
     /**
      * Create an N-by-N grid, with all sites initially blocked
+     *
+     * There are no virtual top and bottom sites. Those make isFull wrong once the
+     * system percolates ("backwash": any open site joined to the bottom row looks
+     * full through the virtual bottom), and cost a second union-find to avoid.
+     * Instead each set's root records whether the set touches the top and bottom
+     * rows, which a union merges by OR-ing the flags of the two roots.
      */
     public Percolation(int N) {
-        this.grid = new boolean[N][N];
+        if (N <= 0) {
+            throw new IllegalArgumentException("N must be greater than 0");
+        }
         this.sideLength = N;
         this.numSites = N * N;
-        this.numOpenSites = 0;
-        this.sets = new WeightedQuickUnionUF(N * N + 2);
-        this.top = N * N;
-        this.bottom = N * N + 1;
+        this.state = new byte[numSites];
+        this.parent = new int[numSites];
+        this.setSize = new int[numSites];
+    }
+
+    /**
+     * Blocks every site again, without reallocating, so that one instance can be
+     * reused for many experiments. Takes O(N^2) time, for clearing the state; the
+     * union-find arrays are reinitialized lazily, as each site is opened.
+     */
+    public void reset() {
+        Arrays.fill(state, (byte) 0);
+        numOpenSites = 0;
+        percolates = false;
     }
 
     /**
      * Open the site (row, col) if it is not open already
      */
     public void open(int row, int col) {
-        if (!isOpen(row, col)) {
-            grid[row][col] = true;
-            numOpenSites += 1;
-            connectAdjacents(row, col);
+        int curr = xyTo1D(row, col);
+        if ((state[curr] & OPEN) != 0) {
+            return;
+        }
+        byte flags = OPEN;
+        if (row == 0) {
+            flags |= TOP;
+        }
+        if (row == sideLength - 1) {
+            flags |= BOTTOM;
+        }
+        state[curr] = flags;
+        parent[curr] = curr;
+        setSize[curr] = 1;
+        numOpenSites += 1;
+        connectAdjacents(row, col, curr);
+        if ((state[find(curr)] & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
         }
     }
 
     /**
-     * Check for open adjacent sites that are open
+     * Joins the newly opened site curr, at (row, col), with its open neighbours
      */
-    public void connectAdjacents(int row, int col) {
-        int curr = xyTo1D(row, col);
-
-        // If not on left edge, union with left
-        if (curr % sideLength > 0) {
+    private void connectAdjacents(int row, int col, int curr) {
+        if (col > 0) {
             join(curr - 1, curr);
         }
-        // If not on right edge, union with right
-        if (curr % sideLength < (sideLength - 1)) {
+        if (col < sideLength - 1) {
             join(curr + 1, curr);
         }
-        // If not on top edge, union with up
-        // Else, union with top (source)
-        int up = curr - sideLength;
-        if (up < 0) {
-            join(top, curr);
-        } else {
-            join(up, curr);
+        if (row > 0) {
+            join(curr - sideLength, curr);
         }
-        // If not on bottom edge, union with down
-        // Else, union with bottom (sink)
-        int down = curr + sideLength;
-        if (down >= sideLength * sideLength) {
-            join(bottom, curr);
-        } else {
-            join(down, curr);
+        if (row < sideLength - 1) {
+            join(curr + sideLength, curr);
         }
     }
 
     /**
      * if adj is open, add current site to set of adjacent site
      */
-    public void join(int adj, int curr) {
-        if (adj == top || adj == bottom || isOpen(oneDtoRow(adj), oneDtoCol(adj))) {
-            sets.union(adj, curr);
+    private void join(int adj, int curr) {
+        if ((state[adj] & OPEN) != 0) {
+            union(adj, curr);
         }
     }
 
+    /**
+     * Returns the root of the set of site p, halving the path on the way: every
+     * other site on it is pointed at its grandparent.
+     */
+    private int find(int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Merges the sets of sites p and q, putting the smaller under the larger, and
+     * gives the new root the top and bottom flags of both.
+     */
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        if (setSize[rootP] < setSize[rootQ]) {
+            int t = rootP;
+            rootP = rootQ;
+            rootQ = t;
+        }
+        parent[rootQ] = rootP;
+        setSize[rootP] += setSize[rootQ];
+        state[rootP] |= state[rootQ];
+    }
+
     /**
      * Is the site (row, col) open (i.e., has been excavated)?
      */
     public boolean isOpen(int row, int col) {
-         return grid[row][col];
+        return (state[xyTo1D(row, col)] & OPEN) != 0;
     }
 
     /**
      * Is the site (row, col) full (has water reached it)?
-     * Approach: see if site is part of the same set as top site
+     * Approach: see if the root of the site's set touches the top row
      */
     public boolean isFull(int row, int col) {
-        return sets.connected(top, xyTo1D(row, col));
+        int site = xyTo1D(row, col);
+        return (state[site] & OPEN) != 0 && (state[find(site)] & TOP) != 0;
     }
 
     /**
@@ -105,6 +158,10 @@ public class Percolation {
      * where the top left corner is 0, increasing from left to right
      * */
     public int xyTo1D(int row, int col) {
+        if (row < 0 || row >= sideLength || col < 0 || col >= sideLength) {
+            throw new IndexOutOfBoundsException("(" + row + ", " + col + ") is outside the "
+                + sideLength + "-by-" + sideLength + " grid");
+        }
         return sideLength * row + col;
     }
 
@@ -138,10 +195,10 @@ public class Percolation {
 
     /**
      * Does the system percolate?
-     * Approach: see if top and bottom are in the same set
+     * Approach: set by open once some set touches both the top and bottom rows
      */
     public boolean percolates() {
-        return sets.connected(top, bottom);
+        return percolates;
     }
 
     // use for unit testing (not required)
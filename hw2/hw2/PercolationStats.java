@@ -1,38 +1,213 @@
 package hw2;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
-import edu.princeton.cs.algs4.StdStats;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class PercolationStats {
 
+    /** How each experiment picks the order in which to open the sites */
+    public enum Method {
+        /** A lazy Fisher-Yates shuffle, drawing each site as it is opened */
+        SHUFFLE,
+        /**
+         * Newman-Ziff order: every site gets a random weight up front, the sites
+         * are radix sorted by weight, and they are opened in that order, as in
+         * Kruskal's algorithm on random edge weights. The order has the same
+         * distribution as the shuffle's, and the one pass over it also fixes the
+         * threshold for every open fraction at once; see percolationProbability.
+         */
+        NEWMAN_ZIFF
+    }
+
+    /** Smallest number of experiments run before checking for convergence */
+    private static final int MIN_TRIALS = 32;
+
     /** Instance variables */
-    private final int numExperiments;
+    private final int N;
     private final PercolationFactory pf;
+    private final Method method;
     private final double[] thresholds;
+    private final SplittableRandom root;
+    private final ForkJoinPool pool;
+    private final Moments moments = new Moments();
+    private int numExperiments;
+    private double[] sortedThresholds;
 
     /**
-     * Constructor
+     * Constructor, with a seed drawn at random
      *
      * @param N percolation experiment side length
      * @param T number of experiements
      * @param pf percolation factor object
      */
     public PercolationStats(int N, int T, PercolationFactory pf) {
-        if (N <= 0 || T <= 0) {
+        this(N, T, pf, System.nanoTime());
+    }
+
+    /**
+     * Constructor. The experiments run in parallel on the common ForkJoin pool.
+     * Experiment i draws its random numbers from the i-th stream split off a
+     * SplittableRandom with the given seed, so the thresholds depend only on the
+     * seed, not on how the experiments are scheduled across threads.
+     *
+     * @param N percolation experiment side length
+     * @param T number of experiements
+     * @param pf percolation factor object
+     * @param seed seed of the random numbers for all experiments
+     */
+    public PercolationStats(int N, int T, PercolationFactory pf, long seed) {
+        this(N, T, pf, seed, Method.SHUFFLE);
+    }
+
+    /**
+     * Constructor, as above, with the given method of ordering the sites
+     *
+     * @param N percolation experiment side length
+     * @param T number of experiements
+     * @param pf percolation factor object
+     * @param seed seed of the random numbers for all experiments
+     * @param method how each experiment orders the sites it opens
+     */
+    public PercolationStats(int N, int T, PercolationFactory pf, long seed, Method method) {
+        this(N, T, pf, seed, method, 0);
+    }
+
+    /**
+     * Adaptive constructor: runs experiments in rounds, and stops starting new
+     * ones as soon as the 95% confidence interval is at most targetWidth wide, or
+     * once maxT experiments have run. After a first round of MIN_TRIALS, each
+     * round is sized by the current standard deviation to just reach the target.
+     * Rounds do not depend on the number of workers, so neither does where the
+     * experiments stop. A targetWidth of 0 runs all maxT experiments.
+     *
+     * @param N percolation experiment side length
+     * @param maxT largest number of experiements
+     * @param pf percolation factor object
+     * @param seed seed of the random numbers for all experiments
+     * @param method how each experiment orders the sites it opens
+     * @param targetWidth width of the confidence interval to stop at
+     */
+    public PercolationStats(int N, int maxT, PercolationFactory pf, long seed, Method method,
+                            double targetWidth) {
+        this(N, maxT, pf, seed, method, targetWidth, ForkJoinPool.commonPool());
+    }
+
+    /** Adaptive constructor, as above, running the experiments on the given pool */
+    PercolationStats(int N, int maxT, PercolationFactory pf, long seed, Method method,
+                     double targetWidth, ForkJoinPool pool) {
+        if (N <= 0 || maxT <= 0) {
             throw new IllegalArgumentException("N and/or T must be greater than 0");
         }
-        this.numExperiments = T;
+        if (!(targetWidth >= 0)) {
+            throw new IllegalArgumentException("targetWidth must be at least 0");
+        }
+        this.N = N;
         this.pf = pf;
-        this.thresholds = new double[T];
+        this.method = method;
+        this.thresholds = new double[maxT];
+        this.root = new SplittableRandom(seed);
+        this.pool = pool;
+
+        if (targetWidth == 0) {
+            runExperiments(maxT);
+            return;
+        }
+        runExperiments(Math.min(maxT, MIN_TRIALS));
+        while (numExperiments < maxT && confidenceHigh() - confidenceLow() > targetWidth) {
+            // the width shrinks as 1/sqrt(T), so this many in all should be enough
+            double needed = Math.ceil(Math.pow(2 * 1.96 * stddev() / targetWidth, 2));
+            int next = (int) Math.min(maxT, Math.max(needed, numExperiments + MIN_TRIALS));
+            runExperiments(next);
+        }
+    }
 
-        // perform T independent experiments on an N-by-N grid
-        for (int i = 0; i < T; i += 1) {
-            Percolation newPercolation = pf.make(N);
-            double thresh = calculateThreshold(newPercolation);
-            thresholds[i] = thresh;
+    /**
+     * Runs experiments numExperiments to hi - 1 on the pool, then adds their
+     * thresholds to the running moments in order, so that the mean and standard
+     * deviation, to the last bit, do not depend on how the work was split.
+     */
+    private void runExperiments(int hi) {
+        int lo = numExperiments;
+        SplittableRandom[] streams = new SplittableRandom[hi];
+        for (int i = lo; i < hi; i += 1) {
+            streams[i] = root.split();
+        }
+        int minBatch = Math.max(1, (hi - lo) / (4 * pool.getParallelism()));
+        pool.invoke(new Experiments(streams, lo, hi, minBatch));
+        for (int i = lo; i < hi; i += 1) {
+            moments.add(thresholds[i]);
+        }
+        numExperiments = hi;
+        sortedThresholds = null;
+    }
+
+    /**
+     * Count, mean and sum of squared deviations from the mean of a stream of
+     * thresholds, updated one at a time with Welford's method, which is
+     * numerically stable, unlike keeping sums of x and x^2.
+     */
+    private static class Moments {
+        private long count;
+        private double mean;
+        private double m2;
+
+        void add(double x) {
+            count += 1;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+    }
+
+    /**
+     * Runs experiments lo to hi - 1, splitting the range in halves for other
+     * workers to steal until it is at most minBatch long. Each batch reuses one
+     * Percolation and one site array, both reset between experiments, and
+     * records each threshold in thresholds.
+     */
+    private class Experiments extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final SplittableRandom[] streams;
+        private final int lo;
+        private final int hi;
+        private final int minBatch;
+
+        Experiments(SplittableRandom[] streams, int lo, int hi, int minBatch) {
+            this.streams = streams;
+            this.lo = lo;
+            this.hi = hi;
+            this.minBatch = minBatch;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > minBatch) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Experiments(streams, lo, mid, minBatch),
+                          new Experiments(streams, mid, hi, minBatch));
+                return;
+            }
+            Percolation perc = pf.make(N);
+            if (method == Method.NEWMAN_ZIFF) {
+                long[] keys = new long[N * N];
+                long[] aux = new long[N * N];
+                int[] count = new int[RadixSort.COUNT_LENGTH];
+                for (int i = lo; i < hi; i += 1) {
+                    perc.reset();
+                    thresholds[i] = calculateThresholdNewmanZiff(perc, keys, aux, count,
+                                                                 streams[i]);
+                    streams[i] = null;
+                }
+                return;
+            }
+            int[] sites = new int[N * N];
+            for (int i = lo; i < hi; i += 1) {
+                perc.reset();
+                thresholds[i] = calculateThreshold(perc, sites, streams[i]);
+                streams[i] = null;
+            }
         }
     }
 
@@ -42,35 +217,95 @@ public class PercolationStats {
      * Open the site.
      * The fraction of sites that are opened when the system percolates
      * provides an estimate of the perc threshold.
+     *
+     * Approach: a Fisher-Yates shuffle of sites, done lazily. The k-th site to
+     * open is swapped in from a random position among the k-th and later ones,
+     * so only as many swaps are made as sites are opened. sites is set to the
+     * identity first, so that the order depends only on random, not on which
+     * experiments used the array before.
      */
-    private double calculateThreshold(Percolation perc) {
-        // Approach: fill arraylist with numbers 0 through N*N - 1
-        // Shuffle the arraylist
-        // Continuously remove last item from list until percolation
-
-        List<Integer> positions = new ArrayList<>();
-        for (int i = 0; i < perc.numberOfTotalSites(); i += 1) {
-            positions.add(i);
+    private static double calculateThreshold(Percolation perc, int[] sites,
+                                             SplittableRandom random) {
+        int n = sites.length;
+        for (int i = 0; i < n; i += 1) {
+            sites[i] = i;
+        }
+        for (int k = 0; !perc.percolates(); k += 1) {
+            int j = k + random.nextInt(n - k);
+            int oneDPos = sites[j];
+            sites[j] = sites[k];
+            sites[k] = oneDPos;
+            perc.open(perc.oneDtoRow(oneDPos), perc.oneDtoCol(oneDPos));
         }
-        Collections.shuffle(positions);
+        return perc.numberOfOpenSites() / (double) perc.numberOfTotalSites();
+    }
 
-        while (!perc.percolates()) {
-            int oneDPos = positions.remove(positions.size() - 1);
-            int row = perc.oneDtoRow(oneDPos);
-            int col = perc.oneDtoCol(oneDPos);
-            perc.open(row, col);
+    /**
+     * The Newman-Ziff version of calculateThreshold. Each key packs a site's
+     * random weight into its high bits and the site itself into the low bits, so
+     * a radix sort on the high bits alone puts the sites in order of weight.
+     * Weights are at least 33 bits, so ties, which are broken by site index, are
+     * too rare to bias the order measurably.
+     */
+    private static double calculateThresholdNewmanZiff(Percolation perc, long[] keys,
+                                                       long[] aux, int[] count,
+                                                       SplittableRandom random) {
+        int n = keys.length;
+        int siteBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+        long siteMask = (1L << siteBits) - 1;
+        for (int site = 0; site < n; site += 1) {
+            keys[site] = (random.nextLong() << siteBits) | site;
+        }
+        RadixSort.sortByHighBits(keys, aux, count, siteBits);
+        for (int k = 0; !perc.percolates(); k += 1) {
+            int oneDPos = (int) (keys[k] & siteMask);
+            perc.open(perc.oneDtoRow(oneDPos), perc.oneDtoCol(oneDPos));
         }
         return perc.numberOfOpenSites() / (double) perc.numberOfTotalSites();
     }
 
+    /**
+     * Estimated probability that a grid with the given fraction of its sites open,
+     * chosen uniformly at random, percolates: the fraction of the experiments whose
+     * threshold was at most openFraction. An experiment percolates at every open
+     * fraction from its threshold on, so the T thresholds give the whole curve.
+     */
+    public double percolationProbability(double openFraction) {
+        if (sortedThresholds == null) {
+            sortedThresholds = Arrays.copyOf(thresholds, numExperiments);
+            Arrays.sort(sortedThresholds);
+        }
+        int lo = 0;
+        int hi = sortedThresholds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedThresholds[mid] <= openFraction) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo / (double) numExperiments;
+    }
+
+    /** Returns the thresholds of the experiments run, in the order they were started */
+    double[] thresholds() {
+        return Arrays.copyOf(thresholds, numExperiments);
+    }
+
+    // number of experiments run, which is less than maxT if they converged early
+    public int numberOfExperiments() {
+        return numExperiments;
+    }
+
     // sample mean of percolation threshold
     public double mean() {
-        return StdStats.mean(thresholds);
+        return moments.mean;
     }
 
     // sample standard deviation of percolation threshold
     public double stddev() {
-        return StdStats.stddev(thresholds);
+        return Math.sqrt(moments.m2 / (moments.count - 1));
     }
 
     // low endpoint of 95% confidence interval
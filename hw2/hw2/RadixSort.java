@@ -0,0 +1,68 @@
+package hw2;
+
+import java.util.Arrays;
+
+/**
+ * LSD radix sort of primitive long keys, for putting the sites of a percolation
+ * experiment in the order of their random weights without boxing or comparisons.
+ */
+public final class RadixSort {
+
+    private static final int DIGIT_BITS = 16;
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /** Length of the count table that sortByHighBits needs as scratch space */
+    public static final int COUNT_LENGTH = RADIX + 1;
+
+    private RadixSort() {
+    }
+
+    /**
+     * Sorts a into ascending unsigned order of bits lowBits to 63 of each key,
+     * keeping keys that agree on those bits in their original order. The low bits
+     * are carried along unsorted, so they can hold a payload such as a site index.
+     * Takes one counting pass per 16 bits sorted on, and uses aux, which must be at
+     * least as long as a, as scratch space.
+     */
+    public static void sortByHighBits(long[] a, long[] aux, int lowBits) {
+        sortByHighBits(a, aux, new int[COUNT_LENGTH], lowBits);
+    }
+
+    /**
+     * Sorts a as above, also using count, of length COUNT_LENGTH, as scratch
+     * space, so that sorting many arrays in turn allocates nothing.
+     */
+    public static void sortByHighBits(long[] a, long[] aux, int[] count, int lowBits) {
+        if (lowBits < 0 || lowBits >= Long.SIZE) {
+            throw new IllegalArgumentException("lowBits must be in [0, 64)");
+        }
+        if (aux.length < a.length) {
+            throw new IllegalArgumentException("aux is shorter than a");
+        }
+        if (count.length != COUNT_LENGTH) {
+            throw new IllegalArgumentException("count must have length COUNT_LENGTH");
+        }
+        int n = a.length;
+        int mask = RADIX - 1;
+        long[] from = a;
+        long[] to = aux;
+        for (int shift = lowBits; shift < Long.SIZE; shift += DIGIT_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i += 1) {
+                count[((int) (from[i] >>> shift) & mask) + 1] += 1;
+            }
+            for (int d = 0; d < RADIX; d += 1) {
+                count[d + 1] += count[d];
+            }
+            for (int i = 0; i < n; i += 1) {
+                to[count[(int) (from[i] >>> shift) & mask]++] = from[i];
+            }
+            long[] t = from;
+            from = to;
+            to = t;
+        }
+        if (from != a) {
+            System.arraycopy(from, 0, a, 0, n);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package hw2;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestLargePercolation {
+
+    /** Opens the sites of small grids in random orders, checking each step against Percolation */
+    @Test
+    public void testMatchesPercolation() {
+        Random random = new Random(61);
+        for (int N = 1; N <= 8; N += 1) {
+            for (int trial = 0; trial < 20; trial += 1) {
+                Percolation expected = new Percolation(N);
+                LargePercolation actual = new LargePercolation(N);
+                for (int opened = 0; opened < N * N; opened += 1) {
+                    int row = random.nextInt(N);
+                    int col = random.nextInt(N);
+                    expected.open(row, col);
+                    actual.open(row, col);
+                    assertEquals(expected.percolates(), actual.percolates());
+                    assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+                    for (int i = 0; i < N; i += 1) {
+                        for (int j = 0; j < N; j += 1) {
+                            String site = "(" + i + ", " + j + ") of " + N + "-by-" + N;
+                            assertEquals(site, expected.isOpen(i, j), actual.isOpen(i, j));
+                            assertEquals(site, expected.isFull(i, j), actual.isFull(i, j));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hw2;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestPercolation {
+
+    @Test
+    public void testPercolates() {
+        Percolation p = new Percolation(4);
+        for (int row = 0; row < 3; row += 1) {
+            p.open(row, 1);
+            assertFalse(p.percolates());
+            assertTrue(p.isFull(row, 1));
+        }
+        p.open(3, 2);
+        assertFalse("Diagonal sites are not joined", p.percolates());
+        p.open(3, 1);
+        assertTrue(p.percolates());
+        assertTrue(p.isFull(3, 2));
+        assertEquals(5, p.numberOfOpenSites());
+    }
+
+    /** Opening sites joined to the bottom row, but not the top, after percolating */
+    @Test
+    public void testNoBackwash() {
+        Percolation p = new Percolation(4);
+        for (int row = 0; row < 4; row += 1) {
+            p.open(row, 0);
+        }
+        assertTrue(p.percolates());
+        p.open(3, 2);
+        p.open(2, 2);
+        p.open(2, 3);
+        assertTrue(p.isOpen(2, 2));
+        assertFalse(p.isFull(3, 2));
+        assertFalse(p.isFull(2, 2));
+        assertFalse(p.isFull(2, 3));
+        p.open(1, 3);
+        p.open(0, 3);
+        assertTrue("Joined to the top now", p.isFull(3, 2));
+    }
+
+    @Test
+    public void testReset() {
+        Percolation p = new Percolation(5);
+        for (int row = 0; row < 5; row += 1) {
+            for (int col = 0; col < 5; col += 1) {
+                p.open(row, col);
+            }
+        }
+        assertTrue(p.percolates());
+        p.reset();
+        assertFalse(p.percolates());
+        assertEquals(0, p.numberOfOpenSites());
+        for (int row = 0; row < 5; row += 1) {
+            for (int col = 0; col < 5; col += 1) {
+                assertFalse(p.isOpen(row, col));
+                assertFalse(p.isFull(row, col));
+            }
+        }
+        p.open(4, 4);
+        assertFalse("Sites opened before reset are not joined", p.isFull(4, 4));
+        assertFalse(p.percolates());
+    }
+
+    @Test
+    public void testRejectsBadArguments() {
+        try {
+            new Percolation(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        Percolation p = new Percolation(3);
+        try {
+            p.open(3, 0);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package hw2;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestPercolationStats {
+
+    /** Runs T experiments on a pool of the given parallelism, which sets the batch sizes */
+    private static PercolationStats run(int N, int T, PercolationStats.Method method,
+                                       int parallelism) {
+        return run(N, T, method, 0, parallelism);
+    }
+
+    private static PercolationStats run(int N, int maxT, PercolationStats.Method method,
+                                       double targetWidth, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return new PercolationStats(N, maxT, new PercolationFactory(), 42, method,
+                                        targetWidth, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameSeedSameThresholds() {
+        for (PercolationStats.Method method : PercolationStats.Method.values()) {
+            PercolationStats expected = run(50, 200, method, 1);
+            assertEquals(200, expected.thresholds().length);
+            for (int parallelism : new int[] {3, 8}) {
+                PercolationStats actual = run(50, 200, method, parallelism);
+                String message = method + " with parallelism " + parallelism;
+                assertArrayEquals(message, expected.thresholds(), actual.thresholds(), 0);
+                assertEquals(message, expected.mean(), actual.mean(), 0);
+                assertEquals(message, expected.stddev(), actual.stddev(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testStopsAtTargetWidth() {
+        int maxT = 100000;
+        double targetWidth = 0.01;
+        PercolationStats ps = run(20, maxT, PercolationStats.Method.SHUFFLE, targetWidth, 2);
+        assertTrue(ps.numberOfExperiments() < maxT);
+        assertEquals(ps.numberOfExperiments(), ps.thresholds().length);
+        assertTrue(ps.confidenceHigh() - ps.confidenceLow() <= targetWidth);
+        assertEquals(0.59, ps.mean(), 0.03);
+
+        PercolationStats again = run(20, maxT, PercolationStats.Method.SHUFFLE, targetWidth, 5);
+        assertEquals(ps.numberOfExperiments(), again.numberOfExperiments());
+        assertEquals(ps.mean(), again.mean(), 0);
+    }
+
+    @Test
+    public void testStopsAtMaxT() {
+        PercolationStats ps = run(20, 50, PercolationStats.Method.SHUFFLE, 1e-6, 2);
+        assertEquals(50, ps.numberOfExperiments());
+    }
+
+    @Test
+    public void testPercolationProbability() {
+        PercolationStats nz = run(30, 400, PercolationStats.Method.NEWMAN_ZIFF, 2);
+        PercolationStats shuffle = run(30, 400, PercolationStats.Method.SHUFFLE, 2);
+        assertEquals(shuffle.mean(), nz.mean(), 0.02);
+
+        double[] thresholds = nz.thresholds();
+        assertEquals(0, nz.percolationProbability(0), 0);
+        assertEquals(1, nz.percolationProbability(1), 0);
+        double last = 0;
+        for (double p = 0.4; p <= 0.8; p += 0.01) {
+            double probability = nz.percolationProbability(p);
+            assertTrue(probability >= last);
+            last = probability;
+            int below = 0;
+            for (double t : thresholds) {
+                if (t <= p) {
+                    below += 1;
+                }
+            }
+            assertEquals(below / (double) thresholds.length, probability, 0);
+        }
+        assertEquals(0.5, nz.percolationProbability(nz.mean()), 0.1);
+    }
+}
@@ -0,0 +1,70 @@
+package hw2;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestRadixSort {
+
+    private static final int[] LOW_BITS = {0, 1, 7, 16, 17, 33, 48, 63};
+
+    /** Checks that a is in unsigned order of its bits lowBits and up */
+    private static void assertSortedByHighBits(long[] a, int lowBits) {
+        for (int i = 1; i < a.length; i += 1) {
+            assertTrue("Keys " + (i - 1) + " and " + i + " out of order for lowBits " + lowBits,
+                Long.compareUnsigned(a[i - 1] >>> lowBits, a[i] >>> lowBits) <= 0);
+        }
+    }
+
+    @Test
+    public void testSortsAndKeepsPayloads() {
+        Random random = new Random(43);
+        int[] count = new int[RadixSort.COUNT_LENGTH];
+        for (int lowBits : LOW_BITS) {
+            for (int n : new int[] {0, 1, 2, 100, 5000}) {
+                long[] a = new long[n];
+                for (int i = 0; i < n; i += 1) {
+                    a[i] = random.nextLong();
+                }
+                long[] expected = a.clone();
+                RadixSort.sortByHighBits(a, new long[n], count, lowBits);
+                assertSortedByHighBits(a, lowBits);
+
+                // the same keys, low bits and all, just reordered
+                long[] actual = a.clone();
+                Arrays.sort(expected);
+                Arrays.sort(actual);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    /** Keys with few distinct high bits must keep their original order among equals */
+    @Test
+    public void testStable() {
+        Random random = new Random(44);
+        for (int lowBits : new int[] {16, 20, 40}) {
+            int n = 3000;
+            long[] a = new long[n];
+            for (int i = 0; i < n; i += 1) {
+                long high = random.nextInt(8) - 4;  // negative values have the top bits set
+                a[i] = (high << lowBits) | i;
+            }
+            RadixSort.sortByHighBits(a, new long[n], lowBits);
+            assertSortedByHighBits(a, lowBits);
+            long payloadMask = (1L << lowBits) - 1;
+            for (int i = 1; i < n; i += 1) {
+                if (a[i - 1] >>> lowBits == a[i] >>> lowBits) {
+                    assertTrue((a[i - 1] & payloadMask) < (a[i] & payloadMask));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsShortAux() {
+        RadixSort.sortByHighBits(new long[10], new long[9], 8);
+    }
+}
@@ -9,14 +9,16 @@ public class ComplexOomage implements Oomage {
     protected List<Integer> params;
     private static final double WIDTH = 0.05;
 
+    /* Mixes every param into the hash, MurmurHash3 style. Multiplying by 256
+     * per param, as this used to, shifts all but the last four params out of
+     * the int, so lists differing only before those always collided. */
     @Override
     public int hashCode() {
-        int total = 0;
+        int h = 0;
         for (int x : params) {
-            total = total * 256;
-            total = total + x;
+            h = HashQuality.mixIn(h, x);
         }
-        return total;
+        return HashQuality.mix(h ^ params.size());
     }
 
     @Override
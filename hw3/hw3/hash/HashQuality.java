@@ -0,0 +1,261 @@
+package hw3.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tools for judging how well hash codes spread over the buckets of a hash
+ * table, and the mixing functions the Oomages use to spread well.
+ *
+ * Buckets are chosen as in HashTableVisualizer, by (hashCode & 0x7FFFFFFF) % M.
+ * Run main for a report comparing the old and new Oomage hash codes.
+ */
+public class HashQuality {
+    /** The 99.9th percentile of the standard normal distribution. */
+    private static final double Z_999 = 3.090;
+
+    /**
+     * MurmurHash3's 32-bit finalizer. It is a bijection, so it keeps distinct
+     * hash codes distinct, and each output bit depends on every input bit,
+     * so hash codes that differ only in a few bits land in unrelated buckets.
+     */
+    public static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Combines h, a hash of the values so far, with the next value k, as
+     * MurmurHash3 does with each 4-byte block. Finish with mix(h ^ length).
+     */
+    public static int mixIn(int h, int k) {
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        k *= 0x1b873593;
+        h ^= k;
+        h = Integer.rotateLeft(h, 13);
+        return h * 5 + 0xe6546b64;
+    }
+
+    /** Returns the hash codes of the given items. */
+    public static int[] hashCodes(List<?> items) {
+        int[] hashes = new int[items.size()];
+        for (int i = 0; i < hashes.length; i += 1) {
+            hashes[i] = items.get(i).hashCode();
+        }
+        return hashes;
+    }
+
+    /** Returns the bucket of a hash code in a table of M buckets. */
+    public static int bucket(int hashCode, int M) {
+        return (hashCode & 0x7FFFFFFF) % M;
+    }
+
+    /** Returns the number of the given hash codes in each of M buckets. */
+    public static int[] bucketCounts(int[] hashes, int M) {
+        int[] counts = new int[M];
+        for (int h : hashes) {
+            counts[bucket(h, M)] += 1;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns Pearson's chi-square statistic of the bucket counts against an
+     * even spread: the sum over buckets of (count - N/M)^2 / (N/M).
+     */
+    public static double chiSquare(int[] counts) {
+        long n = 0;
+        for (int c : counts) {
+            n += c;
+        }
+        double expected = (double) n / counts.length;
+        double sum = 0;
+        for (int c : counts) {
+            sum += (c - expected) * (c - expected);
+        }
+        return sum / expected;
+    }
+
+    /**
+     * Returns true unless the bucket counts are so uneven that a truly random
+     * hash would be that uneven less than 0.1% of the time. The percentile of
+     * the chi-square distribution with M - 1 degrees of freedom is found with
+     * the Wilson-Hilferty approximation.
+     */
+    public static boolean passesChiSquare(int[] counts) {
+        double k = counts.length - 1;
+        double t = 2 / (9 * k);
+        double critical = k * Math.pow(1 - t + Z_999 * Math.sqrt(t), 3);
+        return chiSquare(counts) <= critical;
+    }
+
+    /**
+     * Returns the fraction of items that land in a bucket already holding an
+     * item, for a table of M buckets: (N - non-empty buckets) / N.
+     */
+    public static double collisionRate(int[] hashes, int M) {
+        int occupied = 0;
+        for (int c : bucketCounts(hashes, M)) {
+            occupied += c > 0 ? 1 : 0;
+        }
+        return hashes.length == 0 ? 0 : (double) (hashes.length - occupied) / hashes.length;
+    }
+
+    /** Returns the collision rate expected of N random hash codes in M buckets. */
+    public static double expectedCollisionRate(int N, int M) {
+        return N == 0 ? 0 : 1 - M * (1 - Math.pow(1 - 1.0 / M, N)) / N;
+    }
+
+    /**
+     * Measures the avalanche effect of a hash of int arrays: how often each
+     * output bit flips when one input bit flips. Hashes samples random inputs
+     * of the given length, with values below 2^inputBits, then every input
+     * with each bit flipped in turn. Returns the worst bias over all pairs of
+     * input and output bit, from 0 (every output bit flips half the time, as
+     * it should) to 1 (some output bit always or never flips).
+     */
+    public static double avalancheBias(ToIntFunction<int[]> hash, int length, int inputBits,
+                                       int samples, Random random) {
+        int[][] flips = new int[length * inputBits][32];
+        for (int s = 0; s < samples; s += 1) {
+            int[] input = new int[length];
+            for (int i = 0; i < length; i += 1) {
+                input[i] = inputBits == 32 ? random.nextInt() : random.nextInt(1 << inputBits);
+            }
+            int h = hash.applyAsInt(input);
+            for (int i = 0; i < length; i += 1) {
+                for (int b = 0; b < inputBits; b += 1) {
+                    input[i] ^= 1 << b;
+                    int diff = h ^ hash.applyAsInt(input);
+                    input[i] ^= 1 << b;
+                    for (int out = 0; out < 32; out += 1) {
+                        flips[i * inputBits + b][out] += (diff >>> out) & 1;
+                    }
+                }
+            }
+        }
+        double worst = 0;
+        for (int[] row : flips) {
+            for (int count : row) {
+                worst = Math.max(worst, Math.abs(2.0 * count / samples - 1));
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * Returns a report of how the hash codes spread over tables of each of
+     * the given sizes: the fullest bucket against the mean, the collision rate
+     * against that of random hash codes, and the chi-square test.
+     */
+    public static String report(String name, int[] hashes, int... Ms) {
+        Set<Integer> distinct = new HashSet<>();
+        for (int h : hashes) {
+            distinct.add(h);
+        }
+        StringBuilder sb = new StringBuilder(String.format("%s: %d items, %d distinct hash codes%n",
+            name, hashes.length, distinct.size()));
+        for (int M : Ms) {
+            int[] counts = bucketCounts(hashes, M);
+            int max = 0;
+            for (int c : counts) {
+                max = Math.max(max, c);
+            }
+            sb.append(String.format("  M = %6d: max load %6d (mean %8.1f), collisions %5.1f%%"
+                    + " (random %5.1f%%), chi-square %s%n",
+                M, max, (double) hashes.length / M, 100 * collisionRate(hashes, M),
+                100 * expectedCollisionRate(hashes.length, M),
+                passesChiSquare(counts) ? "pass" : "FAIL"));
+        }
+        return sb.toString();
+    }
+
+    /** The hash code ComplexOomage used to have, which keeps only the last 4 params. */
+    private static int oldComplexHash(List<Integer> params) {
+        int total = 0;
+        for (int x : params) {
+            total = total * 256;
+            total = total + x;
+        }
+        return total;
+    }
+
+    /**
+     * Returns N distinct items from generator, which must be able to make
+     * that many. The spread tests assume distinct items: equal items have
+     * equal hash codes however good the hash is.
+     */
+    public static <T> List<T> distinct(Supplier<T> generator, int N) {
+        Set<T> items = new LinkedHashSet<>();
+        while (items.size() < N) {
+            items.add(generator.get());
+        }
+        return new ArrayList<>(items);
+    }
+
+    /** Returns a ComplexOomage with 6 to 9 params, of which the last 4 are 1, 2, 3, 4. */
+    static ComplexOomage deadlyComplexOomage(Random random) {
+        List<Integer> params = new ArrayList<>();
+        int length = 6 + random.nextInt(4);
+        for (int j = 0; j < length - 4; j += 1) {
+            params.add(random.nextInt(256));
+        }
+        params.addAll(Arrays.asList(1, 2, 3, 4));
+        return new ComplexOomage(params);
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>();
+        for (int x : values) {
+            list.add(x);
+        }
+        return list;
+    }
+
+    public static void main(String[] args) {
+        int N = 10000;
+        int[] Ms = {10, 97, 1024, 10007};
+        Random random = new Random(61);
+
+        List<ComplexOomage> complex = distinct(ComplexOomage::randomComplexOomage, N);
+        List<ComplexOomage> deadly = distinct(() -> deadlyComplexOomage(random), N);
+        for (List<ComplexOomage> list : Arrays.asList(complex, deadly)) {
+            String kind = list == complex ? "random" : "deadly";
+            int[] old = new int[N];
+            for (int i = 0; i < N; i += 1) {
+                old[i] = oldComplexHash(list.get(i).params);
+            }
+            System.out.print(report("ComplexOomage, " + kind + ", old hash", old, Ms));
+            System.out.print(report("ComplexOomage, " + kind + ", mixed hash",
+                hashCodes(list), Ms));
+        }
+
+        List<SimpleOomage> simple = distinct(SimpleOomage::randomSimpleOomage, N);
+        int[] additive = new int[N];
+        for (int i = 0; i < N; i += 1) {
+            SimpleOomage so = simple.get(i);
+            additive[i] = so.red + so.green + so.blue;
+        }
+        System.out.print(report("SimpleOomage, additive hash", additive, Ms));
+        System.out.print(report("SimpleOomage, perfect mixed hash", hashCodes(simple), Ms));
+
+        ToIntFunction<int[]> oldHash = p -> oldComplexHash(toList(p));
+        ToIntFunction<int[]> mixedHash = p -> new ComplexOomage(toList(p)).hashCode();
+        System.out.printf("Avalanche bias of ComplexOomage with 6 params (0 is ideal, 1 the"
+                + " worst): old %.3f, mixed %.3f%n",
+            avalancheBias(oldHash, 6, 8, 2000, random),
+            avalancheBias(mixedHash, 6, 8, 2000, random));
+    }
+}
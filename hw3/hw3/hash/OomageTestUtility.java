@@ -3,15 +3,20 @@ package hw3.hash;
 import java.util.List;
 
 public class OomageTestUtility {
+    /**
+     * Returns true if the given oomages have hashCodes that would distribute
+     * them fairly evenly across M buckets, as computed by the visualizer with
+     * (& 0x7FFFFFFF) % M: no bucket may have fewer than N / 50 oomages or more
+     * than N / 2.5. HashQuality has stricter statistical tests.
+     */
     public static boolean haveNiceHashCodeSpread(List<Oomage> oomages, int M) {
-        /* TODO:
-         * Write a utility function that returns true if the given oomages
-         * have hashCodes that would distribute them fairly evenly across
-         * M buckets. To do this, convert each oomage's hashcode in the
-         * same way as in the visualizer, i.e. (& 0x7FFFFFFF) % M.
-         * and ensure that no bucket has fewer than N / 50
-         * Oomages and no bucket has more than N / 2.5 Oomages.
-         */
-        return false;
+        int N = oomages.size();
+        int[] counts = HashQuality.bucketCounts(HashQuality.hashCodes(oomages), M);
+        for (int count : counts) {
+            if (count < N / 50.0 || count > N / 2.5) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,88 @@
+package hw3.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Times java.util.HashMap lookups of ComplexOomages with the old multiply-by-256
+ * hash code and with the mixed one, on random Oomages and on adversarial ones
+ * that differ only before their last four params. ComplexOomage is not
+ * Comparable, so HashMap cannot turn a crowded bucket into a tree, and every
+ * lookup in it compares against the whole chain.
+ */
+public class SpeedTestOomageHashMap {
+    private static final int N = 20000;
+
+    /** A ComplexOomage with the hash code ComplexOomage used to have. */
+    private static class OldComplexOomage extends ComplexOomage {
+        OldComplexOomage(List<Integer> params) {
+            super(params);
+        }
+
+        @Override
+        public int hashCode() {
+            int total = 0;
+            for (int x : params) {
+                total = total * 256;
+                total = total + x;
+            }
+            return total;
+        }
+    }
+
+    /** Returns the milliseconds taken to put all the oomages, then get each one. */
+    private static double time(List<? extends Oomage> oomages) {
+        long start = System.nanoTime();
+        Map<Oomage, Integer> map = new HashMap<>();
+        for (int i = 0; i < oomages.size(); i += 1) {
+            map.put(oomages.get(i), i);
+        }
+        for (int i = 0; i < oomages.size(); i += 1) {
+            if (map.get(oomages.get(i)) != i) {
+                throw new AssertionError();
+            }
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(61);
+        List<List<Integer>> randomParams = HashQuality.distinct(() -> {
+            List<Integer> params = new ArrayList<>();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j += 1) {
+                params.add(random.nextInt(256));
+            }
+            return params;
+        }, N);
+        List<List<Integer>> deadlyParams = HashQuality.distinct(() -> {
+            List<Integer> params = new ArrayList<>();
+            int length = 6 + random.nextInt(4);
+            for (int j = 0; j < length - 4; j += 1) {
+                params.add(random.nextInt(256));
+            }
+            params.addAll(Arrays.asList(1, 2, 3, 4));
+            return params;
+        }, N);
+
+        System.out.printf("%-10s%14s%14s%n", "ms", "old hash", "mixed hash");
+        for (List<List<Integer>> paramLists : Arrays.asList(randomParams, deadlyParams)) {
+            List<Oomage> oldOomages = new ArrayList<>();
+            List<Oomage> newOomages = new ArrayList<>();
+            for (List<Integer> params : paramLists) {
+                oldOomages.add(new OldComplexOomage(params));
+                newOomages.add(new ComplexOomage(params));
+            }
+            for (int i = 0; i < 3; i += 1) { // warm up
+                time(oldOomages);
+                time(newOomages);
+            }
+            System.out.printf("%-10s%14.1f%14.1f%n", paramLists == randomParams ? "random" : "deadly",
+                time(oldOomages), time(newOomages));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class TestComplexOomage {
 
@@ -33,18 +34,20 @@ public class TestComplexOomage {
         assertTrue(OomageTestUtility.haveNiceHashCodeSpread(oomages, 10));
     }
 
-    /* TODO: Create a list of Complex Oomages called deadlyList
-     * that shows the flaw in the hashCode function.
-     */
-    /*
+    /* Oomages whose params differ only before their last four. Multiplying
+     * by 256 per param, as hashCode used to, gave them all the same hash. */
     @Test
     public void testWithDeadlyParams() {
-        List<Oomage> deadlyList = new ArrayList<>();
+        Random random = new Random(8);
+        int N = 10000;
 
-        // Your code here.
+        List<Oomage> deadlyList =
+            HashQuality.distinct(() -> HashQuality.deadlyComplexOomage(random), N);
 
         assertTrue(OomageTestUtility.haveNiceHashCodeSpread(deadlyList, 10));
-    } */
+        assertTrue(HashQuality.passesChiSquare(
+            HashQuality.bucketCounts(HashQuality.hashCodes(deadlyList), 97)));
+    }
 
     /** Calls tests for SimpleOomage. */
     public static void main(String[] args) {
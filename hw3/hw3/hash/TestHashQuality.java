@@ -0,0 +1,49 @@
+package hw3.hash;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+public class TestHashQuality {
+
+    @Test
+    public void testChiSquare() {
+        int[] even = new int[100000];
+        for (int i = 0; i < 100000; i += 1) {
+            even[i] = HashQuality.mix(i);
+        }
+        assertTrue(HashQuality.passesChiSquare(HashQuality.bucketCounts(even, 97)));
+
+        /* Multiples of 256 all land in the buckets that are multiples of 256 % M. */
+        int[] strided = new int[100000];
+        for (int i = 0; i < strided.length; i += 1) {
+            strided[i] = i * 256;
+        }
+        assertFalse(HashQuality.passesChiSquare(HashQuality.bucketCounts(strided, 1024)));
+        assertEquals(0, HashQuality.chiSquare(new int[]{5, 5, 5, 5}), 0);
+    }
+
+    @Test
+    public void testAvalanche() {
+        Random random = new Random(3);
+        assertTrue(HashQuality.avalancheBias(x -> HashQuality.mix(x[0]), 1, 32, 5000, random)
+            < 0.1);
+        assertEquals(1, HashQuality.avalancheBias(x -> x[0], 1, 32, 100, random), 0);
+    }
+
+    @Test
+    public void testCollisionRate() {
+        int[] distinctBuckets = {0, 1, 2, 3};
+        assertEquals(0, HashQuality.collisionRate(distinctBuckets, 4), 0);
+        assertEquals(0.75, HashQuality.collisionRate(new int[]{7, 7, 7, 7}, 4), 0);
+        assertEquals(0, HashQuality.expectedCollisionRate(1, 10), 1e-12);
+    }
+
+    /** Calls tests for HashQuality. */
+    public static void main(String[] args) {
+        jh61b.junit.textui.runClasses(TestHashQuality.class);
+    }
+}
@@ -0,0 +1,167 @@
+package hw4.puzzle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Solves a reversible puzzle with bidirectional A*: one search forward from the
+ * initial state toward the goal, and one backward from the goal toward the
+ * initial state, each with its own open list, best nodes and estimate (front
+ * to end: each estimates the distance to the other search's starting state).
+ * Each step expands a node from the smaller open list.
+ *
+ * Whenever a state has been reached from both ends, the two paths to it make a
+ * solution, and the shortest so far is kept as the incumbent. Any shorter
+ * solution would have to pass through some state on each open list, with moves
+ * plus estimate on that list at most its length, so the search stops once
+ * either open list's least moves plus estimate is no less than the incumbent's
+ * moves. As in Solver, states are reopened if reached in fewer moves, so the
+ * estimates need only be admissible.
+ */
+public class BidirectionalSolver implements PuzzleSolver {
+
+    private static class SearchNode implements Comparable<SearchNode> {
+        final ReversibleWorldState state;
+        final int moves;
+        final int estDist;
+        final SearchNode prevNode;
+
+        SearchNode(ReversibleWorldState state, int moves, int estDist, SearchNode prevNode) {
+            this.state = state;
+            this.moves = moves;
+            this.estDist = estDist;
+            this.prevNode = prevNode;
+        }
+
+        @Override
+        public int compareTo(SearchNode o) {
+            int cmp = (moves + estDist) - (o.moves + o.estDist);
+            return cmp != 0 ? cmp : o.moves - moves;
+        }
+    }
+
+    /** One of the two searches: its open list, best nodes and target state */
+    private static class Frontier {
+        final PriorityQueue<SearchNode> open = new PriorityQueue<>();
+        final HashMap<WorldState, SearchNode> best = new HashMap<>();
+        final ReversibleWorldState target;
+
+        Frontier(ReversibleWorldState target) {
+            this.target = target;
+        }
+
+        /** Drops stale nodes from the top of the open list, and returns the top */
+        SearchNode peek() {
+            while (!open.isEmpty() && best.get(open.peek().state) != open.peek()) {
+                open.poll();
+            }
+            return open.peek();
+        }
+    }
+
+    /** Instance variables */
+    private final Frontier forward;
+    private final Frontier backward;
+    private SearchNode meetForward;
+    private SearchNode meetBackward;
+    private int bestMoves = Integer.MAX_VALUE;
+    private final int moves;
+    private final List<WorldState> solution = new ArrayList<>();
+    private long expanded;
+
+    /**
+     * Solves the puzzle from initial to initial.goal(). Assumes a solution exists.
+     */
+    public BidirectionalSolver(ReversibleWorldState initial) {
+        ReversibleWorldState goal = initial.goal();
+        forward = new Frontier(goal);
+        backward = new Frontier(initial);
+        add(forward, backward, initial, 0, null);
+        add(backward, forward, goal, 0, null);
+
+        while (true) {
+            SearchNode f = forward.peek();
+            SearchNode b = backward.peek();
+            if (f == null || b == null
+                || bestMoves <= Math.max(f.moves + f.estDist, b.moves + b.estDist)) {
+                break;
+            }
+            if (forward.open.size() <= backward.open.size()) {
+                expand(forward, backward);
+            } else {
+                expand(backward, forward);
+            }
+        }
+        if (meetForward == null) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+        moves = bestMoves;
+        for (SearchNode n = meetForward; n != null; n = n.prevNode) {
+            solution.add(n.state);
+        }
+        Collections.reverse(solution);
+        for (SearchNode n = meetBackward.prevNode; n != null; n = n.prevNode) {
+            solution.add(n.state);
+        }
+    }
+
+    /** Expands the top node of search, sending its neighbors to add */
+    private void expand(Frontier search, Frontier other) {
+        SearchNode curr = search.open.poll();
+        expanded += 1;
+        for (WorldState next : curr.state.neighbors()) {
+            add(search, other, (ReversibleWorldState) next, curr.moves + 1, curr);
+        }
+    }
+
+    /**
+     * Adds a node for state to search, if it improves on the best one, and checks
+     * whether it completes a shorter solution with the other search's best node.
+     */
+    private void add(Frontier search, Frontier other, ReversibleWorldState state,
+                     int moves, SearchNode prev) {
+        SearchNode old = search.best.get(state);
+        if (old != null && old.moves <= moves) {
+            return;
+        }
+        int estDist = old != null ? old.estDist : state.estimatedDistanceTo(search.target);
+        SearchNode node = new SearchNode(state, moves, estDist, prev);
+        search.best.put(state, node);
+        if (moves + estDist < bestMoves) {
+            search.open.add(node);
+        }
+        SearchNode match = other.best.get(state);
+        if (match != null && moves + match.moves < bestMoves) {
+            bestMoves = moves + match.moves;
+            meetForward = search == forward ? node : match;
+            meetBackward = search == forward ? match : node;
+        }
+    }
+
+    /**
+     * Returns the minimum number of moves to solve the puzzle starting
+     * at the initial WorldState.
+     */
+    @Override
+    public int moves() {
+        return moves;
+    }
+
+    /**
+     * Returns a sequence of WorldStates from the initial WorldState
+     * to the solution.
+     */
+    @Override
+    public Iterable<WorldState> solution() {
+        return solution;
+    }
+
+    /** Returns the number of states expanded, in both directions */
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+}
@@ -1,22 +1,91 @@
 package hw4.puzzle;
 
-import edu.princeton.cs.algs4.Queue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-public class Board implements WorldState {
+/**
+ * An N-by-N sliding puzzle board. Boards up to 4-by-4 are packed into one long,
+ * four bits per tile, with the tile at row i, column j in bits 4 * (i * N + j) and
+ * up. Bigger boards, up to 16-by-16, keep one byte per tile. Each board also
+ * knows where its blank is and its Manhattan distance, which a move changes by
+ * the change in the moved tile's distance alone, so making a neighbor takes
+ * constant time and, for packed boards, allocates only the neighbor itself.
+ */
+public class Board implements ReversibleWorldState {
 
     private static final int BLANK = 0;
-    private final int maxTile;
-    private final int[][] tiles;
+    private static final int MAX_PACKED_N = 4;
+    static final int MAX_N = 16;
+
+    private final int N;
+    private final long packed;   // the tiles, for N <= 4
+    private final byte[] tiles;  // the tiles, for N > 4, or null
+    private final int blank;     // index i * N + j of the blank
+    private final int manhattan;
+    private volatile int[] positions;  // index of each tile, made on first use as a target
 
     /**
      * Constructs a board from an N-by-N array of tiles where tiles[i][j] = tile at row i, column j
      */
     public Board(int[][] tiles) {
-        this.tiles = new int[tiles.length][tiles.length];
-        for (int i = 0; i < tiles.length; i += 1) {
-            System.arraycopy(tiles[i], 0, this.tiles[i], 0, tiles.length);
+        int n = tiles.length;
+        if (n > MAX_N) {
+            throw new IllegalArgumentException("Boards can be at most " + MAX_N + "-by-" + MAX_N);
+        }
+        long p = 0;
+        byte[] t = n > MAX_PACKED_N ? new byte[n * n] : null;
+        int b = -1;
+        int m = 0;
+        for (int i = 0; i < n; i += 1) {
+            for (int j = 0; j < n; j += 1) {
+                int tile = tiles[i][j];
+                if (tile < 0 || tile >= n * n) {
+                    throw new IllegalArgumentException("Tile " + tile + " is not in [0, " + n * n + ")");
+                }
+                int index = i * n + j;
+                if (t == null) {
+                    p |= (long) tile << (4 * index);
+                } else {
+                    t[index] = (byte) tile;
+                }
+                if (tile == BLANK) {
+                    b = index;
+                } else {
+                    m += distance(n, tile, index);
+                }
+            }
         }
-        this.maxTile = tiles.length * tiles.length;
+        if (b < 0) {
+            throw new IllegalArgumentException("Board has no blank");
+        }
+        this.N = n;
+        this.packed = p;
+        this.tiles = t;
+        this.blank = b;
+        this.manhattan = m;
+    }
+
+    private Board(int N, long packed, byte[] tiles, int blank, int manhattan) {
+        this.N = N;
+        this.packed = packed;
+        this.tiles = tiles;
+        this.blank = blank;
+        this.manhattan = manhattan;
+    }
+
+    /** Manhattan distance of the given tile at index from its goal index, tile - 1 */
+    private static int distance(int N, int tile, int index) {
+        int goal = tile - 1;
+        return Math.abs(goal / N - index / N) + Math.abs(goal % N - index % N);
+    }
+
+    /** Returns the tile at index i * N + j, without checking bounds, for fast estimates */
+    int tile(int index) {
+        if (tiles == null) {
+            return (int) (packed >>> (4 * index)) & 0xF;
+        }
+        return tiles[index] & 0xFF;
     }
 
     /**
@@ -26,7 +95,10 @@ public class Board implements WorldState {
      * @return value of tile at (i, j)
      */
     public int tileAt(int i, int j) {
-        return tiles[i][j];
+        if (i < 0 || i >= N || j < 0 || j >= N) {
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") is outside the board");
+        }
+        return tile(i * N + j);
     }
 
     /**
@@ -34,7 +106,7 @@ public class Board implements WorldState {
      * @return board size
      */
     public int size() {
-        return tiles.length;
+        return N;
     }
 
     /**
@@ -48,95 +120,115 @@ public class Board implements WorldState {
     }
 
     /**
-     * Returns neighbors of this board.
-     * SPOILERZ: This is the answer.
+     * Returns the solved N-by-N board, with the tiles in order and the blank last
      */
     @Override
-    public Iterable<WorldState> neighbors() {
-        Queue<WorldState> neighbors = new Queue<>();
-        int hug = size();
-        int bug = -1;
-        int zug = -1;
-        for (int rug = 0; rug < hug; rug++) {
-            for (int tug = 0; tug < hug; tug++) {
-                if (tileAt(rug, tug) == BLANK) {
-                    bug = rug;
-                    zug = tug;
-                }
-            }
+    public Board goal() {
+        int[][] goal = new int[N][N];
+        for (int i = 0; i < N * N - 1; i += 1) {
+            goal[i / N][i % N] = i + 1;
         }
-        int[][] ili1li1 = new int[hug][hug];
-        for (int pug = 0; pug < hug; pug++) {
-            for (int yug = 0; yug < hug; yug++) {
-                ili1li1[pug][yug] = tileAt(pug, yug);
+        return new Board(goal);
+    }
+
+    /**
+     * Manhattan distance from this board to other: the sum, over the tiles, of
+     * the distance between a tile's squares on the two boards. Distances to the
+     * goal are kept up to date already; for any other board, where each tile
+     * sits on it is worked out once and kept, since searches measure many
+     * boards against the same one.
+     */
+    @Override
+    public int estimatedDistanceTo(ReversibleWorldState other) {
+        Board b = (Board) other;
+        if (b.N != N) {
+            throw new IllegalArgumentException("Boards are of different sizes");
+        }
+        if (b.isGoal()) {
+            return manhattan;
+        }
+        int[] position = b.positions();
+        int estimate = 0;
+        for (int index = 0; index < N * N; index += 1) {
+            int tile = tile(index);
+            if (tile != BLANK) {
+                int p = position[tile];
+                estimate += Math.abs(p / N - index / N) + Math.abs(p % N - index % N);
             }
         }
-        for (int l11il = 0; l11il < hug; l11il++) {
-            for (int lil1il1 = 0; lil1il1 < hug; lil1il1++) {
-                if (Math.abs(-bug + l11il) + Math.abs(lil1il1 - zug) - 1 == 0) {
-                    ili1li1[bug][zug] = ili1li1[l11il][lil1il1];
-                    ili1li1[l11il][lil1il1] = BLANK;
-                    Board neighbor = new Board(ili1li1);
-                    neighbors.enqueue(neighbor);
-                    ili1li1[l11il][lil1il1] = ili1li1[bug][zug];
-                    ili1li1[bug][zug] = BLANK;
-                }
+        return estimate;
+    }
+
+    /** Returns the index of each tile on this board, indexed by tile */
+    private int[] positions() {
+        int[] position = positions;
+        if (position == null) {
+            position = new int[N * N];
+            for (int index = 0; index < N * N; index += 1) {
+                position[tile(index)] = index;
             }
+            positions = position;
         }
-        return neighbors;
+        return position;
     }
 
     /**
-     * Hamming estimate
+     * Returns neighbors of this board: the boards made by sliding the tile above,
+     * left of, right of and below the blank into it, in that order.
      */
-    public int hamming() {
-        int estimate = 0;
-        int n = 0;
-
-        for (int row = 0; row < size(); row += 1) {
-            for (int col = 0; col < size(); col += 1) {
-                n += 1;
-                if (tileAt(row, col) == BLANK) {
-                    continue;
-                }
-                if (tileAt(row, col) != n % maxTile) {
-                    estimate += 1;
-                }
+    @Override
+    public Iterable<WorldState> neighbors() {
+        List<WorldState> neighbors = new ArrayList<>(4);
+        int row = blank / N;
+        int col = blank % N;
+        if (row > 0) {
+            neighbors.add(slide(blank - N));
+        }
+        if (col > 0) {
+            neighbors.add(slide(blank - 1));
+        }
+        if (col < N - 1) {
+            neighbors.add(slide(blank + 1));
+        }
+        if (row < N - 1) {
+            neighbors.add(slide(blank + N));
+        }
+        return neighbors;
+    }
 
-            }
+    /** Returns the board made by sliding the tile at index from into the blank */
+    private Board slide(int from) {
+        int tile = tile(from);
+        int m = manhattan - distance(N, tile, from) + distance(N, tile, blank);
+        if (tiles == null) {
+            long p = packed + ((long) tile << (4 * blank)) - ((long) tile << (4 * from));
+            return new Board(N, p, null, from, m);
         }
-        return estimate;
+        byte[] t = tiles.clone();
+        t[blank] = (byte) tile;
+        t[from] = BLANK;
+        return new Board(N, 0, t, from, m);
     }
 
     /**
-     * Manhattan estimate
+     * Hamming estimate
      */
-    public int manhattan() {
+    public int hamming() {
         int estimate = 0;
-        int n = 0;
-
-        for (int row = 0; row < size(); row += 1) {
-            for (int col = 0; col < size(); col += 1) {
-                n += 1;
-                // check all 9 squares, looking for values 1-8 but excluding 0
-                if (tileAt(row, col) == BLANK) {
-                    continue;
-                }
-                if (tileAt(row, col) != n % maxTile) {
-                    estimate += calcManhattanDistance(col, row, tileAt(row, col));
-                }
+        for (int index = 0; index < N * N; index += 1) {
+            int tile = tile(index);
+            if (tile != BLANK && tile != index + 1) {
+                estimate += 1;
             }
         }
         return estimate;
     }
 
     /**
-     * Given the value at the current location, convert to x and y of correct position
+     * Manhattan estimate, kept up to date as boards are made rather than computed
      */
-    private int calcManhattanDistance(int x, int y, int actual) {
-        int correctX = (actual - 1) % size();
-        int correctY = (actual - 1) / size();
-        return Math.abs(correctX - x) + Math.abs(correctY - y);
+    public int manhattan() {
+        return manhattan;
     }
 
     /**
@@ -151,17 +243,8 @@ public class Board implements WorldState {
             return true;
         }
         Board b = (Board) y;
-        if (b.size() != this.size()) {
-            return false;
-        }
-        for (int i = 0; i < size(); i++) {
-            for (int j = 0; j < size(); j++) {
-                if (this.tileAt(i, j) != b.tileAt(i, j)) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return N == b.N && packed == b.packed && blank == b.blank
+            && (tiles == null || Arrays.equals(tiles, b.tiles));
     }
 
     /**
@@ -170,7 +253,6 @@ public class Board implements WorldState {
     @Override
     public String toString() {
         StringBuilder s = new StringBuilder();
-        int N = size();
         s.append(N).append("\n");
         for (int i = 0; i < N; i++) {
             for (int j = 0; j < N; j++) {
@@ -182,8 +264,15 @@ public class Board implements WorldState {
         return s.toString();
     }
 
+    /**
+     * Hashes the packed tiles, mixed with the 64-bit finalizer of MurmurHash3 so
+     * that every bit of the hash depends on every tile.
+     */
     @Override
     public int hashCode() {
-        return super.hashCode();
+        long h = tiles == null ? packed : Arrays.hashCode(tiles);
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
     }
 }
@@ -79,8 +79,7 @@ public class CommonBugDetector {
 
         AlphabetEasyPuzzle aep = new AlphabetEasyPuzzle('a');
         Solver s3 = new Solver(aep);
-        System.out.println("TODO: Print out the number of total things ever"
-                           + " enqueued in your MinPQ and compare to the comments.");
+        System.out.println("Total things ever enqueued: " + s3.enqueued());
         // if you print out the total number of items enqueued by s3
         // it should be approximately 25, not approximately 50.
     }
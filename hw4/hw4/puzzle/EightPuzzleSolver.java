@@ -7,6 +7,10 @@ public class EightPuzzleSolver {
     /***********************************************************************
      * Test routine for your Solver class. Uncomment and run to test
      * your basic functionality.
+     *
+     * Usage: EightPuzzleSolver puzzle-file [astar | bidirectional | hda | ida [pdb-file]]
+     * picks the solver, A* by default. ida uses a pattern database, built now or
+     * loaded from pdb-file.
     **********************************************************************/
     public static void main(String[] args) {
         In in = new In(args[0]);
@@ -18,10 +22,30 @@ public class EightPuzzleSolver {
             }
         }
         Board initial = new Board(tiles);
-        Solver solver = new Solver(initial);
+        String mode = args.length > 1 ? args[1] : "astar";
+        PuzzleSolver solver = solve(initial, mode, args.length > 2 ? args[2] : null);
         StdOut.println("Minimum number of moves = " + solver.moves());
+        StdOut.println("States expanded = " + solver.expanded());
         for (WorldState ws : solver.solution()) {
             StdOut.println(ws);
         }
     }
+
+    /** Solves initial with the named solver, loading ida's pattern database from pdbFile */
+    private static PuzzleSolver solve(Board initial, String mode, String pdbFile) {
+        switch (mode) {
+            case "astar":
+                return new Solver(initial);
+            case "bidirectional":
+                return new BidirectionalSolver(initial);
+            case "hda":
+                return new HDAStarSolver(initial);
+            case "ida":
+                PatternDatabase pdb = pdbFile != null
+                    ? PatternDatabase.load(pdbFile) : new PatternDatabase(initial.size());
+                return new IDAStarSolver(initial, ws -> pdb.estimatedDistanceToGoal((Board) ws));
+            default:
+                throw new IllegalArgumentException("Unknown solver: " + mode);
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package hw4.puzzle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Solves a puzzle with hash-distributed A* (HDA*) on several threads. Every state
+ * is owned by one worker, chosen by the state's hash code. Each worker keeps its
+ * own open list and its own map from the states it owns to their best nodes, as
+ * Solver does, so neither needs locking. A worker expands nodes from its open
+ * list and sends each neighbor to its owner's inbox, a lock-free queue.
+ *
+ * A goal found by one worker need not be optimal, since another may still hold
+ * a cheaper path. So a goal only becomes the incumbent, and the search goes on
+ * until every worker's open list holds nothing with moves plus estimate below
+ * the incumbent's moves and no node is in flight between workers. With an
+ * admissible estimate, the incumbent is then optimal.
+ *
+ * To detect that, pending counts the nodes in flight plus the workers that are
+ * busy. A worker that runs out of work stops counting itself; one that gets a
+ * node while idle takes over that node's count instead of adding its own. No
+ * idle worker can send anything, so once pending reaches 0 it stays 0.
+ */
+public class HDAStarSolver implements PuzzleSolver {
+
+    private static class SearchNode implements Comparable<SearchNode> {
+        final WorldState state;
+        final int moves;
+        int estDist;
+        final SearchNode prevNode;
+
+        SearchNode(WorldState state, int moves, SearchNode prevNode) {
+            this.state = state;
+            this.moves = moves;
+            this.prevNode = prevNode;
+        }
+
+        @Override
+        public int compareTo(SearchNode o) {
+            int cmp = (moves + estDist) - (o.moves + o.estDist);
+            return cmp != 0 ? cmp : o.moves - moves;
+        }
+    }
+
+    /** Instance variables */
+    private final Worker[] workers;
+    private final AtomicInteger pending;
+    private final AtomicLong expanded = new AtomicLong();
+    private volatile boolean done;
+    private volatile SearchNode incumbent;
+    private volatile RuntimeException failure;
+    private final int moves;
+    private final List<WorldState> solution = new ArrayList<>();
+
+    /**
+     * Solves the puzzle from initial with one worker per available processor.
+     * Assumes a solution exists.
+     */
+    public HDAStarSolver(WorldState initial) {
+        this(initial, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solves the puzzle from initial with numThreads workers. Assumes a solution
+     * exists, and that states that are equal have equal hash codes.
+     */
+    public HDAStarSolver(WorldState initial, int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("numThreads must be greater than 0");
+        }
+        workers = new Worker[numThreads];
+        pending = new AtomicInteger(numThreads);
+        for (int i = 0; i < numThreads; i += 1) {
+            workers[i] = new Worker();
+        }
+        workers[owner(initial)].receive(new SearchNode(initial, 0, null));
+        for (Worker w : workers) {
+            w.thread.start();
+        }
+        for (Worker w : workers) {
+            try {
+                w.thread.join();
+            } catch (InterruptedException e) {
+                done = true;
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while solving", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (incumbent == null) {
+            throw new IllegalArgumentException("The puzzle has no solution");
+        }
+        moves = incumbent.moves;
+        for (SearchNode n = incumbent; n != null; n = n.prevNode) {
+            solution.add(n.state);
+        }
+        Collections.reverse(solution);
+    }
+
+    /** Returns the index of the worker that owns state */
+    private int owner(WorldState state) {
+        int h = state.hashCode() * 0x9e3779b9;
+        return (int) (((h ^ (h >>> 16)) & 0xffffffffL) % workers.length);
+    }
+
+    private int bound() {
+        SearchNode goal = incumbent;
+        return goal == null ? Integer.MAX_VALUE : goal.moves;
+    }
+
+    /** Makes goal the incumbent if it has fewer moves than the current one */
+    private synchronized void offer(SearchNode goal) {
+        if (incumbent == null || goal.moves < incumbent.moves) {
+            incumbent = goal;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final Thread thread = new Thread(this, "hda-worker");
+        private final Queue<SearchNode> inbox = new ConcurrentLinkedQueue<>();
+        private final PriorityQueue<SearchNode> open = new PriorityQueue<>();
+        private final HashMap<WorldState, SearchNode> best = new HashMap<>();
+        private volatile boolean idle;
+
+        /** Sends node to this worker from another thread */
+        void send(SearchNode node) {
+            pending.incrementAndGet();
+            inbox.add(node);
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /** Adds a node for a state this worker owns, if it improves on the best */
+        void receive(SearchNode node) {
+            SearchNode old = best.get(node.state);
+            if (old != null && old.moves <= node.moves) {
+                return;
+            }
+            node.estDist = old != null ? old.estDist : node.state.estimatedDistanceToGoal();
+            best.put(node.state, node);
+            open.add(node);
+        }
+
+        @Override
+        public void run() {
+            try {
+                boolean busy = true;
+                while (!done) {
+                    SearchNode m;
+                    while ((m = inbox.poll()) != null) {
+                        if (busy) {
+                            pending.decrementAndGet();
+                        }
+                        busy = true;
+                        idle = false;
+                        receive(m);
+                    }
+                    if (busy && !expandOne()) {
+                        busy = false;
+                        idle = true;
+                        if (pending.decrementAndGet() == 0) {
+                            done = true;
+                            for (Worker w : workers) {
+                                LockSupport.unpark(w.thread);
+                            }
+                        }
+                    }
+                    if (!busy && inbox.isEmpty() && !done) {
+                        LockSupport.parkNanos(this, 100000);
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+                done = true;
+                for (Worker w : workers) {
+                    LockSupport.unpark(w.thread);
+                }
+            }
+        }
+
+        /**
+         * Expands the best node on the open list, if it can still lead to a better
+         * solution than the incumbent. Returns false if there is no such node.
+         */
+        private boolean expandOne() {
+            while (!open.isEmpty()) {
+                SearchNode curr = open.peek();
+                if (curr.moves + curr.estDist >= bound()) {
+                    return false;
+                }
+                open.poll();
+                if (best.get(curr.state) != curr) {
+                    continue;
+                }
+                if (curr.state.isGoal()) {
+                    offer(curr);
+                    continue;
+                }
+                expanded.incrementAndGet();
+                for (WorldState next : curr.state.neighbors()) {
+                    SearchNode node = new SearchNode(next, curr.moves + 1, curr);
+                    Worker w = workers[owner(next)];
+                    if (w == this) {
+                        receive(node);
+                    } else {
+                        w.send(node);
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the minimum number of moves to solve the puzzle starting
+     * at the initial WorldState.
+     */
+    @Override
+    public int moves() {
+        return moves;
+    }
+
+    /**
+     * Returns a sequence of WorldStates from the initial WorldState
+     * to the solution.
+     */
+    @Override
+    public Iterable<WorldState> solution() {
+        return solution;
+    }
+
+    /** Returns the number of states expanded, over all workers */
+    @Override
+    public long expanded() {
+        return expanded.get();
+    }
+}
@@ -0,0 +1,112 @@
+package hw4.puzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Solves a puzzle with iterative-deepening A* (IDA*): a series of depth-first
+ * searches, each cut off where the moves so far plus the estimated distance to
+ * the goal exceed a bound. The first bound is the estimate for the initial state,
+ * and each later one is the least value that was cut off in the search before, so
+ * the first solution found has the minimum number of moves, as with A*.
+ *
+ * Only the current path is kept, so memory is O(moves), where A* may need memory
+ * for every state it has seen. The price is expanding states again, in every
+ * iteration and on every path to them; only moving straight back to the previous
+ * state is ruled out. That suits puzzles like Board, with few states at each
+ * depth and a strong estimate such as a PatternDatabase.
+ */
+public class IDAStarSolver implements PuzzleSolver {
+
+    private static final int FOUND = -1;
+
+    /** Instance variables */
+    private final ToIntFunction<WorldState> heuristic;
+    private final List<WorldState> path = new ArrayList<>();
+    private final int moves;
+    private long expanded;
+
+    /**
+     * Solves the puzzle from initial, estimating distances with the puzzle's own
+     * estimatedDistanceToGoal(). Assumes a solution exists.
+     */
+    public IDAStarSolver(WorldState initial) {
+        this(initial, WorldState::estimatedDistanceToGoal);
+    }
+
+    /**
+     * Solves the puzzle from initial, estimating distances with heuristic, which
+     * must never overestimate and must be 0 only at goal states. For example,
+     * for a Board b, new IDAStarSolver(b, ws -> pdb.estimatedDistanceToGoal((Board) ws))
+     * searches with a PatternDatabase pdb. Assumes a solution exists.
+     */
+    public IDAStarSolver(WorldState initial, ToIntFunction<WorldState> heuristic) {
+        this.heuristic = heuristic;
+        path.add(initial);
+        int bound = heuristic.applyAsInt(initial);
+        while (true) {
+            int t = search(initial, null, 0, bound);
+            if (t == FOUND) {
+                break;
+            }
+            bound = t;
+        }
+        this.moves = path.size() - 1;
+    }
+
+    /**
+     * Searches depth-first below state, which is at depth g, for a goal within the
+     * bound. Returns FOUND, with the path to the goal on path, or else the least
+     * f-value beyond the bound that was seen.
+     */
+    private int search(WorldState state, WorldState prev, int g, int bound) {
+        int h = heuristic.applyAsInt(state);
+        int f = g + h;
+        if (f > bound) {
+            return f;
+        }
+        if (h == 0 && state.isGoal()) {
+            return FOUND;
+        }
+        expanded += 1;
+        int min = Integer.MAX_VALUE;
+        for (WorldState next : state.neighbors()) {
+            if (next.equals(prev)) {
+                continue;
+            }
+            path.add(next);
+            int t = search(next, state, g + 1, bound);
+            if (t == FOUND) {
+                return FOUND;
+            }
+            path.remove(path.size() - 1);
+            min = Math.min(min, t);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the minimum number of moves to solve the puzzle starting
+     * at the initial WorldState.
+     */
+    @Override
+    public int moves() {
+        return moves;
+    }
+
+    /**
+     * Returns a sequence of WorldStates from the initial WorldState
+     * to the solution.
+     */
+    @Override
+    public Iterable<WorldState> solution() {
+        return path;
+    }
+
+    /** Returns the number of states expanded, over all iterations */
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+}
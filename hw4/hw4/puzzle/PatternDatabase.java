@@ -0,0 +1,330 @@
+package hw4.puzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * An additive, disjoint pattern database for N-by-N Boards. The tiles are split
+ * into groups, and for each group the database holds, for every placement of
+ * that group's tiles, the fewest moves of those tiles needed to bring them home,
+ * with all other tiles treated as indistinguishable and their moves free. Since
+ * every move moves exactly one tile, the moves counted for different groups are
+ * different moves, so the sum over the groups is an admissible estimate. It is
+ * never less than the Manhattan distance, and usually much more.
+ *
+ * Each group's table is computed once, by a breadth-first search back from the
+ * goal, and stored as one byte per placement, indexed by the positions of the
+ * group's tiles as digits in base N * N. A table can be saved to and loaded from
+ * disk, so the search need not be repeated.
+ */
+public class PatternDatabase {
+
+    private static final byte UNSEEN = -1;
+
+    /** Instance variables */
+    private final int N;
+    private final int[][] groups;
+    private final byte[][] tables;
+    private final int[] groupOf;  // group of each tile, or -1 for the blank and ungrouped tiles
+    private final int[] weight;   // place value of each tile's position in its group's index
+
+    /**
+     * Builds the database for N-by-N boards with the default grouping of tiles:
+     * the 5-5-5 partition for 4-by-4 boards, two groups of 4 for 3-by-3 boards, and
+     * one group for 2-by-2 boards. Takes a few seconds for 4-by-4 boards.
+     */
+    public PatternDatabase(int N) {
+        this(N, defaultGroups(N));
+    }
+
+    /**
+     * Builds the database for N-by-N boards with the given groups of tiles, which
+     * must not overlap. Tiles in no group do not count toward the estimate.
+     */
+    public PatternDatabase(int N, int[][] groups) {
+        this(N, groups, new byte[groups.length][]);
+        for (int g = 0; g < groups.length; g += 1) {
+            tables[g] = build(groups[g]);
+        }
+    }
+
+    private PatternDatabase(int N, int[][] groups, byte[][] tables) {
+        checkSize(N);
+        boolean[] used = new boolean[N * N];
+        for (int[] group : groups) {
+            checkGroupSize(N, group.length);
+            for (int tile : group) {
+                if (tile <= 0 || tile >= N * N || used[tile]) {
+                    throw new IllegalArgumentException("Bad or repeated tile " + tile);
+                }
+                used[tile] = true;
+            }
+        }
+        this.N = N;
+        this.groups = groups;
+        this.tables = tables;
+        this.groupOf = new int[N * N];
+        this.weight = new int[N * N];
+        Arrays.fill(groupOf, -1);
+        for (int g = 0; g < groups.length; g += 1) {
+            for (int i = 0, w = 1; i < groups[g].length; i += 1, w *= N * N) {
+                groupOf[groups[g][i]] = g;
+                weight[groups[g][i]] = w;
+            }
+        }
+    }
+
+    /** Checks that N-by-N Boards can exist and have tiles to group */
+    private static void checkSize(int N) {
+        if (N < 2 || N > Board.MAX_N) {
+            throw new IllegalArgumentException("No database for " + N + "-by-" + N + " boards");
+        }
+    }
+
+    /** Checks that a table for a group of k tiles fits in an array, with room to search */
+    private static void checkGroupSize(int N, int k) {
+        if (k <= 0 || Math.pow(N * N, k) > Integer.MAX_VALUE / (N * N)) {
+            throw new IllegalArgumentException("A group of " + k
+                + " tiles is too big for " + N + "-by-" + N + " boards");
+        }
+    }
+
+    private static int[][] defaultGroups(int N) {
+        switch (N) {
+            case 2: return new int[][] {{1, 2, 3}};
+            case 3: return new int[][] {{1, 2, 3, 4}, {5, 6, 7, 8}};
+            case 4: return new int[][] {{1, 2, 3, 4, 7}, {5, 6, 9, 10, 13}, {8, 11, 12, 14, 15}};
+            default: throw new IllegalArgumentException("No default groups for N = " + N);
+        }
+    }
+
+    /**
+     * Returns the table for one group. An abstract state is the positions of the
+     * group's tiles, as a number in base N * N, times N * N plus the position of
+     * the blank. Searching from the goal, moving the blank onto another tile's
+     * square costs nothing, and onto a group tile's square costs one move, so
+     * each level of the search first spreads the blank over everything it can
+     * reach for free. The table keeps, for each placement of the tiles, the least
+     * cost over all blank positions.
+     */
+    private byte[] build(int[] group) {
+        int cells = N * N;
+        int k = group.length;
+        int placements = (int) Math.pow(cells, k);
+        byte[] dist = new byte[placements * cells];
+        Arrays.fill(dist, UNSEEN);
+
+        int goal = 0;
+        for (int i = k - 1; i >= 0; i -= 1) {
+            goal = goal * cells + group[i] - 1;
+        }
+        IntList level = new IntList();
+        IntList next = new IntList();
+        level.add(goal * cells + cells - 1);
+        level.firstFree = 1;
+
+        int[] pos = new int[k];
+        int[] tileAt = new int[cells];
+        for (int d = 0; !level.isEmpty(); d += 1) {
+            for (int i = 0; i < level.size(); i += 1) {
+                int state = level.get(i);
+                if (i < level.firstFree) {
+                    if (dist[state] != UNSEEN) {
+                        continue;
+                    }
+                    dist[state] = (byte) d;
+                }
+                int placement = state / cells;
+                int blank = state % cells;
+                Arrays.fill(tileAt, -1);
+                for (int j = 0, p = placement; j < k; j += 1, p /= cells) {
+                    pos[j] = p % cells;
+                    tileAt[pos[j]] = j;
+                }
+                int row = blank / N;
+                int col = blank % N;
+                for (int move = 0; move < 4; move += 1) {
+                    int r = row + (move == 0 ? -1 : move == 1 ? 1 : 0);
+                    int c = col + (move == 2 ? -1 : move == 3 ? 1 : 0);
+                    if (r < 0 || r >= N || c < 0 || c >= N) {
+                        continue;
+                    }
+                    int cell = r * N + c;
+                    int j = tileAt[cell];
+                    if (j < 0) {
+                        int s = placement * cells + cell;
+                        if (dist[s] == UNSEEN) {
+                            dist[s] = (byte) d;
+                            level.add(s);
+                        }
+                    } else {
+                        int moved = placement + (blank - cell) * pow(cells, j);
+                        int s = moved * cells + cell;
+                        if (dist[s] == UNSEEN) {
+                            next.add(s);
+                        }
+                    }
+                }
+            }
+            IntList t = level;
+            level = next;
+            next = t;
+            next.clear();
+            level.firstFree = level.size();
+        }
+
+        byte[] table = new byte[placements];
+        Arrays.fill(table, Byte.MAX_VALUE);
+        for (int s = 0; s < dist.length; s += 1) {
+            if (dist[s] != UNSEEN && dist[s] < table[s / cells]) {
+                table[s / cells] = dist[s];
+            }
+        }
+        return table;
+    }
+
+    private static int pow(int base, int exp) {
+        int result = 1;
+        for (int i = 0; i < exp; i += 1) {
+            result *= base;
+        }
+        return result;
+    }
+
+    /**
+     * A growable list of ints. The states of a level before index firstFree were
+     * reached by a paid move from the level before, and may have been reached for
+     * less since; those from firstFree on were reached for free within the level,
+     * and already have their distance set.
+     */
+    private static class IntList {
+        private int[] items = new int[16];
+        private int size;
+        private int firstFree;
+
+        void add(int x) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = x;
+        }
+
+        int get(int i) {
+            return items[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+            firstFree = 0;
+        }
+    }
+
+    /** Returns the board side length N this database is for */
+    public int size() {
+        return N;
+    }
+
+    /**
+     * Returns the estimated number of moves to solve board b: the sum, over the
+     * groups, of the moves needed for that group's tiles. This is the inner loop
+     * of IDA*, so it reads b's tiles directly, without bounds checks, and sums
+     * every group's index from the place values of its tiles in one pass over b.
+     */
+    public int estimatedDistanceToGoal(Board b) {
+        if (b.size() != N) {
+            throw new IllegalArgumentException("Board is " + b.size() + "-by-" + b.size()
+                + ", not " + N + "-by-" + N);
+        }
+        int[] placement = new int[groups.length];
+        for (int index = 0; index < N * N; index += 1) {
+            int tile = b.tile(index);
+            int g = groupOf[tile];
+            if (g >= 0) {
+                placement[g] += index * weight[tile];
+            }
+        }
+        int estimate = 0;
+        for (int g = 0; g < groups.length; g += 1) {
+            estimate += tables[g][placement[g]];
+        }
+        return estimate;
+    }
+
+    /** Writes this database to the given file, to be read back with load */
+    public void save(String filename) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(N);
+            out.writeInt(groups.length);
+            for (int g = 0; g < groups.length; g += 1) {
+                out.writeInt(groups[g].length);
+                for (int tile : groups[g]) {
+                    out.writeInt(tile);
+                }
+                out.write(tables[g]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a database written by save. The sizes in the file are checked before
+     * anything is allocated for them, so a bad file throws IllegalArgumentException
+     * rather than running out of memory.
+     */
+    public static PatternDatabase load(String filename) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename)))) {
+            int N = in.readInt();
+            checkSize(N);
+            int numGroups = in.readInt();
+            if (numGroups < 0 || numGroups >= N * N) {
+                throw new IllegalArgumentException("Bad number of groups " + numGroups);
+            }
+            int[][] groups = new int[numGroups][];
+            byte[][] tables = new byte[numGroups][];
+            for (int g = 0; g < numGroups; g += 1) {
+                int length = in.readInt();
+                checkGroupSize(N, length);
+                groups[g] = new int[length];
+                for (int i = 0; i < groups[g].length; i += 1) {
+                    groups[g][i] = in.readInt();
+                }
+                tables[g] = new byte[pow(N * N, groups[g].length)];
+                in.readFully(tables[g]);
+            }
+            return new PatternDatabase(N, groups, tables);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the default database for N-by-N boards and saves it, e.g.
+     * java hw4.puzzle.PatternDatabase 4 input/pdb4x4.bin
+     */
+    public static void main(String[] args) {
+        int N = Integer.parseInt(args[0]);
+        long start = System.nanoTime();
+        PatternDatabase pdb = new PatternDatabase(N);
+        pdb.save(args[1]);
+        System.out.printf("Built %d-by-%d database in %.1f s%n", N, N,
+            (System.nanoTime() - start) / 1e9);
+    }
+}
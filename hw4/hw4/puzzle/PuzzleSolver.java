@@ -0,0 +1,18 @@
+package hw4.puzzle;
+
+/**
+ * A solved puzzle. Each implementation solves the puzzle in its constructor,
+ * with its own search, so that the answers below take constant time.
+ */
+public interface PuzzleSolver {
+    /** Returns the minimum number of moves to solve the puzzle starting
+     *  at the initial WorldState. */
+    int moves();
+
+    /** Returns a sequence of WorldStates from the initial WorldState
+     *  to the solution. */
+    Iterable<WorldState> solution();
+
+    /** Returns the number of states expanded while solving. */
+    long expanded();
+}
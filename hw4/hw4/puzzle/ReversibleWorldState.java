@@ -0,0 +1,17 @@
+package hw4.puzzle;
+
+/**
+ * A WorldState of a puzzle with a single goal whose moves can all be undone: if
+ * b is a neighbor of a, then a is a neighbor of b. Such a puzzle can be searched
+ * backward from the goal as well as forward from the start, with the same
+ * neighbors(). The neighbors of a ReversibleWorldState must be
+ * ReversibleWorldStates too.
+ */
+public interface ReversibleWorldState extends WorldState {
+    /** Returns the goal state of this state's puzzle. */
+    ReversibleWorldState goal();
+
+    /** Provides an estimate of the number of moves between this state and
+     *  other. Must be less than or equal to the correct distance. */
+    int estimatedDistanceTo(ReversibleWorldState other);
+}
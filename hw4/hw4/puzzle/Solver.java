@@ -7,7 +7,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 
-public class Solver {
+public class Solver implements PuzzleSolver {
 
     private static class SearchNode {
         WorldState state;
@@ -26,53 +26,67 @@ public class Solver {
     /** Instance variables of Solver */
     private final int moves;
     private final ArrayList<WorldState> solution = new ArrayList<>();
-    private HashMap<WorldState, Integer> cache = new HashMap<>();
+    private long enqueued;
+    private long expanded;
 
     /**
      * Constructor which solves the puzzle, computing
      * everything necessary for moves() and solution() to
      * not have to solve the problem again. Solves the
      * puzzle using the A* algorithm. Assumes a solution exists.
+     *
+     * best maps every state seen to the node that reached it in the fewest moves
+     * so far, which also caches the state's estimated distance. A neighbor is only
+     * enqueued if it improves on its best node, and a dequeued node that is no
+     * longer the best for its state is skipped, so each state is expanded once
+     * per improvement in its moves. With a consistent estimate that is once; with
+     * one that is only admissible, a state can be reopened, which keeps moves()
+     * optimal.
      */
     public Solver(WorldState initial) {
         MinPQ<SearchNode> fringe = new MinPQ<>(new NodeComparator());
+        HashMap<WorldState, SearchNode> best = new HashMap<>();
         SearchNode sentinel = new SearchNode(null, -1, -1, null);
-        fringe.insert(new SearchNode(initial, 0, 0, sentinel));
+        SearchNode start = new SearchNode(initial, 0, initial.estimatedDistanceToGoal(), sentinel);
+        best.put(initial, start);
+        fringe.insert(start);
+        enqueued += 1;
 
         SearchNode curr;
         while (true) {
             curr = fringe.delMin();
+            if (best.get(curr.state) != curr) {
+                continue;
+            }
             if (curr.state.isGoal()) {
                 this.moves = curr.moves;
                 break;
             }
+            expanded += 1;
             for (WorldState nextState : curr.state.neighbors()) {
-                if (nextState.equals(curr.prevNode.state)) {
+                SearchNode old = best.get(nextState);
+                if (old != null && old.moves <= curr.moves + 1) {
                     continue;
                 }
-
-                int estDist = getEstimatedDistance(nextState);
+                int estDist = old != null ? old.estDist : nextState.estimatedDistanceToGoal();
                 SearchNode newNode = new SearchNode(nextState, curr.moves + 1, estDist, curr);
+                best.put(nextState, newNode);
                 fringe.insert(newNode);
+                enqueued += 1;
             }
         }
         while (curr.prevNode != null) {
             solution.add(curr.state);
             curr = curr.prevNode;
         }
-    }
-
-    private int getEstimatedDistance(WorldState word) {
-        if (!cache.containsKey(word)) {
-            cache.put(word, word.estimatedDistanceToGoal());
-        }
-        return cache.get(word);
+        Collections.reverse(solution);
     }
 
     /**
      * Returns the minimum number of moves to solve the puzzle starting
      * at the initial WorldState.
      */
+    @Override
     public int moves() {
         return moves;
     }
@@ -81,15 +95,28 @@ public class Solver {
      * Returns a sequence of WorldStates from the initial WorldState
      * to the solution.
      */
+    @Override
     public Iterable<WorldState> solution() {
-        Collections.reverse(solution);
         return solution;
     }
 
+    /** Returns the number of search nodes ever enqueued */
+    public long enqueued() {
+        return enqueued;
+    }
+
+    /** Returns the number of states expanded, counting reopened states again */
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+
+    /** Orders nodes by moves plus estimated distance, breaking ties toward more moves */
     private static class NodeComparator implements Comparator<SearchNode> {
         @Override
         public int compare(SearchNode n1, SearchNode n2) {
-            return (n1.moves + n1.estDist) - (n2.moves + n2.estDist);
+            int cmp = (n1.moves + n1.estDist) - (n2.moves + n2.estDist);
+            return cmp != 0 ? cmp : n2.moves - n1.moves;
         }
     }
 
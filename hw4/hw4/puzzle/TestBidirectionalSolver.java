@@ -0,0 +1,62 @@
+package hw4.puzzle;
+import edu.princeton.cs.algs4.In;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestBidirectionalSolver {
+
+    @Test
+    public void testBoardPuzzles() {
+        for (int i = 0; i <= 6; i += 1) {
+            String puzzleName = String.format("input/puzzle2x2-%02d.txt", i);
+            Board b = TestSolver.readBoard(puzzleName);
+            BidirectionalSolver s = new BidirectionalSolver(b);
+            assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+            TestSolver.assertSolves(b, s);
+        }
+        for (int i = 0; i <= 31; i += 1) {
+            String puzzleName = String.format("input/puzzle%02d.txt", i);
+            Board b = TestSolver.readBoard(puzzleName);
+            BidirectionalSolver s = new BidirectionalSolver(b);
+            assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+            TestSolver.assertSolves(b, s);
+        }
+        for (int i = 0; i <= 30; i += 1) {
+            String puzzleName = String.format("input/puzzle4x4-%02d.txt", i);
+            Board b = TestSolver.readBoard(puzzleName);
+            BidirectionalSolver s = new BidirectionalSolver(b);
+            assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+            TestSolver.assertSolves(b, s);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWordPuzzles() {
+        In in = new In("input/word_puzzles.txt");
+        while (!in.isEmpty()) {
+            TestSolver.WordPuzzleSolution wps = TestSolver.stringToWordPuzzle(in.readLine());
+            if (wps == null) {
+                continue;
+            }
+            Word w = new Word(wps.start, wps.goal);
+            BidirectionalSolver s = new BidirectionalSolver(w);
+            assertEquals("Wrong number of moves solving " + wps.start + "->" + wps.goal,
+                wps.numMoves, s.moves());
+            TestSolver.assertSolves(w, s);
+        }
+    }
+
+    @Test
+    public void testGoalAndDistance() {
+        Board b = TestSolver.readBoard("input/puzzle4x4-30.txt");
+        assertTrue(b.goal().isGoal());
+        assertEquals(b.manhattan(), b.estimatedDistanceTo(b.goal()));
+        assertEquals(b.manhattan(), b.goal().estimatedDistanceTo(b));
+
+        Word w = new Word("host", "crack");
+        assertEquals("crack", w.goal().toString());
+        assertTrue(w.goal().isGoal());
+        assertEquals(w.estimatedDistanceToGoal(), w.goal().estimatedDistanceTo(w));
+    }
+}
@@ -1,5 +1,12 @@
 package hw4.puzzle;
 import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
 import static org.junit.Assert.*;
 
 public class TestBoard {
@@ -25,4 +32,84 @@ public class TestBoard {
         x[1][1] = 1000;
         assertEquals("Your Board class is mutable and you should be making a copy of the values in the passed tiles array. Please see the FAQ!", 3, b.tileAt(1, 1));
     }
-} 
+
+    /** Manhattan distance computed from scratch, to check the incremental one */
+    private static int manhattan(Board b) {
+        int N = b.size();
+        int estimate = 0;
+        for (int i = 0; i < N; i += 1) {
+            for (int j = 0; j < N; j += 1) {
+                int tile = b.tileAt(i, j);
+                if (tile != 0) {
+                    estimate += Math.abs((tile - 1) / N - i) + Math.abs((tile - 1) % N - j);
+                }
+            }
+        }
+        return estimate;
+    }
+
+    private static int[][] tiles(Board b) {
+        int[][] t = new int[b.size()][b.size()];
+        for (int i = 0; i < b.size(); i += 1) {
+            for (int j = 0; j < b.size(); j += 1) {
+                t[i][j] = b.tileAt(i, j);
+            }
+        }
+        return t;
+    }
+
+    /** Random walks on packed and byte-per-tile boards keep every value in step */
+    @Test
+    public void testRandomWalks() {
+        Random random = new Random(61);
+        for (int N = 2; N <= 6; N += 1) {
+            int[][] goal = new int[N][N];
+            for (int i = 0; i < N * N - 1; i += 1) {
+                goal[i / N][i % N] = i + 1;
+            }
+            Board b = new Board(goal);
+            assertTrue(b.isGoal());
+            for (int step = 0; step < 2000; step += 1) {
+                List<WorldState> neighbors = new ArrayList<>();
+                for (WorldState ws : b.neighbors()) {
+                    neighbors.add(ws);
+                }
+                assertTrue(neighbors.size() >= 2 && neighbors.size() <= 4);
+                assertEquals(neighbors.size(), new HashSet<>(neighbors).size());
+                Board next = (Board) neighbors.get(random.nextInt(neighbors.size()));
+                assertEquals(manhattan(next), next.manhattan());
+                assertEquals(Math.abs(next.manhattan() - b.manhattan()), 1);
+
+                Board copy = new Board(tiles(next));
+                assertEquals(next, copy);
+                assertEquals(next.hashCode(), copy.hashCode());
+                assertEquals(next.manhattan(), copy.manhattan());
+                assertNotEquals(b, next);
+                b = next;
+            }
+        }
+    }
+
+    @Test
+    public void testHashCodesSpread() {
+        Set<Integer> hashes = new HashSet<>();
+        Set<Board> boards = new HashSet<>();
+        Board b = TestSolver.readBoard("input/puzzle4x4-00.txt");
+        Random random = new Random(61);
+        for (int step = 0; step < 20000; step += 1) {
+            List<WorldState> neighbors = new ArrayList<>();
+            for (WorldState ws : b.neighbors()) {
+                neighbors.add(ws);
+            }
+            b = (Board) neighbors.get(random.nextInt(neighbors.size()));
+            boards.add(b);
+            hashes.add(b.hashCode());
+        }
+        assertTrue(hashes.size() > boards.size() * 0.999);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsBadTiles() {
+        new Board(new int[][] {{1, 2}, {3, 4}});
+    }
+}
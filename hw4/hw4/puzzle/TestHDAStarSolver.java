@@ -0,0 +1,54 @@
+package hw4.puzzle;
+import edu.princeton.cs.algs4.In;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestHDAStarSolver {
+
+    @Test
+    public void testBoardPuzzles() {
+        for (int threads = 1; threads <= 4; threads *= 2) {
+            for (int i = 0; i <= 30; i += 3) {
+                String puzzleName = String.format("input/puzzle4x4-%02d.txt", i);
+                Board b = TestSolver.readBoard(puzzleName);
+                HDAStarSolver s = new HDAStarSolver(b, threads);
+                assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+                TestSolver.assertSolves(b, s);
+            }
+            for (int i = 0; i <= 31; i += 1) {
+                String puzzleName = String.format("input/puzzle%02d.txt", i);
+                Board b = TestSolver.readBoard(puzzleName);
+                assertEquals("Wrong number of moves on " + puzzleName,
+                    i, new HDAStarSolver(b, threads).moves());
+            }
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testWordPuzzles() {
+        In in = new In("input/word_puzzles.txt");
+        while (!in.isEmpty()) {
+            TestSolver.WordPuzzleSolution wps = TestSolver.stringToWordPuzzle(in.readLine());
+            if (wps == null) {
+                continue;
+            }
+            Word w = new Word(wps.start, wps.goal);
+            HDAStarSolver s = new HDAStarSolver(w, 3);
+            assertEquals("Wrong number of moves solving " + wps.start + "->" + wps.goal,
+                wps.numMoves, s.moves());
+            TestSolver.assertSolves(w, s);
+        }
+    }
+
+    /** The estimate of the CommonBugDetector puzzle is admissible but inconsistent */
+    @Test
+    public void testReopensStates() {
+        for (int threads = 1; threads <= 4; threads += 1) {
+            WorldState start = new CommonBugDetector.CommonBugPuzzleState();
+            HDAStarSolver s = new HDAStarSolver(start, threads);
+            assertEquals(5, s.moves());
+            TestSolver.assertSolves(start, s);
+        }
+    }
+}
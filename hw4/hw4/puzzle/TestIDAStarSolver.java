@@ -0,0 +1,103 @@
+package hw4.puzzle;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestIDAStarSolver {
+    private static final PatternDatabase PDB3 = new PatternDatabase(3);
+    private static final PatternDatabase PDB4 = new PatternDatabase(4);
+
+    private static IDAStarSolver solve(Board b) {
+        PatternDatabase pdb = b.size() == 3 ? PDB3 : PDB4;
+        return new IDAStarSolver(b, ws -> pdb.estimatedDistanceToGoal((Board) ws));
+    }
+
+    @Test
+    public void test3x3BoardPuzzles() {
+        for (int i = 0; i <= 31; i += 1) {
+            String puzzleName = String.format("input/puzzle3x3-%02d.txt", i);
+            Board b = TestSolver.readBoard(puzzleName);
+            IDAStarSolver s = solve(b);
+            assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+            TestSolver.assertSolves(b, s);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void test4x4BoardPuzzles() {
+        for (int i = 0; i <= 50; i += 1) {
+            String puzzleName = String.format("input/puzzle4x4-%02d.txt", i);
+            Board b = TestSolver.readBoard(puzzleName);
+            IDAStarSolver s = solve(b);
+            assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+            TestSolver.assertSolves(b, s);
+        }
+    }
+
+    @Test
+    public void testManhattanHeuristic() {
+        for (int i = 0; i <= 20; i += 1) {
+            String puzzleName = String.format("input/puzzle4x4-%02d.txt", i);
+            IDAStarSolver s = new IDAStarSolver(TestSolver.readBoard(puzzleName));
+            assertEquals("Wrong number of moves on " + puzzleName, i, s.moves());
+        }
+    }
+
+    @Test
+    public void testWordPuzzle() {
+        IDAStarSolver s = new IDAStarSolver(new Word("kept", "tent"));
+        assertEquals(2, s.moves());
+    }
+
+    /** The estimates never exceed the true distances, and never fall below Manhattan */
+    @Test
+    public void testPatternDatabaseBounds() {
+        for (int i = 0; i <= 50; i += 1) {
+            Board b = TestSolver.readBoard(String.format("input/puzzle4x4-%02d.txt", i));
+            int h = PDB4.estimatedDistanceToGoal(b);
+            assertTrue(h <= i);
+            assertTrue(h >= b.manhattan());
+            assertEquals(i == 0, h == 0);
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("pdb", ".bin");
+        file.deleteOnExit();
+        PDB3.save(file.getPath());
+        PatternDatabase loaded = PatternDatabase.load(file.getPath());
+        assertEquals(3, loaded.size());
+        for (int i = 0; i <= 31; i += 1) {
+            Board b = TestSolver.readBoard(String.format("input/puzzle3x3-%02d.txt", i));
+            assertEquals(PDB3.estimatedDistanceToGoal(b), loaded.estimatedDistanceToGoal(b));
+        }
+    }
+
+    /** A file with too big a group must be rejected before its table is allocated */
+    @Test
+    public void testLoadRejectsBadSizes() throws IOException {
+        File file = File.createTempFile("pdb", ".bin");
+        file.deleteOnExit();
+        int[][] headers = {{0, 1, 1}, {4, -1, 1}, {4, 1, 0}, {4, 1, 9}};
+        for (int[] header : headers) {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                for (int x : header) {
+                    out.writeInt(x);
+                }
+            }
+            try {
+                PatternDatabase.load(file.getPath());
+                fail("Loaded a database of size " + Arrays.toString(header));
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
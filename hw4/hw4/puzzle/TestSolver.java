@@ -92,6 +92,27 @@ public class TestSolver {
         return start;
     }
 
+    /** Checks that the solution is a path of s.moves() moves from start to a goal */
+    static void assertSolves(WorldState start, PuzzleSolver s) {
+        WorldState prev = null;
+        int states = 0;
+        for (WorldState ws : s.solution()) {
+            if (prev == null) {
+                assertEquals(start, ws);
+            } else {
+                boolean isNeighbor = false;
+                for (WorldState n : prev.neighbors()) {
+                    isNeighbor |= n.equals(ws);
+                }
+                assertTrue("Solution makes an illegal move", isNeighbor);
+            }
+            prev = ws;
+            states += 1;
+        }
+        assertTrue(prev.isGoal());
+        assertEquals(s.moves() + 1, states);
+    }
+
     @Test
     public void test2x2BoardPuzzles() {
         for (int i = 0; i <= 6; i += 1) {
@@ -143,4 +164,20 @@ public class TestSolver {
             assertEquals("Wrong number of moves on " + puzzleName, bps.numMoves, s.moves());
         }
     }
+
+    /** The estimate of the CommonBugDetector puzzle is admissible but inconsistent */
+    @Test
+    public void testReopensStates() {
+        WorldState start = new CommonBugDetector.CommonBugPuzzleState();
+        Solver s = new Solver(start);
+        assertEquals(5, s.moves());
+        assertSolves(start, s);
+    }
+
+    @Test
+    public void testEnqueuesEachStateOnce() {
+        Solver s = new Solver(new AlphabetEasyPuzzle('a'));
+        assertEquals(25, s.moves());
+        assertTrue("Enqueued " + s.enqueued() + " nodes", s.enqueued() <= 27);
+    }
 }
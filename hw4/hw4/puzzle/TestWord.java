@@ -0,0 +1,69 @@
+package hw4.puzzle;
+import edu.princeton.cs.introcs.In;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestWord {
+
+    private static String randomString(Random random, int maxLength, int letters) {
+        char[] s = new char[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < s.length; i += 1) {
+            s[i] = (char) ('a' + random.nextInt(letters));
+        }
+        return new String(s);
+    }
+
+    @Test
+    public void testEditDistance() {
+        assertEquals(3, Word.editDistance("kitten", "sitting"));
+        assertEquals(2, Word.editDistance("ab", "ba"));
+        assertEquals(4, Word.editDistance("", "abcd"));
+        assertEquals(4, Word.editDistance("abcd", ""));
+        assertEquals(0, Word.editDistance("Host", "host"));
+
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i += 1) {
+            int letters = 1 + random.nextInt(5);
+            String a = randomString(random, 70, letters);
+            String b = randomString(random, 70, letters);
+            assertEquals(a + " " + b, Word.editDistanceByMatrix(a, b), Word.editDistance(a, b));
+        }
+    }
+
+    @Test
+    public void testNeighborsMatchFullScan() {
+        Set<String> words = new HashSet<>();
+        In in = new In("input/words10000.txt");
+        while (!in.isEmpty()) {
+            words.add(in.readString());
+        }
+        String[] sample = {"host", "horse", "crack", "kept", "tent", "a", "ab", "computer"};
+        for (String w : sample) {
+            if (!words.contains(w)) {
+                continue;
+            }
+            Set<String> expected = new HashSet<>();
+            for (String s : words) {
+                if (Word.editDistanceByMatrix(w, s) == 1) {
+                    expected.add(s);
+                }
+            }
+            Set<String> actual = new HashSet<>();
+            for (WorldState ws : new Word(w, "host").neighbors()) {
+                actual.add(ws.toString());
+                assertEquals(Word.editDistance(ws.toString(), "host"), ws.estimatedDistanceToGoal());
+            }
+            assertEquals("Neighbors of " + w, expected, actual);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownWord() {
+        new Word("qqqqq", "host");
+    }
+}
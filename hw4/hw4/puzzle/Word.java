@@ -1,56 +1,181 @@
 package hw4.puzzle;
 
-import java.util.Set;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import edu.princeton.cs.introcs.In;
 
-public class Word implements WorldState {
-    private static Set<String> words;
+public class Word implements ReversibleWorldState {
     private static final String WORDFILE = "input/words10000.txt";
-    private final String word;
-    private final String goal;
+    private final int word;
+    private final int goal;
+    private final int[] distanceToGoal;  // shared by all Words made from one new Word
 
     /**
-     * Reads the wordfile specified by the wordfile variable.
+     * The words of the wordfile specified by the wordfile variable, read on first
+     * use, each with an id: its index in words. Also holds, for every word, the ids
+     * of the words at edit distance 1, found once with a deletion index. Class
+     * initialization makes these safe to share between threads.
      */
-    private void readWords() {
-        words = new HashSet<String>();
+    private static class Dictionary {
+        static final String[] words;
+        static final Map<String, Integer> ids = new HashMap<>();
+        static final int[][] neighbors;
 
-        In in = new In(WORDFILE);
-        while (!in.isEmpty()) {
-            words.add(in.readString());
+        static {
+            List<String> list = new ArrayList<>();
+            In in = new In(WORDFILE);
+            while (!in.isEmpty()) {
+                String w = in.readString();
+                if (!ids.containsKey(w)) {
+                    ids.put(w, list.size());
+                    list.add(w);
+                }
+            }
+            words = list.toArray(new String[0]);
+            neighbors = findNeighbors();
+        }
+
+        /**
+         * Finds the neighbors of every word. Two words at edit distance 1 differ by
+         * one insertion, deletion or substitution, so one is the other with a
+         * letter deleted, or both are the same word with a letter deleted. Indexing
+         * every word under itself and each of its deletions, the neighbors of a
+         * word are among the words under its own keys. Those candidates are
+         * checked with editDistance, which weeds out pairs like "ab" and "ba".
+         */
+        private static int[][] findNeighbors() {
+            Map<String, List<Integer>> index = new HashMap<>();
+            for (int id = 0; id < words.length; id += 1) {
+                for (String key : keys(words[id])) {
+                    index.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+                }
+            }
+            int[][] result = new int[words.length][];
+            int[] seen = new int[words.length];
+            Arrays.fill(seen, -1);
+            int[] found = new int[words.length];
+            for (int id = 0; id < words.length; id += 1) {
+                int count = 0;
+                seen[id] = id;
+                for (String key : keys(words[id])) {
+                    for (int other : index.get(key)) {
+                        if (seen[other] != id) {
+                            seen[other] = id;
+                            if (editDistance(words[id], words[other]) == 1) {
+                                found[count++] = other;
+                            }
+                        }
+                    }
+                }
+                result[id] = Arrays.copyOf(found, count);
+                Arrays.sort(result[id]);
+            }
+            return result;
+        }
+
+        /** Returns w and every string made by deleting one letter of w */
+        private static List<String> keys(String w) {
+            List<String> keys = new ArrayList<>(w.length() + 1);
+            keys.add(w);
+            for (int i = 0; i < w.length(); i += 1) {
+                keys.add(w.substring(0, i) + w.substring(i + 1));
+            }
+            return keys;
+        }
+
+        /** Returns the edit distances from every word to the given goal */
+        static int[] distancesTo(int goal) {
+            int[] d = new int[words.length];
+            for (int id = 0; id < words.length; id += 1) {
+                d[id] = editDistance(words[id], words[goal]);
+            }
+            return d;
         }
     }
 
     /**
-     * Creates a new Word.
+     * Creates a new Word. The edit distance from every word to the goal is
+     * computed once, here, and shared by this Word's neighbors, their
+     * neighbors, and so on, so it lives only as long as the search using it.
      */
     public Word(String w, String g) {
-        /* If words hasn't been read yet, read it. */
-        if (words == null) {
-            readWords();
-        }
-
-        if (!words.contains(w)) {
+        Integer id = Dictionary.ids.get(w);
+        if (id == null) {
             throw new IllegalArgumentException("Invalid word: " + w);
         }
-
-        if (!words.contains(g)) {
+        Integer goalId = Dictionary.ids.get(g);
+        if (goalId == null) {
             throw new IllegalArgumentException("Invalid goal: " + g);
         }
+        word = id;
+        goal = goalId;
+        distanceToGoal = Dictionary.distancesTo(goal);
+    }
 
-        word = w;
-        goal = g;
+    private Word(int word, int goal, int[] distanceToGoal) {
+        this.word = word;
+        this.goal = goal;
+        this.distanceToGoal = distanceToGoal;
     }
 
     /**
-     * Computes the edit distance between a and b. From
-     * https://rosettacode.org/wiki/Levenshtein_distance.
+     * Computes the edit distance between a and b, ignoring case. If a has at
+     * most 64 characters, all ASCII, uses Myers' bit-parallel algorithm, in
+     * Hyyro's formulation: the differences between adjacent cells of a column
+     * of the dynamic programming matrix are kept as bit vectors, one bit per
+     * character of a, and each column is computed from the last with a constant
+     * number of operations on longs. Otherwise fills in the matrix column by
+     * column, as in https://rosettacode.org/wiki/Levenshtein_distance.
      */
-    private static int editDistance(String a, String b) {
+    static int editDistance(String a, String b) {
         a = a.toLowerCase();
         b = b.toLowerCase();
+        int m = a.length();
+        if (m == 0) {
+            return b.length();
+        }
+        long[] peq = m <= Long.SIZE ? new long[128] : null;
+        for (int i = 0; peq != null && i < m; i += 1) {
+            char c = a.charAt(i);
+            if (c >= 128) {
+                peq = null;
+            } else {
+                peq[c] |= 1L << i;
+            }
+        }
+        if (peq == null) {
+            return editDistanceByMatrix(a, b);
+        }
+        long pv = -1L;  // vertical differences of +1
+        long mv = 0;    // vertical differences of -1
+        long high = 1L << (m - 1);
+        int score = m;
+        for (int j = 0; j < b.length(); j += 1) {
+            char c = b.charAt(j);
+            long eq = c < 128 ? peq[c] : 0;
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & high) != 0) {
+                score += 1;
+            } else if ((mh & high) != 0) {
+                score -= 1;
+            }
+            // the first row of the matrix is 0, 1, 2, ..., so it always goes up by 1
+            ph = (ph << 1) | 1;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
+
+    static int editDistanceByMatrix(String a, String b) {
         // i == 0
         int[] costs = new int[b.length() + 1];
         for (int j = 0; j < costs.length; j++) {
@@ -70,26 +195,46 @@ public class Word implements WorldState {
         return costs[b.length()];
     }
 
-
+    /** Returns the words at edit distance 1, from the precomputed neighbor lists */
     @Override
     public Iterable<WorldState> neighbors() {
-        Set<WorldState> neighbs = new HashSet<>();
-        for (String s : words) {
-            if (editDistance(this.word, s) == 1) {
-                neighbs.add(new Word(s, goal));
-            }
+        int[] ids = Dictionary.neighbors[word];
+        List<WorldState> neighbs = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            neighbs.add(new Word(id, goal, distanceToGoal));
         }
         return neighbs;
     }
 
+    /** Looks up the edit distance to the goal, computed for all words at once */
     @Override
     public int estimatedDistanceToGoal() {
-        return editDistance(this.word, goal);
+        return distanceToGoal[word];
+    }
+
+    /** Returns the goal word, with the same goal */
+    @Override
+    public Word goal() {
+        return new Word(goal, goal, distanceToGoal);
+    }
+
+    /**
+     * Looks up the edit distance to other if it is the goal, and computes it
+     * otherwise; searches keep the estimate of each state they see, so each is
+     * computed once per search.
+     */
+    @Override
+    public int estimatedDistanceTo(ReversibleWorldState other) {
+        int target = ((Word) other).word;
+        if (target == goal) {
+            return distanceToGoal[word];
+        }
+        return editDistance(Dictionary.words[word], Dictionary.words[target]);
     }
 
     @Override
     public String toString() {
-        return word;
+        return Dictionary.words[word];
     }
 
     @Override
@@ -102,17 +247,11 @@ public class Word implements WorldState {
         }
 
         Word word1 = (Word) o;
-
-        if (word != null ? !word.equals(word1.word) : word1.word != null) {
-            return false;
-        }
-        return goal != null ? goal.equals(word1.goal) : word1.goal == null;
+        return word == word1.word && goal == word1.goal;
     }
 
     @Override
     public int hashCode() {
-        int result = word != null ? word.hashCode() : 0;
-        result = 31 * result + (goal != null ? goal.hashCode() : 0);
-        return result;
+        return 31 * word + goal;
     }
 }
@@ -5,19 +5,36 @@ public class WordPuzzleSolver {
     /***********************************************************************
      * Test routine for your Solver class. Uncomment and run to test
      * your basic functionality.
+     *
+     * Usage: WordPuzzleSolver [astar | bidirectional [start goal]] picks the
+     * solver, A* by default.
      **********************************************************************/
 
     public static void main(String[] args) {
-        String start = "host";
-        String goal = "crack";
+        String mode = args.length > 0 ? args[0] : "astar";
+        String start = args.length > 2 ? args[1] : "host";
+        String goal = args.length > 2 ? args[2] : "crack";
 
         Word startState = new Word(start, goal);
-        Solver solver = new Solver(startState);
+        PuzzleSolver solver = solve(startState, mode);
 
         StdOut.println("Minimum number of moves = " + solver.moves());
+        StdOut.println("States expanded = " + solver.expanded());
         for (WorldState ws : solver.solution()) {
             StdOut.println(ws);
         }
     }
 
+    /** Solves startState with the named solver */
+    private static PuzzleSolver solve(Word startState, String mode) {
+        switch (mode) {
+            case "astar":
+                return new Solver(startState);
+            case "bidirectional":
+                return new BidirectionalSolver(startState);
+            default:
+                throw new IllegalArgumentException("Unknown solver: " + mode);
+        }
+    }
+
 }
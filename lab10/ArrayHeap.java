@@ -1,6 +1,14 @@
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
 /**
  * A Generic heap class. Unlike Java's priority queue, this heap doesn't just
  * store Comparable objects. Instead, it can store any type of object
@@ -8,21 +16,48 @@ import static org.junit.Assert.*;
  * will be useful later on in the class...
  */
 public class ArrayHeap<T> implements ExtrinsicPQ<T> {
-    private Node[] contents;
+    /* The heap is kept in parallel arrays, so that sifting compares primitive
+     * doubles instead of following a pointer to a Node per comparison. Entry 0
+     * is left empty, so that the children of i are at 2i and 2i + 1. */
+    private Object[] items; /* Holds Ts; Object[] since T[] cannot be created */
+    private double[] priorities;
+    /* Maps each item to its position in items, so changePriority can find it. */
+    private Map<T, Integer> positions;
     private int size;
 
     public ArrayHeap() {
-        contents = new ArrayHeap.Node[16];
-
-        /* Add a dummy item at the front of the ArrayHeap so that the getLeft,
-         * getRight, and parent methods are nicer. */
-        contents[0] = null;
+        items = new Object[16];
+        priorities = new double[16];
+        positions = new HashMap<>();
 
         /* Even though there is an empty spot at the front, we still consider
          * the size to be 0 since nothing has been inserted yet. */
         size = 0;
     }
 
+    /* The bulk constructors are static methods, since JUnit only runs the tests
+     * below in a class with one public constructor. */
+
+    /**
+     * Returns a heap of the given items, where item i has priority i, built in
+     * O(n) time: the arrays are copied in as they are and then heapified.
+     */
+    public static <T> ArrayHeap<T> of(T[] items, double[] priorities) {
+        ArrayHeap<T> pq = new ArrayHeap<>();
+        pq.insertAll(items, priorities);
+        return pq;
+    }
+
+    /**
+     * Returns a heap of the keys of the given map, each with the priority it
+     * maps to, built in O(n) time.
+     */
+    public static <T> ArrayHeap<T> of(Map<? extends T, Double> itemPriorities) {
+        ArrayHeap<T> pq = new ArrayHeap<>();
+        pq.insertAll(itemPriorities);
+        return pq;
+    }
+
     /**
      * Returns the index of the node to the left of the node at i.
      */
@@ -44,17 +79,6 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         return i/2;
     }
 
-    /**
-     * Gets the node at the ith index, or returns null if the index is out of
-     * bounds.
-     */
-    private Node getNode(int index) {
-        if (!inBounds(index)) {
-            return null;
-        }
-        return contents[index];
-    }
-
     /**
      * Returns true if the index corresponds to a valid item. For example, if
      * we have 5 items, then the valid indices are 1, 2, 3, 4, 5. Index 0 is
@@ -68,67 +92,224 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
     }
 
     /**
-     * Swap the nodes at the two indices.
+     * Puts item with the given priority at index i, and records where it is.
      */
-    private void swap(int index1, int index2) {
-        Node node1 = getNode(index1);
-        Node node2 = getNode(index2);
-        contents[index1] = node2;
-        contents[index2] = node1;
+    private void place(int i, T item, double priority) {
+        items[i] = item;
+        priorities[i] = priority;
+        positions.put(item, i);
     }
 
     /**
-     * Returns the index of the node with smaller priority. Precondition: not
-     * both nodes are null.
+     * Bubbles up the node currently at the given index. Rather than swapping
+     * it with each parent in turn, lifts it out, moves the parents down into
+     * the hole it leaves, and writes it once where the hole stops.
      */
-    private int min(int index1, int index2) {
-        Node node1 = getNode(index1);
-        Node node2 = getNode(index2);
-        if (node1 == null) {
-            return index2;
-        } else if (node2 == null) {
-            return index1;
-        } else if (node1.myPriority < node2.myPriority) {
-            return index1;
-        } else {
-            return index2;
+    private void swim(int index) {
+        // Throws an exception if index is invalid. DON'T CHANGE THIS LINE.
+        validateSinkSwimArg(index);
+
+        T item = (T) items[index];
+        double priority = priorities[index];
+        while (index > 1 && priority < priorities[parentIndex(index)]) {
+            int parent = parentIndex(index);
+            place(index, (T) items[parent], priorities[parent]);
+            index = parent;
         }
+        place(index, item, priority);
     }
 
     /**
-     * Bubbles up the node currently at the given index.
+     * Bubbles down the node currently at the given index, moving the hole
+     * down the same way swim moves it up. Ties between the children go to the
+     * right child.
      */
-    private void swim(int index) {
+    private void sink(int index) {
         // Throws an exception if index is invalid. DON'T CHANGE THIS LINE.
         validateSinkSwimArg(index);
 
-        Node parentNode = getNode(parentIndex(index));
-        Node currentNode = getNode(index);
+        T item = (T) items[index];
+        double priority = priorities[index];
+        int child = leftIndex(index);
+        while (child <= size) {
+            if (child < size && !(priorities[child] < priorities[child + 1])) {
+                child += 1;
+            }
+            if (!(priorities[child] < priority)) {
+                break;
+            }
+            place(index, (T) items[child], priorities[child]);
+            index = child;
+            child = leftIndex(index);
+        }
+        place(index, item, priority);
+    }
+
+    /**
+     * Adds an item with the given priority after the last one, without
+     * swimming it. The caller must make sure there is room and the item is not
+     * null, and restore the heap order afterwards.
+     */
+    private void append(T item, double priority) {
+        size += 1;
+        place(size, item, priority);
+    }
 
-        if (parentNode != null && currentNode.priority() < parentNode.priority()) {
-            swap(index, parentIndex(index));
-            swim(parentIndex(index));
+    /**
+     * Restores the heap order of the whole array in O(n) time, by sinking
+     * every node that has children, from the last one back to the root
+     * (Floyd's method). Most nodes are near the bottom and sink only a little,
+     * so the total work is at most about 2n moves.
+     */
+    private void heapify() {
+        for (int i = parentIndex(size); i >= 1; i -= 1) {
+            sink(i);
         }
     }
 
     /**
-     * Bubbles down the node currently at the given index.
+     * Inserts the given items, where item i has priority i. A batch at least
+     * as large as the heap is appended and the whole heap heapified, in time
+     * linear in the batch; a smaller one is swum in one item at a time. If any
+     * item is null, throws before inserting anything.
      */
-    private void sink(int index) {
-        // Throws an exception if index is invalid. DON'T CHANGE THIS LINE.
-        validateSinkSwimArg(index);
+    public void insertAll(T[] newItems, double[] newPriorities) {
+        if (newItems.length != newPriorities.length) {
+            throw new IllegalArgumentException("Need exactly one priority per item.");
+        }
+        for (T item : newItems) {
+            if (item == null) {
+                throw new IllegalArgumentException("Cannot insert a null item.");
+            }
+        }
+        int oldSize = size;
+        ensureCapacity(size + newItems.length + 1);
+        for (int i = 0; i < newItems.length; i += 1) {
+            append(newItems[i], newPriorities[i]);
+        }
+        restoreAfterAppend(oldSize);
+    }
+
+    /**
+     * Inserts the keys of the given map, each with the priority it maps to,
+     * as insertAll(T[], double[]) does. If any key or priority is null, throws
+     * before inserting anything.
+     */
+    public void insertAll(Map<? extends T, Double> itemPriorities) {
+        for (Map.Entry<? extends T, Double> e : itemPriorities.entrySet()) {
+            if (e.getKey() == null || e.getValue() == null) {
+                throw new IllegalArgumentException("Cannot insert a null item or priority.");
+            }
+        }
+        int oldSize = size;
+        ensureCapacity(size + itemPriorities.size() + 1);
+        for (Map.Entry<? extends T, Double> e : itemPriorities.entrySet()) {
+            append(e.getKey(), e.getValue());
+        }
+        restoreAfterAppend(oldSize);
+    }
+
+    /**
+     * Restores the heap order after items were appended to a heap of oldSize
+     * items. Heapifying costs O(oldSize + k) for k new items, which is O(k)
+     * once k is at least oldSize; swimming them costs up to O(k log n).
+     */
+    private void restoreAfterAppend(int oldSize) {
+        if (size - oldSize >= oldSize) {
+            heapify();
+        } else {
+            for (int i = oldSize + 1; i <= size; i += 1) {
+                swim(i);
+            }
+        }
+    }
+
+    /**
+     * Removes the k items with the smallest priorities, or all items if
+     * there are fewer, and returns them in order of priority.
+     *
+     * For small k this is k removeMins. For larger k, it avoids their k sink
+     * paths of log n each: the k smallest are found by walking the heap from
+     * the root, keeping the children of every node taken in a small heap of
+     * candidates, in O(k log k); the rest are then moved down to close the
+     * gaps and heapified in O(n).
+     */
+    public List<T> drainTo(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Cannot drain a negative number of items.");
+        }
+        k = Math.min(k, size);
+        List<T> drained = new ArrayList<>(k);
+        int log = 32 - Integer.numberOfLeadingZeros(size);
+        if ((long) k * log <= size) {
+            for (int i = 0; i < k; i += 1) {
+                drained.add(removeMin());
+            }
+            return drained;
+        }
 
-        Node leftNode = getNode(leftIndex(index));
-        Node rightNode = getNode(rightIndex(index));
+        boolean[] taken = new boolean[size + 1];
+        int[] candidates = new int[k + 2]; /* A binary heap of indices, from 0 */
+        int numCandidates = 0;
+        if (k > 0) {
+            candidates[0] = 1;
+            numCandidates = 1;
+        }
+        while (drained.size() < k) {
+            int i = candidates[0];
+            numCandidates -= 1;
+            candidates[0] = candidates[numCandidates];
+            sinkCandidate(candidates, numCandidates);
+            taken[i] = true;
+            drained.add((T) items[i]);
+            for (int child = leftIndex(i); child <= rightIndex(i) && child <= size; child += 1) {
+                candidates[numCandidates] = child;
+                swimCandidate(candidates, numCandidates);
+                numCandidates += 1;
+            }
+        }
 
-        if (!(leftNode == null && rightNode == null)) {
-            int minIndex = min(leftIndex(index), rightIndex(index));
+        int kept = 0;
+        for (int i = 1; i <= size; i += 1) {
+            if (taken[i]) {
+                positions.remove(items[i], i);
+            } else {
+                kept += 1;
+                place(kept, (T) items[i], priorities[i]);
+            }
+        }
+        Arrays.fill(items, kept + 1, size + 1, null);
+        size = kept;
+        heapify();
+        return drained;
+    }
+
+    /** Moves the heap index at c up the candidate heap, ordered by priority. */
+    private void swimCandidate(int[] candidates, int c) {
+        int index = candidates[c];
+        while (c > 0 && priorities[index] < priorities[candidates[(c - 1) / 2]]) {
+            candidates[c] = candidates[(c - 1) / 2];
+            c = (c - 1) / 2;
+        }
+        candidates[c] = index;
+    }
 
-            if (getNode(minIndex).priority() < getNode(index).priority()) {
-                swap(index, minIndex);
-                sink(minIndex);
+    /** Moves the heap index at the root of the candidate heap of n down. */
+    private void sinkCandidate(int[] candidates, int n) {
+        int c = 0;
+        int index = candidates[0];
+        while (2 * c + 1 < n) {
+            int child = 2 * c + 1;
+            if (child + 1 < n && priorities[candidates[child + 1]] < priorities[candidates[child]]) {
+                child += 1;
             }
+            if (!(priorities[candidates[child]] < priorities[index])) {
+                break;
+            }
+            candidates[c] = candidates[child];
+            c = child;
         }
+        candidates[c] = index;
     }
 
     /**
@@ -137,12 +318,16 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
      */
     @Override
     public void insert(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot insert a null item.");
+        }
         /* If the array is totally full, resize. */
-        if (size + 1 == contents.length) {
-            resize(contents.length * 2);
+        if (size + 1 == items.length) {
+            resize(items.length * 2);
         }
-        contents[size + 1] = new Node(item, priority);
         size += 1;
+        items[size] = item;
+        priorities[size] = priority;
         swim(size);
     }
 
@@ -152,7 +337,10 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
      */
     @Override
     public T peek() {
-        return contents[1].item();
+        if (size == 0) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        return (T) items[1];
     }
 
     /**
@@ -167,11 +355,17 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
     @Override
     public T removeMin() {
         T minItem = peek();
-        swap(size, 1);
-        contents[size] = null;
+        /* If minItem was inserted twice, positions may hold the other copy. */
+        positions.remove(minItem, 1);
+        T last = (T) items[size];
+        double lastPriority = priorities[size];
+        items[size] = null;
         size -= 1;
-        sink(1);
-
+        if (size > 0) {
+            items[1] = last;
+            priorities[1] = lastPriority;
+            sink(1);
+        }
         return minItem;
     }
 
@@ -185,17 +379,34 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         return size;
     }
 
+    /**
+     * Returns true if the heap contains the given item. Takes constant time.
+     */
+    public boolean contains(T item) {
+        return positions.containsKey(item);
+    }
+
     /**
      * Change the node in this heap with the given item to have the given
-     * priority. You can assume the heap will not have two nodes with the same
-     * item. Check item equality with .equals(), not ==. This is a challenging
-     * bonus problem, but shouldn't be too hard if you really understand heaps
-     * and think about the algorithm before you start to code.
+     * priority, in O(log n) time. Finds the node through the item index, then
+     * swims or sinks it depending on which way its priority moved. Assumes the
+     * heap does not have two nodes with the same item, and throws an
+     * IllegalArgumentException if it has none. Item equality is checked with
+     * .equals(), not ==.
      */
     @Override
     public void changePriority(T item, double priority) {
-        /* TODO: Your code here! */
-        return;
+        Integer i = positions.get(item);
+        if (i == null) {
+            throw new IllegalArgumentException("Item " + item + " is not in the heap.");
+        }
+        double old = priorities[i];
+        priorities[i] = priority;
+        if (priority < old) {
+            swim(i);
+        } else {
+            sink(i);
+        }
     }
 
     /**
@@ -206,22 +417,29 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         return toStringHelper(1, "");
     }
 
+    /**
+     * Returns the string for the node at index: its item and priority.
+     */
+    private String nodeString(int index) {
+        return items[index].toString() + ", " + priorities[index];
+    }
+
     /**
      * Recursive helper method for toString.
      */
     private String toStringHelper(int index, String soFar) {
-        if (getNode(index) == null) {
+        if (!inBounds(index)) {
             return "";
         } else {
             String toReturn = "";
             int rightChild = rightIndex(index);
             toReturn += toStringHelper(rightChild, "        " + soFar);
-            if (getNode(rightChild) != null) {
+            if (inBounds(rightChild)) {
                 toReturn += soFar + "    /";
             }
-            toReturn += "\n" + soFar + getNode(index) + "\n";
+            toReturn += "\n" + soFar + nodeString(index) + "\n";
             int leftChild = leftIndex(index);
-            if (getNode(leftChild) != null) {
+            if (inBounds(leftChild)) {
                 toReturn += soFar + "    \\";
             }
             toReturn += toStringHelper(leftChild, "        " + soFar);
@@ -239,46 +457,27 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         if (index > size) {
             throw new IllegalArgumentException("Cannot sink or swim nodes with index greater than current size.");
         }
-        if (contents[index] == null) {
+        if (items[index] == null) {
             throw new IllegalArgumentException("Cannot sink or swim a null node.");
         }
     }
 
     /**
-     * Private inner class to represent a Node of the heap.
+     * Resizes the backing arrays to hold at least capacity entries, including
+     * the blank 0th, doubling them if that is larger.
      */
-    private class Node {
-        private T myItem;
-        private double myPriority;
-
-        private Node(T item, double priority) {
-            myItem = item;
-            myPriority = priority;
-        }
-
-        public T item(){
-            return myItem;
-        }
-
-        public double priority() {
-            return myPriority;
-        }
-
-        @Override
-        public String toString() {
-            return myItem.toString() + ", " + myPriority;
+    private void ensureCapacity(int capacity) {
+        if (capacity > items.length) {
+            resize(Math.max(capacity, items.length * 2));
         }
     }
 
     /**
-     * Helper function to resize the backing array when necessary.
+     * Helper function to resize the backing arrays when necessary.
      */
     private void resize(int capacity) {
-        Node[] temp = new ArrayHeap.Node[capacity];
-        for (int i = 1; i < this.contents.length; i++) {
-            temp[i] = this.contents[i];
-        }
-        this.contents = temp;
+        items = Arrays.copyOf(items, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
     }
 
 
@@ -300,11 +499,12 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         ArrayHeap<String> pq = new ArrayHeap<>();
         pq.size = 7;
         for (int i = 1; i <= 7; i += 1) {
-            pq.contents[i] = new ArrayHeap<String>.Node("x" + i, i);
+            pq.items[i] = "x" + i;
+            pq.priorities[i] = i;
         }
         // Change item x6's priority to a low value.
 
-        pq.contents[6].myPriority = 0;
+        pq.priorities[6] = 0;
         System.out.println("PQ before swimming:");
         System.out.println(pq);
 
@@ -313,13 +513,13 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         pq.swim(6);
         System.out.println("PQ after swimming:");
         System.out.println(pq);
-        assertEquals("x6", pq.contents[1].myItem);
-        assertEquals("x2", pq.contents[2].myItem);
-        assertEquals("x1", pq.contents[3].myItem);
-        assertEquals("x4", pq.contents[4].myItem);
-        assertEquals("x5", pq.contents[5].myItem);
-        assertEquals("x3", pq.contents[6].myItem);
-        assertEquals("x7", pq.contents[7].myItem);
+        assertEquals("x6", pq.items[1]);
+        assertEquals("x2", pq.items[2]);
+        assertEquals("x1", pq.items[3]);
+        assertEquals("x4", pq.items[4]);
+        assertEquals("x5", pq.items[5]);
+        assertEquals("x3", pq.items[6]);
+        assertEquals("x7", pq.items[7]);
     }
 
     @Test
@@ -327,10 +527,11 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         ArrayHeap<String> pq = new ArrayHeap<>();
         pq.size = 7;
         for (int i = 1; i <= 7; i += 1) {
-            pq.contents[i] = new ArrayHeap<String>.Node("x" + i, i);
+            pq.items[i] = "x" + i;
+            pq.priorities[i] = i;
         }
         // Change root's priority to a large value.
-        pq.contents[1].myPriority = 10;
+        pq.priorities[1] = 10;
         System.out.println("PQ before sinking:");
         System.out.println(pq);
 
@@ -338,30 +539,30 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         pq.sink(1);
         System.out.println("PQ after sinking:");
         System.out.println(pq);
-        assertEquals("x2", pq.contents[1].myItem);
-        assertEquals("x4", pq.contents[2].myItem);
-        assertEquals("x3", pq.contents[3].myItem);
-        assertEquals("x1", pq.contents[4].myItem);
-        assertEquals("x5", pq.contents[5].myItem);
-        assertEquals("x6", pq.contents[6].myItem);
-        assertEquals("x7", pq.contents[7].myItem);
+        assertEquals("x2", pq.items[1]);
+        assertEquals("x4", pq.items[2]);
+        assertEquals("x3", pq.items[3]);
+        assertEquals("x1", pq.items[4]);
+        assertEquals("x5", pq.items[5]);
+        assertEquals("x6", pq.items[6]);
+        assertEquals("x7", pq.items[7]);
     }
 
     @Test
     public void testInsert() {
         ArrayHeap<String> pq = new ArrayHeap<>();
         pq.insert("c", 3);
-        assertEquals("c", pq.contents[1].myItem);
+        assertEquals("c", pq.items[1]);
 
         pq.insert("i", 9);
-        assertEquals("i", pq.contents[2].myItem);
+        assertEquals("i", pq.items[2]);
 
         pq.insert("g", 7);
         pq.insert("d", 4);
-        assertEquals("d", pq.contents[2].myItem);
+        assertEquals("d", pq.items[2]);
 
         pq.insert("a", 1);
-        assertEquals("a", pq.contents[1].myItem);
+        assertEquals("a", pq.items[1]);
 
         pq.insert("h", 8);
         pq.insert("e", 5);
@@ -371,16 +572,16 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         System.out.println("pq after inserting 10 items: ");
         System.out.println(pq);
         assertEquals(10, pq.size());
-        assertEquals("a", pq.contents[1].myItem);
-        assertEquals("b", pq.contents[2].myItem);
-        assertEquals("e", pq.contents[3].myItem);
-        assertEquals("c", pq.contents[4].myItem);
-        assertEquals("d", pq.contents[5].myItem);
-        assertEquals("h", pq.contents[6].myItem);
-        assertEquals("g", pq.contents[7].myItem);
-        assertEquals("i", pq.contents[8].myItem);
-        assertEquals("c", pq.contents[9].myItem);
-        assertEquals("d", pq.contents[10].myItem);
+        assertEquals("a", pq.items[1]);
+        assertEquals("b", pq.items[2]);
+        assertEquals("e", pq.items[3]);
+        assertEquals("c", pq.items[4]);
+        assertEquals("d", pq.items[5]);
+        assertEquals("h", pq.items[6]);
+        assertEquals("g", pq.items[7]);
+        assertEquals("i", pq.items[8]);
+        assertEquals("c", pq.items[9]);
+        assertEquals("d", pq.items[10]);
     }
 
     @Test
@@ -399,15 +600,15 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         String removed = pq.removeMin();
         assertEquals("a", removed);
         assertEquals(9, pq.size());
-        assertEquals("b", pq.contents[1].myItem);
-        assertEquals("c", pq.contents[2].myItem);
-        assertEquals("e", pq.contents[3].myItem);
-        assertEquals("c", pq.contents[4].myItem);
-        assertEquals("d", pq.contents[5].myItem);
-        assertEquals("h", pq.contents[6].myItem);
-        assertEquals("g", pq.contents[7].myItem);
-        assertEquals("i", pq.contents[8].myItem);
-        assertEquals("d", pq.contents[9].myItem);
+        assertEquals("b", pq.items[1]);
+        assertEquals("c", pq.items[2]);
+        assertEquals("e", pq.items[3]);
+        assertEquals("c", pq.items[4]);
+        assertEquals("d", pq.items[5]);
+        assertEquals("h", pq.items[6]);
+        assertEquals("g", pq.items[7]);
+        assertEquals("i", pq.items[8]);
+        assertEquals("d", pq.items[9]);
     }
 
     @Test
@@ -432,4 +633,178 @@ public class ArrayHeap<T> implements ExtrinsicPQ<T> {
         }
     }
 
+    /**
+     * Checks that every node's priority is at least its parent's, and that
+     * positions holds the index of every item.
+     */
+    private void assertHeap() {
+        for (int i = 2; i <= size; i += 1) {
+            assertTrue(priorities[parentIndex(i)] <= priorities[i]);
+        }
+        assertEquals(size, positions.size());
+        for (int i = 1; i <= size; i += 1) {
+            assertEquals(i, (int) positions.get(items[i]));
+        }
+    }
+
+    @Test
+    public void testChangePriority() {
+        ArrayHeap<String> pq = new ArrayHeap<>();
+        pq.insert("a", 1);
+        pq.insert("b", 2);
+        pq.insert("c", 3);
+        pq.insert("d", 4);
+        pq.changePriority("d", 0);
+        assertEquals("d", pq.peek());
+        pq.changePriority("d", 5);
+        assertEquals("a", pq.peek());
+        pq.changePriority("a", 2.5);
+        pq.assertHeap();
+        String[] expected = {"b", "a", "c", "d"};
+        for (String item : expected) {
+            assertTrue(pq.contains(item));
+            assertEquals(item, pq.removeMin());
+            assertFalse(pq.contains(item));
+        }
+        assertEquals(0, pq.size());
+    }
+
+    /* Random inserts, removals and priority changes of distinct items, checked
+     * against a map of the priorities each item should have. */
+    @Test
+    public void testRandomized() {
+        Random random = new Random(10);
+        ArrayHeap<Integer> pq = new ArrayHeap<>();
+        Map<Integer, Double> expected = new HashMap<>();
+        int nextItem = 0;
+        for (int i = 0; i < 20000; i += 1) {
+            int op = random.nextInt(10);
+            if (op < 4 || expected.isEmpty()) {
+                double priority = random.nextInt(1000);
+                pq.insert(nextItem, priority);
+                expected.put(nextItem, priority);
+                nextItem += 1;
+            } else if (op < 6) {
+                int item = pq.removeMin();
+                double min = Double.POSITIVE_INFINITY;
+                for (double priority : expected.values()) {
+                    min = Math.min(min, priority);
+                }
+                assertEquals(min, expected.remove(item), 0);
+            } else {
+                int item = nextItem - 1 - random.nextInt(Math.min(nextItem, 50));
+                if (expected.containsKey(item)) {
+                    double priority = random.nextInt(1000);
+                    pq.changePriority(item, priority);
+                    expected.put(item, priority);
+                }
+            }
+            assertEquals(expected.size(), pq.size());
+            if (i % 100 == 0) {
+                pq.assertHeap();
+            }
+        }
+    }
+
+    /** Returns the priorities 0, 1, ..., n - 1 in a random order, as items. */
+    private static Integer[] shuffled(int n, Random random) {
+        Integer[] items = new Integer[n];
+        for (int i = 0; i < n; i += 1) {
+            int j = random.nextInt(i + 1);
+            items[i] = items[j];
+            items[j] = i;
+        }
+        return items;
+    }
+
+    private static double[] prioritiesOf(Integer[] items) {
+        double[] priorities = new double[items.length];
+        for (int i = 0; i < items.length; i += 1) {
+            priorities[i] = items[i];
+        }
+        return priorities;
+    }
+
+    @Test
+    public void testHeapify() {
+        Integer[] items = shuffled(1000, new Random(1));
+        ArrayHeap<Integer> pq = ArrayHeap.of(items, prioritiesOf(items));
+        pq.assertHeap();
+        Map<String, Double> map = new HashMap<>();
+        map.put("b", 2.0);
+        map.put("a", 1.0);
+        map.put("c", 3.0);
+        ArrayHeap<String> fromMap = ArrayHeap.of(map);
+        fromMap.changePriority("c", 0);
+        assertEquals("c", fromMap.removeMin());
+        assertEquals("a", fromMap.removeMin());
+        for (int i = 0; i < 1000; i += 1) {
+            assertEquals(i, (int) pq.removeMin());
+        }
+    }
+
+    @Test
+    public void testInsertAll() {
+        Random random = new Random(2);
+        Integer[] items = shuffled(3000, random);
+        ArrayHeap<Integer> pq = new ArrayHeap<>();
+        /* Batches smaller than, then larger than, the heap. */
+        int[] batches = {0, 1000, 1100, 1200, 3000};
+        for (int b = 0; b + 1 < batches.length; b += 1) {
+            Integer[] batch = Arrays.copyOfRange(items, batches[b], batches[b + 1]);
+            pq.insertAll(batch, prioritiesOf(batch));
+            pq.assertHeap();
+        }
+        assertEquals(3000, pq.size());
+        for (int i = 0; i < 3000; i += 1) {
+            assertEquals(i, (int) pq.removeMin());
+        }
+    }
+
+    /** A batch with a null in it must leave the heap as it was */
+    @Test
+    public void testInsertAllRejectsNullsAtomically() {
+        ArrayHeap<Integer> pq = ArrayHeap.of(new Integer[]{5, 3, 8}, new double[]{5, 3, 8});
+        try {
+            pq.insertAll(new Integer[]{1, null, 0}, new double[]{1, 2, 0});
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        Map<Integer, Double> map = new HashMap<>();
+        map.put(0, 0.0);
+        map.put(1, null);
+        map.put(null, 2.0);
+        try {
+            pq.insertAll(map);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        pq.assertHeap();
+        assertEquals(3, pq.size());
+        assertFalse(pq.contains(1));
+        assertEquals(3, (int) pq.removeMin());
+        assertEquals(5, (int) pq.removeMin());
+        assertEquals(8, (int) pq.removeMin());
+    }
+
+    @Test
+    public void testDrainTo() {
+        for (int k : new int[]{0, 5, 300, 999, 1000, 2000}) {
+            Integer[] items = shuffled(1000, new Random(k));
+            ArrayHeap<Integer> pq = ArrayHeap.of(items, prioritiesOf(items));
+            List<Integer> drained = pq.drainTo(k);
+            assertEquals(Math.min(k, 1000), drained.size());
+            for (int i = 0; i < drained.size(); i += 1) {
+                assertEquals(i, (int) drained.get(i));
+                assertFalse(pq.contains(i));
+            }
+            pq.assertHeap();
+            for (int i = drained.size(); i < 1000; i += 1) {
+                assertEquals(i, (int) pq.removeMin());
+            }
+        }
+    }
+
 }
@@ -0,0 +1,154 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary heap: like ArrayHeap, but each node has d children instead of 2.
+ * A wider heap is shallower, so insert and changePriority (which swim) do
+ * log_d(n) moves instead of log_2(n), while removeMin (which sinks) compares
+ * d children per level. With d = 4, a node's children usually share a cache
+ * line, which suits decrease-key heavy searches such as Dijkstra's.
+ *
+ * Items are kept in parallel arrays with their priorities, from index 0, with
+ * the children of i at d*i + 1 to d*i + d, and a HashMap from item to index
+ * makes changePriority O(d log_d n). As with ArrayHeap, changePriority
+ * assumes the heap does not have two nodes with the same item.
+ */
+public class DaryHeap<T> implements ExtrinsicPQ<T> {
+    private final int d;
+    private Object[] items; /* Holds Ts; Object[] since T[] cannot be created */
+    private double[] priorities;
+    private Map<T, Integer> positions;
+    private int size;
+
+    /** Creates a 4-ary heap. */
+    public DaryHeap() {
+        this(4);
+    }
+
+    /** Creates a heap where every node has up to d children. */
+    public DaryHeap(int d) {
+        if (d < 2) {
+            throw new IllegalArgumentException("A heap needs at least 2 children per node.");
+        }
+        this.d = d;
+        items = new Object[16];
+        priorities = new double[16];
+        positions = new HashMap<>();
+    }
+
+    private void place(int i, T item, double priority) {
+        items[i] = item;
+        priorities[i] = priority;
+        positions.put(item, i);
+    }
+
+    /** Moves the item at index up until its parent is no larger. */
+    private void swim(int index) {
+        T item = (T) items[index];
+        double priority = priorities[index];
+        while (index > 0) {
+            int parent = (index - 1) / d;
+            if (!(priority < priorities[parent])) {
+                break;
+            }
+            place(index, (T) items[parent], priorities[parent]);
+            index = parent;
+        }
+        place(index, item, priority);
+    }
+
+    /** Moves the item at index down until none of its children is smaller. */
+    private void sink(int index) {
+        T item = (T) items[index];
+        double priority = priorities[index];
+        while (true) {
+            int first = d * index + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + d, size);
+            int min = first;
+            for (int c = first + 1; c < last; c += 1) {
+                if (priorities[c] < priorities[min]) {
+                    min = c;
+                }
+            }
+            if (!(priorities[min] < priority)) {
+                break;
+            }
+            place(index, (T) items[min], priorities[min]);
+            index = min;
+        }
+        place(index, item, priority);
+    }
+
+    @Override
+    public void insert(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot insert a null item.");
+        }
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+        }
+        items[size] = item;
+        priorities[size] = priority;
+        size += 1;
+        swim(size - 1);
+    }
+
+    @Override
+    public T peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        return (T) items[0];
+    }
+
+    @Override
+    public T removeMin() {
+        T minItem = peek();
+        positions.remove(minItem, 0);
+        size -= 1;
+        T last = (T) items[size];
+        double lastPriority = priorities[size];
+        items[size] = null;
+        if (size > 0) {
+            items[0] = last;
+            priorities[0] = lastPriority;
+            sink(0);
+        }
+        return minItem;
+    }
+
+    /**
+     * Changes the priority of item, and throws an IllegalArgumentException if
+     * the heap does not contain it.
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        Integer i = positions.get(item);
+        if (i == null) {
+            throw new IllegalArgumentException("Item " + item + " is not in the heap.");
+        }
+        double old = priorities[i];
+        priorities[i] = priority;
+        if (priority < old) {
+            swim(i);
+        } else {
+            sink(i);
+        }
+    }
+
+    /** Returns true if the heap contains the given item. */
+    public boolean contains(T item) {
+        return positions.containsKey(item);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A pairing heap: a heap-ordered tree of any shape, where every operation
+ * except removeMin just links two trees by making the one with the larger
+ * root the first child of the other. removeMin takes O(log n) amortized
+ * time, by linking the root's children in pairs from left to right and then
+ * the pairs from right to left. Insert is O(1), and lowering a priority cuts
+ * the item's subtree out and links it with the root, which is O(log n)
+ * amortized at worst and far cheaper in practice. This makes it one of the
+ * fastest heaps for Dijkstra's algorithm and other decrease-key heavy searches.
+ *
+ * Each node points to its first child, its next sibling, and its previous
+ * sibling (or parent, if it is a first child), and a HashMap from item to node
+ * lets changePriority find a node in O(1). As with ArrayHeap, changePriority
+ * assumes the heap does not have two nodes with the same item.
+ */
+public class PairingHeap<T> implements ExtrinsicPQ<T> {
+    private static class Node<T> {
+        final T item;
+        double priority;
+        Node<T> child;
+        Node<T> next;
+        Node<T> prev; /* The previous sibling, or the parent of a first child */
+
+        Node(T item, double priority) {
+            this.item = item;
+            this.priority = priority;
+        }
+    }
+
+    private Node<T> root;
+    private Map<T, Node<T>> nodes = new HashMap<>();
+    private int size;
+
+    /**
+     * Links two roots, making the larger one the first child of the smaller,
+     * and returns the new root. Either may be null.
+     */
+    private static <T> Node<T> link(Node<T> a, Node<T> b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        }
+        if (b.priority < a.priority) {
+            Node<T> t = a;
+            a = b;
+            b = t;
+        }
+        b.prev = a;
+        b.next = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        a.child = b;
+        return a;
+    }
+
+    /** Removes the subtree rooted at n, which is not the root, from its parent. */
+    private static <T> void cut(Node<T> n) {
+        if (n.prev.child == n) {
+            n.prev.child = n.next;
+        } else {
+            n.prev.next = n.next;
+        }
+        if (n.next != null) {
+            n.next.prev = n.prev;
+        }
+        n.prev = null;
+        n.next = null;
+    }
+
+    /**
+     * Links the list of siblings starting at first into one tree, and returns
+     * its root: first in pairs from left to right, then the pairs from right
+     * to left. Iterative, so long sibling lists cannot overflow the stack.
+     */
+    private static <T> Node<T> linkPairs(Node<T> first) {
+        Node<T> pairs = null; /* The linked pairs, last first, chained by next */
+        while (first != null) {
+            Node<T> a = first;
+            Node<T> b = a.next;
+            first = b == null ? null : b.next;
+            a.prev = null;
+            a.next = null;
+            if (b != null) {
+                b.prev = null;
+                b.next = null;
+            }
+            Node<T> pair = link(a, b);
+            pair.next = pairs;
+            pairs = pair;
+        }
+        Node<T> result = null;
+        while (pairs != null) {
+            Node<T> next = pairs.next;
+            pairs.next = null;
+            result = link(pairs, result);
+            pairs = next;
+        }
+        return result;
+    }
+
+    @Override
+    public void insert(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot insert a null item.");
+        }
+        Node<T> n = new Node<>(item, priority);
+        nodes.put(item, n);
+        root = link(root, n);
+        size += 1;
+    }
+
+    @Override
+    public T peek() {
+        if (root == null) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        return root.item;
+    }
+
+    @Override
+    public T removeMin() {
+        T minItem = peek();
+        nodes.remove(minItem, root);
+        root = linkPairs(root.child);
+        size -= 1;
+        return minItem;
+    }
+
+    /**
+     * Changes the priority of item, and throws an IllegalArgumentException if
+     * the heap does not contain it. Lowering a priority cuts the item's subtree
+     * out and links it with the root. Raising one also cuts out the item's
+     * children, which may now be smaller than it, and links them back in.
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        Node<T> n = nodes.get(item);
+        if (n == null) {
+            throw new IllegalArgumentException("Item " + item + " is not in the heap.");
+        }
+        boolean lower = priority < n.priority;
+        n.priority = priority;
+        if (lower) {
+            if (n != root) {
+                cut(n);
+                root = link(root, n);
+            }
+            return;
+        }
+        Node<T> children = n.child;
+        n.child = null;
+        if (n == root) {
+            root = linkPairs(children);
+        } else {
+            cut(n);
+            root = link(root, linkPairs(children));
+        }
+        root = link(root, n);
+    }
+
+    /** Returns true if the heap contains the given item. */
+    public boolean contains(T item) {
+        return nodes.containsKey(item);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone radix heap, for searches that never insert a priority smaller
+ * than the last one removed, such as Dijkstra's algorithm or A* with a
+ * consistent heuristic. No item may be inserted, or have its priority changed
+ * to, a priority less than the last minimum removed; priorities must also be
+ * non-negative.
+ *
+ * Items are kept in 65 unsorted buckets, by the highest bit in which their
+ * priority differs from the last minimum (bucket 0 holding ties with it).
+ * Non-negative doubles order the same way as their bit patterns, so the bits
+ * of the priority are used directly. insert and changePriority are O(1).
+ * removeMin takes an item from bucket 0, first refilling it if it is empty:
+ * it finds the minimum of the lowest non-empty bucket, makes that the last
+ * minimum, and spreads the bucket over the buckets below it. Between priority
+ * changes an item only moves down, at most 64 times, so removeMin is O(1)
+ * amortized, plus a scan of the 65 bucket sizes, whatever the number of items.
+ *
+ * A HashMap from item to entry lets changePriority find an item in O(1). As
+ * with ArrayHeap, changePriority assumes the heap does not have two nodes with
+ * the same item.
+ */
+public class RadixHeap<T> implements ExtrinsicPQ<T> {
+    private static class Entry<T> {
+        final T item;
+        long key; /* The bits of the priority */
+        int bucket;
+        int slot; /* Index in the bucket */
+
+        Entry(T item, long key) {
+            this.item = item;
+            this.key = key;
+        }
+    }
+
+    private static final int BUCKETS = 65;
+
+    private final Entry<T>[][] buckets = (Entry<T>[][]) new Entry[BUCKETS][];
+    private final int[] counts = new int[BUCKETS];
+    private long last; /* Key of the last minimum; no key is smaller */
+    private Map<T, Entry<T>> entries = new HashMap<>();
+    private int size;
+
+    public RadixHeap() {
+        for (int b = 0; b < BUCKETS; b += 1) {
+            buckets[b] = (Entry<T>[]) new Entry[4];
+        }
+    }
+
+    /**
+     * Returns the key of a priority: its bits, which compare as non-negative
+     * longs in the same order as the priorities do.
+     */
+    private long key(double priority) {
+        if (!(priority >= 0)) {
+            throw new IllegalArgumentException("Priorities must be non-negative numbers.");
+        }
+        long key = Double.doubleToLongBits(priority + 0.0); /* Makes -0.0 into 0.0 */
+        if (key < last) {
+            throw new IllegalArgumentException("Priority " + priority
+                + " is less than the last minimum, " + Double.longBitsToDouble(last) + ".");
+        }
+        return key;
+    }
+
+    /**
+     * Returns the bucket for key: 0 if it equals last, and otherwise one more
+     * than the index of the highest bit in which it differs from last.
+     */
+    private int bucketOf(long key) {
+        return 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void add(Entry<T> e) {
+        int b = bucketOf(e.key);
+        if (counts[b] == buckets[b].length) {
+            buckets[b] = Arrays.copyOf(buckets[b], counts[b] * 2);
+        }
+        buckets[b][counts[b]] = e;
+        e.bucket = b;
+        e.slot = counts[b];
+        counts[b] += 1;
+    }
+
+    /** Removes e from its bucket, moving the bucket's last entry into its slot. */
+    private void detach(Entry<T> e) {
+        Entry<T>[] bucket = buckets[e.bucket];
+        counts[e.bucket] -= 1;
+        Entry<T> moved = bucket[counts[e.bucket]];
+        bucket[e.slot] = moved;
+        moved.slot = e.slot;
+        bucket[counts[e.bucket]] = null;
+    }
+
+    /** Makes sure bucket 0 is not empty, if the heap is not. */
+    private void refill() {
+        if (counts[0] > 0 || size == 0) {
+            return;
+        }
+        int b = 1;
+        while (counts[b] == 0) {
+            b += 1;
+        }
+        Entry<T>[] bucket = buckets[b];
+        int count = counts[b];
+        long min = bucket[0].key;
+        for (int i = 1; i < count; i += 1) {
+            min = Math.min(min, bucket[i].key);
+        }
+        last = min;
+        counts[b] = 0;
+        for (int i = 0; i < count; i += 1) {
+            Entry<T> e = bucket[i];
+            bucket[i] = null;
+            add(e); /* Always to a bucket below b */
+        }
+    }
+
+    @Override
+    public void insert(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot insert a null item.");
+        }
+        Entry<T> e = new Entry<>(item, key(priority));
+        entries.put(item, e);
+        add(e);
+        size += 1;
+    }
+
+    @Override
+    public T peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        refill();
+        return buckets[0][counts[0] - 1].item;
+    }
+
+    @Override
+    public T removeMin() {
+        T minItem = peek();
+        counts[0] -= 1;
+        Entry<T> e = buckets[0][counts[0]];
+        buckets[0][counts[0]] = null;
+        entries.remove(minItem, e);
+        size -= 1;
+        return minItem;
+    }
+
+    /**
+     * Changes the priority of item, and throws an IllegalArgumentException if
+     * the heap does not contain it or if priority is less than the last minimum.
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        Entry<T> e = entries.get(item);
+        if (e == null) {
+            throw new IllegalArgumentException("Item " + item + " is not in the heap.");
+        }
+        long key = key(priority);
+        detach(e);
+        e.key = key;
+        add(e);
+    }
+
+    /** Returns true if the heap contains the given item. */
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
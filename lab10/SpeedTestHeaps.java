@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Times each ExtrinsicPQ on three workloads, so that a search can pick the heap
+ * that suits it:
+ *   sort      inserts N random priorities, then removes them all,
+ *   dijkstra  runs Dijkstra's algorithm on a grid with random integer weights,
+ *             inserting each vertex once and lowering its priority on every
+ *             shorter path found, as ExtrinsicPQ users are meant to,
+ *   astar     runs A* with the Manhattan distance heuristic on a grid of walls
+ *             and floor, like the room-connecting searches in byog.
+ * Each is run a few times to warm up, then timed.
+ * Run with e.g. java -Xmx2g SpeedTestHeaps.
+ */
+public class SpeedTestHeaps {
+    private static final int N = 1 << 20;
+    private static final int GRID = 700;
+    private static final int RUNS = 5;
+
+    /** The work done, which the caller checks is the same for every heap. */
+    private static double sort(ExtrinsicPQ<Integer> pq, double[] priorities) {
+        for (int i = 0; i < priorities.length; i += 1) {
+            pq.insert(i, priorities[i]);
+        }
+        double last = 0;
+        while (pq.size() > 0) {
+            last = priorities[pq.removeMin()];
+        }
+        return last;
+    }
+
+    /** Returns the distance from the top left to the bottom right corner. */
+    private static double dijkstra(ExtrinsicPQ<Integer> pq, int[] weights) {
+        double[] dist = new double[GRID * GRID];
+        boolean[] done = new boolean[GRID * GRID];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[0] = 0;
+        pq.insert(0, 0);
+        while (pq.size() > 0) {
+            int v = pq.removeMin();
+            done[v] = true;
+            for (int w : neighbours(v)) {
+                if (w < 0 || done[w]) {
+                    continue;
+                }
+                double d = dist[v] + weights[w];
+                if (d < dist[w]) {
+                    if (dist[w] == Double.POSITIVE_INFINITY) {
+                        pq.insert(w, d);
+                    } else {
+                        pq.changePriority(w, d);
+                    }
+                    dist[w] = d;
+                }
+            }
+        }
+        return dist[GRID * GRID - 1];
+    }
+
+    /** Returns the number of moves from the top left to the bottom right corner. */
+    private static double astar(ExtrinsicPQ<Integer> pq, boolean[] wall) {
+        int target = GRID * GRID - 1;
+        double[] dist = new double[GRID * GRID];
+        boolean[] done = new boolean[GRID * GRID];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[0] = 0;
+        pq.insert(0, manhattan(0, target));
+        while (pq.size() > 0) {
+            int v = pq.removeMin();
+            if (v == target) {
+                return dist[v];
+            }
+            done[v] = true;
+            for (int w : neighbours(v)) {
+                if (w < 0 || done[w] || wall[w]) {
+                    continue;
+                }
+                double d = dist[v] + 1;
+                if (d < dist[w]) {
+                    if (dist[w] == Double.POSITIVE_INFINITY) {
+                        pq.insert(w, d + manhattan(w, target));
+                    } else {
+                        pq.changePriority(w, d + manhattan(w, target));
+                    }
+                    dist[w] = d;
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private static int manhattan(int v, int w) {
+        return Math.abs(v % GRID - w % GRID) + Math.abs(v / GRID - w / GRID);
+    }
+
+    /** Returns the four neighbours of v, with -1 for those off the grid. */
+    private static int[] neighbours(int v) {
+        int x = v % GRID;
+        int y = v / GRID;
+        return new int[]{x > 0 ? v - 1 : -1, x < GRID - 1 ? v + 1 : -1,
+                         y > 0 ? v - GRID : -1, y < GRID - 1 ? v + GRID : -1};
+    }
+
+    private interface Workload {
+        double run(ExtrinsicPQ<Integer> pq);
+    }
+
+    /** Prints the average milliseconds per run of workload on each kind of heap. */
+    private static void measure(String name, Workload workload) {
+        String[] heaps = {"ArrayHeap", "DaryHeap(2)", "DaryHeap(4)", "DaryHeap(8)",
+                          "PairingHeap", "RadixHeap"};
+        StringBuilder line = new StringBuilder(String.format("%-10s", name));
+        double expected = Double.NaN;
+        for (String heap : heaps) {
+            Supplier<ExtrinsicPQ<Integer>> pqs = supplier(heap);
+            for (int i = 0; i < RUNS; i += 1) {
+                workload.run(pqs.get()); // warm up
+            }
+            long start = System.nanoTime();
+            double result = 0;
+            for (int i = 0; i < RUNS; i += 1) {
+                result = workload.run(pqs.get());
+            }
+            long millis = (System.nanoTime() - start) / RUNS / 1000000;
+            if (!Double.isNaN(expected) && result != expected) {
+                throw new AssertionError(heap + " got " + result + ", not " + expected);
+            }
+            expected = result;
+            line.append(String.format("%14d", millis));
+        }
+        System.out.println(line);
+    }
+
+    private static Supplier<ExtrinsicPQ<Integer>> supplier(String heap) {
+        switch (heap) {
+            case "ArrayHeap":
+                return ArrayHeap::new;
+            case "DaryHeap(2)":
+                return () -> new DaryHeap<>(2);
+            case "DaryHeap(4)":
+                return () -> new DaryHeap<>(4);
+            case "DaryHeap(8)":
+                return () -> new DaryHeap<>(8);
+            case "PairingHeap":
+                return PairingHeap::new;
+            default:
+                return RadixHeap::new;
+        }
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(61);
+        double[] priorities = new double[N];
+        for (int i = 0; i < N; i += 1) {
+            priorities[i] = random.nextDouble();
+        }
+        int[] weights = new int[GRID * GRID];
+        for (int i = 0; i < weights.length; i += 1) {
+            weights[i] = 1 + random.nextInt(100);
+        }
+        boolean[] wall = new boolean[GRID * GRID];
+        for (int i = 1; i < wall.length - 1; i += 1) {
+            wall[i] = random.nextInt(10) < 3;
+        }
+
+        System.out.println(String.format("%-10s%14s%14s%14s%14s%14s%14s", "ms per run",
+            "ArrayHeap", "DaryHeap(2)", "DaryHeap(4)", "DaryHeap(8)", "PairingHeap",
+            "RadixHeap"));
+        measure("sort", pq -> sort(pq, priorities));
+        measure("dijkstra", pq -> dijkstra(pq, weights));
+        measure("astar", pq -> astar(pq, wall));
+    }
+}
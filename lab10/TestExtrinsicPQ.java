@@ -0,0 +1,104 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Tests every implementation of ExtrinsicPQ with random inserts, removals and
+ * priority changes of distinct items, against a map of the priority each item
+ * should have.
+ */
+public class TestExtrinsicPQ {
+
+    /**
+     * Runs a random workload on the PQ from pqs. If monotone, priorities are
+     * never less than the last minimum removed, as RadixHeap requires.
+     */
+    private static void randomized(Supplier<ExtrinsicPQ<Integer>> pqs, boolean monotone) {
+        Random random = new Random(10);
+        ExtrinsicPQ<Integer> pq = pqs.get();
+        Map<Integer, Double> expected = new HashMap<>();
+        double lastMin = 0;
+        int nextItem = 0;
+        for (int i = 0; i < 20000; i += 1) {
+            int op = random.nextInt(10);
+            double priority = (monotone ? lastMin : 0) + random.nextInt(1000);
+            if (op < 4 || expected.isEmpty()) {
+                pq.insert(nextItem, priority);
+                expected.put(nextItem, priority);
+                nextItem += 1;
+            } else if (op < 6) {
+                double min = Double.POSITIVE_INFINITY;
+                for (double p : expected.values()) {
+                    min = Math.min(min, p);
+                }
+                assertEquals(min, expected.remove(pq.removeMin()), 0);
+                lastMin = min;
+            } else {
+                int item = nextItem - 1 - random.nextInt(Math.min(nextItem, 50));
+                if (expected.containsKey(item)) {
+                    pq.changePriority(item, priority);
+                    expected.put(item, priority);
+                }
+            }
+            assertEquals(expected.size(), pq.size());
+        }
+        while (pq.size() > 0) {
+            double min = Double.POSITIVE_INFINITY;
+            for (double p : expected.values()) {
+                min = Math.min(min, p);
+            }
+            assertEquals(min, expected.remove(pq.removeMin()), 0);
+        }
+    }
+
+    @Test
+    public void testArrayHeap() {
+        randomized(ArrayHeap::new, false);
+    }
+
+    @Test
+    public void testDaryHeap() {
+        for (int d = 2; d <= 8; d += 1) {
+            int arity = d;
+            randomized(() -> new DaryHeap<>(arity), false);
+        }
+    }
+
+    @Test
+    public void testPairingHeap() {
+        randomized(PairingHeap::new, false);
+    }
+
+    @Test
+    public void testRadixHeap() {
+        randomized(RadixHeap::new, true);
+    }
+
+    @Test
+    public void testRadixHeapFractions() {
+        RadixHeap<String> pq = new RadixHeap<>();
+        pq.insert("c", 0.75);
+        pq.insert("a", 0.0);
+        pq.insert("b", 0.5);
+        pq.insert("d", 1e300);
+        pq.changePriority("d", 0.6);
+        assertEquals("a", pq.removeMin());
+        assertEquals("b", pq.removeMin());
+        assertEquals("d", pq.removeMin());
+        assertEquals("c", pq.removeMin());
+        assertEquals(0, pq.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadixHeapRejectsDecreaseBelowMin() {
+        RadixHeap<String> pq = new RadixHeap<>();
+        pq.insert("a", 1);
+        pq.insert("b", 2);
+        pq.removeMin();
+        pq.insert("c", 0.5);
+    }
+}
@@ -0,0 +1,554 @@
+package lab9;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Implementation of interface Map61B with a B+-tree as core data structure.
+ *
+ * Each node holds up to ORDER keys in one array, so a lookup binary searches a
+ * few wide nodes instead of following a pointer per comparison as BSTMap does,
+ * and the tree is only about log_ORDER(n) levels deep. All values live in the
+ * leaves, which are linked left to right, so iteration and range scans walk the
+ * leaves in order without going back up the tree.
+ *
+ * Every node but the root holds at least ORDER / 2 keys. An internal node with
+ * n keys has n + 1 children, and keys[i] is no larger than any key under
+ * children[i + 1] and larger than every key under children[i].
+ *
+ * For data that no longer changes, freeze() copies the map into a compact,
+ * read-only EytzingerMap.
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_ORDER = 64;
+
+    private abstract class Node {
+        /* Keys of this Node, with one spare slot for a key that is about to split it. */
+        Object[] keys = new Object[order + 1];
+        int n;
+
+        K key(int i) {
+            return (K) keys[i];
+        }
+
+        /** Returns the index of KEY in this Node's keys, or -(insertion point) - 1. */
+        int search(K key) {
+            int lo = 0;
+            int hi = n - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = key(mid).compareTo(key);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+    }
+
+    private class Leaf extends Node {
+        Object[] values = new Object[order + 1];
+        Leaf next;
+
+        V value(int i) {
+            return (V) values[i];
+        }
+    }
+
+    private class Internal extends Node {
+        Node[] children = (Node[]) new BPlusTreeMap.Node[order + 2];
+
+        /** Returns the index of the child whose subtree would hold KEY. */
+        int childIndex(K key) {
+            int i = search(key);
+            return i >= 0 ? i + 1 : -(i + 1);
+        }
+    }
+
+    private final int order;    /* Maximum number of keys per node. */
+    private final int minKeys;  /* Minimum number of keys per node, except the root. */
+    private Node root;
+    private Leaf first;  /* Leftmost leaf, where iteration starts. */
+    private int size;
+
+    /* While inserting, the first key of the new right node when a node splits. */
+    private K splitKey;
+
+    /* Creates an empty BPlusTreeMap. */
+    public BPlusTreeMap() {
+        this(DEFAULT_ORDER);
+    }
+
+    /* Creates an empty BPlusTreeMap whose nodes hold at most ORDER keys. */
+    public BPlusTreeMap(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.minKeys = order / 2;
+        this.clear();
+    }
+
+    /**
+     * Creates a BPlusTreeMap of the given keys and values by bulk loading, in O(n)
+     * time and with one comparison per key, to check the order: the leaves are filled
+     * left to right, then each level of internal nodes is built over the one below.
+     * @param keys The keys, in strictly increasing order.
+     * @param values The value for each key.
+     */
+    public BPlusTreeMap(K[] keys, V[] values) {
+        this(DEFAULT_ORDER);
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Need exactly one value per key.");
+        }
+        for (int i = 0; i < keys.length; i += 1) {
+            if (keys[i] == null || values[i] == null) {
+                throw new IllegalArgumentException("Null keys and values not allowed.");
+            }
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing.");
+            }
+        }
+        if (keys.length == 0) {
+            return;
+        }
+
+        // Spread the keys evenly over as few leaves as possible
+        int numLeaves = (keys.length + order - 1) / order;
+        Node[] level = (Node[]) new BPlusTreeMap.Node[numLeaves];
+        Object[] firstKeys = new Object[numLeaves]; /* Smallest key under each node */
+        Leaf previous = null;
+        for (int j = 0, start = 0; j < numLeaves; j += 1) {
+            int count = share(keys.length, numLeaves, j);
+            Leaf leaf = new Leaf();
+            System.arraycopy(keys, start, leaf.keys, 0, count);
+            System.arraycopy(values, start, leaf.values, 0, count);
+            leaf.n = count;
+            if (previous == null) {
+                first = leaf;
+            } else {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[j] = leaf;
+            firstKeys[j] = keys[start];
+            start += count;
+        }
+
+        // Then group each level's nodes under as few parents as possible
+        while (level.length > 1) {
+            int numParents = (level.length + order) / (order + 1);
+            Node[] parents = (Node[]) new BPlusTreeMap.Node[numParents];
+            Object[] parentFirstKeys = new Object[numParents];
+            for (int j = 0, start = 0; j < numParents; j += 1) {
+                int count = share(level.length, numParents, j);
+                Internal parent = new Internal();
+                System.arraycopy(level, start, parent.children, 0, count);
+                System.arraycopy(firstKeys, start + 1, parent.keys, 0, count - 1);
+                parent.n = count - 1;
+                parents[j] = parent;
+                parentFirstKeys[j] = firstKeys[start];
+                start += count;
+            }
+            level = parents;
+            firstKeys = parentFirstKeys;
+        }
+        root = level[0];
+        size = keys.length;
+    }
+
+    /** Returns the number of items in part j when total items are split into parts. */
+    private static int share(int total, int parts, int j) {
+        return total / parts + (j < total % parts ? 1 : 0);
+    }
+
+    /* Removes all of the mappings from this map. */
+    @Override
+    public void clear() {
+        first = new Leaf();
+        root = first;
+        size = 0;
+    }
+
+    /** Returns the leaf whose key range includes KEY. */
+    private Leaf findLeaf(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        Node x = root;
+        while (x instanceof BPlusTreeMap.Internal) {
+            Internal internal = (Internal) x;
+            x = internal.children[internal.childIndex(key)];
+        }
+        return (Leaf) x;
+    }
+
+    /** Returns the value to which the specified key is mapped, or null if this
+     *  map contains no mapping for the key.
+     */
+    @Override
+    public V get(K key) {
+        Leaf leaf = findLeaf(key);
+        int i = leaf.search(key);
+        return i >= 0 ? leaf.value(i) : null;
+    }
+
+    /** Inserts the key KEY
+     *  If it is already present, updates value to be VALUE.
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not allowed.");
+        }
+        Node right = insert(root, key, value);
+        if (right != null) {
+            Internal newRoot = new Internal();
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.n = 1;
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Inserts KEY into the subtree rooted at x. If x overflows, splits it and returns
+     * the new right half, setting splitKey to the key separating the halves;
+     * otherwise returns null.
+     */
+    private Node insert(Node x, K key, V value) {
+        if (x instanceof BPlusTreeMap.Leaf) {
+            Leaf leaf = (Leaf) x;
+            int i = leaf.search(key);
+            if (i >= 0) {
+                leaf.values[i] = value;
+                return null;
+            }
+            i = -(i + 1);
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.n - i);
+            System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.n - i);
+            leaf.keys[i] = key;
+            leaf.values[i] = value;
+            leaf.n += 1;
+            size += 1;
+            return leaf.n > order ? splitLeaf(leaf) : null;
+        }
+
+        Internal internal = (Internal) x;
+        int i = internal.childIndex(key);
+        Node right = insert(internal.children[i], key, value);
+        if (right == null) {
+            return null;
+        }
+        System.arraycopy(internal.keys, i, internal.keys, i + 1, internal.n - i);
+        System.arraycopy(internal.children, i + 1, internal.children, i + 2, internal.n - i);
+        internal.keys[i] = splitKey;
+        internal.children[i + 1] = right;
+        internal.n += 1;
+        return internal.n > order ? splitInternal(internal) : null;
+    }
+
+    private Leaf splitLeaf(Leaf left) {
+        int mid = left.n / 2;
+        Leaf right = new Leaf();
+        right.n = left.n - mid;
+        System.arraycopy(left.keys, mid, right.keys, 0, right.n);
+        System.arraycopy(left.values, mid, right.values, 0, right.n);
+        clear(left.keys, mid, left.n);
+        clear(left.values, mid, left.n);
+        left.n = mid;
+        right.next = left.next;
+        left.next = right;
+        splitKey = right.key(0);
+        return right;
+    }
+
+    private Internal splitInternal(Internal left) {
+        int mid = left.n / 2;
+        Internal right = new Internal();
+        right.n = left.n - mid - 1;
+        System.arraycopy(left.keys, mid + 1, right.keys, 0, right.n);
+        System.arraycopy(left.children, mid + 1, right.children, 0, right.n + 1);
+        splitKey = left.key(mid);
+        clear(left.keys, mid, left.n);
+        clear(left.children, mid + 1, left.n + 1);
+        left.n = mid;
+        return right;
+    }
+
+    /** Nulls out a[from..to), so that removed keys and values can be collected. */
+    private static void clear(Object[] a, int from, int to) {
+        for (int i = from; i < to; i += 1) {
+            a[i] = null;
+        }
+    }
+
+    /* Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of levels of the tree. */
+    public int height() {
+        int height = 1;
+        for (Node x = root; x instanceof BPlusTreeMap.Internal; x = ((Internal) x).children[0]) {
+            height += 1;
+        }
+        return height;
+    }
+
+    /**
+     * Returns the keys from LO to HI inclusive, in increasing order. The keys are
+     * read lazily from the linked leaves, so this takes O(log n + k) time for k keys.
+     */
+    public Iterable<K> range(K lo, K hi) {
+        return () -> {
+            Leaf leaf = findLeaf(lo);
+            int i = leaf.search(lo);
+            return new KeyIterator(leaf, i >= 0 ? i : -(i + 1), hi);
+        };
+    }
+
+    /**
+     * Returns an EytzingerMap with the same mappings as this map. Later changes to
+     * either map do not affect the other.
+     */
+    public EytzingerMap<K, V> freeze() {
+        Comparable[] keys = new Comparable[size];
+        Object[] values = new Object[size];
+        int j = 0;
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            System.arraycopy(leaf.keys, 0, keys, j, leaf.n);
+            System.arraycopy(leaf.values, 0, values, j, leaf.n);
+            j += leaf.n;
+        }
+        return new EytzingerMap<>((K[]) keys, (V[]) values);
+    }
+
+    //////////////// EVERYTHING BELOW THIS LINE IS OPTIONAL ////////////////
+
+    /* Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keyset = new TreeSet<>();
+        for (K key : this) {
+            keyset.add(key);
+        }
+        return keyset;
+    }
+
+    /** Removes KEY from the tree if present
+     *  returns VALUE removed,
+     *  null on failed removal.
+     */
+    @Override
+    public V remove(K key) {
+        return remove(key, null, false);
+    }
+
+    /** Removes the key-value entry for the specified key only if it is
+     *  currently mapped to the specified value.  Returns the VALUE removed,
+     *  null on failed removal.
+     **/
+    @Override
+    public V remove(K key, V value) {
+        return remove(key, value, true);
+    }
+
+    private V remove(K key, V value, boolean matchValue) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        V removed = delete(root, key, value, matchValue);
+        if (root instanceof BPlusTreeMap.Internal && root.n == 0) {
+            root = ((Internal) root).children[0];
+        }
+        return removed;
+    }
+
+    /**
+     * Deletes KEY from the subtree rooted at x, then refills any child left with
+     * fewer than minKeys keys. Returns the value removed, or null if there was none.
+     */
+    private V delete(Node x, K key, V value, boolean matchValue) {
+        if (x instanceof BPlusTreeMap.Leaf) {
+            Leaf leaf = (Leaf) x;
+            int i = leaf.search(key);
+            if (i < 0 || (matchValue && !leaf.values[i].equals(value))) {
+                return null;
+            }
+            V removed = leaf.value(i);
+            System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.n - i - 1);
+            System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.n - i - 1);
+            leaf.n -= 1;
+            leaf.keys[leaf.n] = null;
+            leaf.values[leaf.n] = null;
+            size -= 1;
+            return removed;
+        }
+
+        Internal internal = (Internal) x;
+        int i = internal.childIndex(key);
+        V removed = delete(internal.children[i], key, value, matchValue);
+        if (removed != null && internal.children[i].n < minKeys) {
+            refill(internal, i);
+        }
+        return removed;
+    }
+
+    /**
+     * Gives child i of p at least minKeys keys again, by borrowing a key from a
+     * sibling that has one to spare, or else by merging with a sibling.
+     */
+    private void refill(Internal p, int i) {
+        Node left = i > 0 ? p.children[i - 1] : null;
+        Node right = i < p.n ? p.children[i + 1] : null;
+        if (left != null && left.n > minKeys) {
+            borrowFromLeft(p, i);
+        } else if (right != null && right.n > minKeys) {
+            borrowFromRight(p, i);
+        } else if (left != null) {
+            merge(p, i - 1);
+        } else {
+            merge(p, i);
+        }
+    }
+
+    /** Moves the last key of child i - 1 of p to the front of child i. */
+    private void borrowFromLeft(Internal p, int i) {
+        Node child = p.children[i];
+        Node left = p.children[i - 1];
+        System.arraycopy(child.keys, 0, child.keys, 1, child.n);
+        if (child instanceof BPlusTreeMap.Leaf) {
+            Leaf c = (Leaf) child;
+            Leaf l = (Leaf) left;
+            System.arraycopy(c.values, 0, c.values, 1, c.n);
+            c.keys[0] = l.keys[l.n - 1];
+            c.values[0] = l.values[l.n - 1];
+            l.values[l.n - 1] = null;
+            p.keys[i - 1] = c.keys[0];
+        } else {
+            Internal c = (Internal) child;
+            Internal l = (Internal) left;
+            System.arraycopy(c.children, 0, c.children, 1, c.n + 1);
+            c.keys[0] = p.keys[i - 1];
+            c.children[0] = l.children[l.n];
+            l.children[l.n] = null;
+            p.keys[i - 1] = l.keys[l.n - 1];
+        }
+        left.keys[left.n - 1] = null;
+        left.n -= 1;
+        child.n += 1;
+    }
+
+    /** Moves the first key of child i + 1 of p to the end of child i. */
+    private void borrowFromRight(Internal p, int i) {
+        Node child = p.children[i];
+        Node right = p.children[i + 1];
+        if (child instanceof BPlusTreeMap.Leaf) {
+            Leaf c = (Leaf) child;
+            Leaf r = (Leaf) right;
+            c.keys[c.n] = r.keys[0];
+            c.values[c.n] = r.values[0];
+            System.arraycopy(r.values, 1, r.values, 0, r.n - 1);
+            r.values[r.n - 1] = null;
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            p.keys[i] = r.keys[0];
+        } else {
+            Internal c = (Internal) child;
+            Internal r = (Internal) right;
+            c.keys[c.n] = p.keys[i];
+            c.children[c.n + 1] = r.children[0];
+            p.keys[i] = r.keys[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.n);
+            r.children[r.n] = null;
+        }
+        right.keys[right.n - 1] = null;
+        right.n -= 1;
+        child.n += 1;
+    }
+
+    /** Merges child i + 1 of p into child i, removing key i of p. */
+    private void merge(Internal p, int i) {
+        Node left = p.children[i];
+        Node right = p.children[i + 1];
+        if (left instanceof BPlusTreeMap.Leaf) {
+            Leaf l = (Leaf) left;
+            Leaf r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            System.arraycopy(r.values, 0, l.values, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+        } else {
+            Internal l = (Internal) left;
+            Internal r = (Internal) right;
+            l.keys[l.n] = p.keys[i];
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+        System.arraycopy(p.keys, i + 1, p.keys, i, p.n - i - 1);
+        System.arraycopy(p.children, i + 2, p.children, i + 1, p.n - i - 1);
+        p.n -= 1;
+        p.keys[p.n] = null;
+        p.children[p.n + 1] = null;
+    }
+
+    /** Returns an iterator over the keys in increasing order. The map must not be
+     *  modified while iterating.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator(first, 0, null);
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private Leaf leaf;
+        private int i;
+        private final K hi; /* Last key to return, or null for no limit. */
+
+        KeyIterator(Leaf leaf, int i, K hi) {
+            this.leaf = leaf;
+            this.i = i;
+            this.hi = hi;
+            skipToKey();
+        }
+
+        /** Moves on to the next leaf while at the end of the current one. */
+        private void skipToKey() {
+            while (leaf != null && i >= leaf.n) {
+                leaf = leaf.next;
+                i = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && (hi == null || leaf.key(i).compareTo(hi) <= 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = leaf.key(i);
+            i += 1;
+            skipToKey();
+            return key;
+        }
+    }
+}
@@ -1,50 +1,132 @@
 package lab9;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Implementation of interface Map61B with BST as core data structure.
  *
- * @author Your name here
+ * The tree is a red-black tree, so it stays balanced whatever order keys are
+ * inserted in, and get, put and remove take O(log n) time. Every node keeps a
+ * pointer to its parent and the size of its subtree. The parent pointers let
+ * get, put, remove and iteration all run without recursion or an explicit stack,
+ * and the sizes give the ordered operations rank and select in O(log n) time.
+ *
+ * Following CLRS, the leaves are a single black sentinel node, nil, which has size
+ * 0 and removes most null checks from rebalancing.
  */
 public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
 
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
     private class Node {
         /* (K, V) pair stored in this Node. */
         private K key;
         private V value;
 
-        /* Children of this Node. */
+        /* Children and parent of this Node. */
         private Node left;
         private Node right;
+        private Node parent;
+
+        private boolean color;
+        private int size; /* The number of nodes in the subtree rooted at this Node */
 
         private Node(K k, V v) {
             key = k;
             value = v;
+            left = nil;
+            right = nil;
+            parent = nil;
+            color = RED;
+            size = 1;
+        }
+
+        /* Creates the sentinel. */
+        private Node() {
+            color = BLACK;
+            size = 0;
         }
     }
 
+    private final Node nil = new Node();
     private Node root;  /* Root node of the tree. */
-    private int size; /* The number of key-value pairs in the tree */
 
     /* Creates an empty BSTMap. */
     public BSTMap() {
         this.clear();
     }
 
+    /**
+     * Returns a perfectly balanced BSTMap of the given keys and values in O(n) time,
+     * without any comparisons or rotations.
+     * @param keys The keys, in strictly increasing order.
+     * @param values The value for each key.
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Need exactly one value per key.");
+        }
+        for (int i = 0; i < keys.length; i += 1) {
+            if (keys[i] == null || values[i] == null) {
+                throw new IllegalArgumentException("Null keys and values not allowed.");
+            }
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing.");
+            }
+        }
+        BSTMap<K, V> map = new BSTMap<>();
+        /* Every level but the deepest is full. Colouring just the deepest level red, unless
+        it is full too, gives every path the same number of black nodes. */
+        int n = keys.length;
+        int deepest = 31 - Integer.numberOfLeadingZeros(n + 1);
+        if (Integer.bitCount(n + 1) == 1) {
+            deepest = -1;
+        }
+        map.root = map.build(keys, values, 0, n - 1, 0, deepest);
+        map.root.parent = map.nil;
+        return map;
+    }
+
+    /** Returns a balanced subtree of keys[lo..hi], whose root is at the given depth. */
+    private Node build(K[] keys, V[] values, int lo, int hi, int depth, int redDepth) {
+        if (lo > hi) {
+            return nil;
+        }
+        int mid = (lo + hi) >>> 1;
+        Node p = new Node(keys[mid], values[mid]);
+        p.color = depth == redDepth ? RED : BLACK;
+        p.left = build(keys, values, lo, mid - 1, depth + 1, redDepth);
+        p.right = build(keys, values, mid + 1, hi, depth + 1, redDepth);
+        p.left.parent = p;
+        p.right.parent = p;
+        p.size = hi - lo + 1;
+        return p;
+    }
+
     /* Removes all of the mappings from this map. */
     @Override
     public void clear() {
-        root = null;
-        size = 0;
+        root = nil;
     }
 
-    /** Returns the value mapped to by KEY in the subtree rooted in P.
-     *  or null if this map contains no mapping for the key.
-     */
-    private V getHelper(K key, Node p) {
-        throw new UnsupportedOperationException();
+    /** Returns the Node holding KEY, or nil if there is none. */
+    private Node getNode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        Node p = root;
+        while (p != nil) {
+            int cmp = key.compareTo(p.key);
+            if (cmp == 0) {
+                return p;
+            }
+            p = cmp < 0 ? p.left : p.right;
+        }
+        return nil;
     }
 
     /** Returns the value to which the specified key is mapped, or null if this
@@ -52,14 +134,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      */
     @Override
     public V get(K key) {
-        throw new UnsupportedOperationException();
-    }
-
-    /** Returns a BSTMap rooted in p with (KEY, VALUE) added as a key-value mapping.
-      * Or if p is null, it returns a one node BSTMap containing (KEY, VALUE).
-     */
-    private Node putHelper(K key, V value, Node p) {
-        throw new UnsupportedOperationException();
+        return getNode(key).value;
     }
 
     /** Inserts the key KEY
@@ -67,13 +142,269 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      */
     @Override
     public void put(K key, V value) {
-        throw new UnsupportedOperationException();
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not allowed.");
+        }
+        Node parent = nil;
+        Node p = root;
+        int cmp = 0;
+        while (p != nil) {
+            cmp = key.compareTo(p.key);
+            if (cmp == 0) {
+                p.value = value;
+                return;
+            }
+            parent = p;
+            p = cmp < 0 ? p.left : p.right;
+        }
+
+        Node z = new Node(key, value);
+        z.parent = parent;
+        if (parent == nil) {
+            root = z;
+        } else if (cmp < 0) {
+            parent.left = z;
+        } else {
+            parent.right = z;
+        }
+        for (Node q = parent; q != nil; q = q.parent) {
+            q.size += 1;
+        }
+        insertFixup(z);
+    }
+
+    /** Restores the red-black properties after inserting the red node z. */
+    private void insertFixup(Node z) {
+        while (z.parent.color == RED) {
+            Node grandparent = z.parent.parent;
+            if (z.parent == grandparent.left) {
+                Node uncle = grandparent.right;
+                if (uncle.color == RED) {
+                    z.parent.color = BLACK;
+                    uncle.color = BLACK;
+                    grandparent.color = RED;
+                    z = grandparent;
+                } else {
+                    if (z == z.parent.right) {
+                        z = z.parent;
+                        rotateLeft(z);
+                    }
+                    z.parent.color = BLACK;
+                    grandparent.color = RED;
+                    rotateRight(grandparent);
+                }
+            } else {
+                Node uncle = grandparent.left;
+                if (uncle.color == RED) {
+                    z.parent.color = BLACK;
+                    uncle.color = BLACK;
+                    grandparent.color = RED;
+                    z = grandparent;
+                } else {
+                    if (z == z.parent.left) {
+                        z = z.parent;
+                        rotateRight(z);
+                    }
+                    z.parent.color = BLACK;
+                    grandparent.color = RED;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    /** Makes x's right child the root of x's subtree, with x as its left child. */
+    private void rotateLeft(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        if (y.left != nil) {
+            y.left.parent = x;
+        }
+        replaceChild(x, y);
+        y.left = x;
+        x.parent = y;
+        y.size = x.size;
+        x.size = x.left.size + x.right.size + 1;
+    }
+
+    /** Makes x's left child the root of x's subtree, with x as its right child. */
+    private void rotateRight(Node x) {
+        Node y = x.left;
+        x.left = y.right;
+        if (y.right != nil) {
+            y.right.parent = x;
+        }
+        replaceChild(x, y);
+        y.right = x;
+        x.parent = y;
+        y.size = x.size;
+        x.size = x.left.size + x.right.size + 1;
+    }
+
+    /** Puts v where u is in u's parent (or at the root), and sets v's parent. */
+    private void replaceChild(Node u, Node v) {
+        if (u.parent == nil) {
+            root = v;
+        } else if (u == u.parent.left) {
+            u.parent.left = v;
+        } else {
+            u.parent.right = v;
+        }
+        v.parent = u.parent;
     }
 
     /* Returns the number of key-value mappings in this map. */
     @Override
     public int size() {
-        throw new UnsupportedOperationException();
+        return root.size;
+    }
+
+    /** Returns the height of the tree, i.e. the number of nodes on its longest path. */
+    public int height() {
+        return height(root);
+    }
+
+    private int height(Node p) {
+        if (p == nil) {
+            return 0;
+        }
+        return 1 + Math.max(height(p.left), height(p.right));
+    }
+
+    //////////////// ORDERED OPERATIONS ////////////////
+
+    /** Returns the Node with the smallest key in the subtree rooted at p. */
+    private Node minNode(Node p) {
+        while (p.left != nil) {
+            p = p.left;
+        }
+        return p;
+    }
+
+    /** Returns the Node with the largest key in the subtree rooted at p. */
+    private Node maxNode(Node p) {
+        while (p.right != nil) {
+            p = p.right;
+        }
+        return p;
+    }
+
+    /** Returns the Node with the next larger key after p's, or nil if p is the last. */
+    private Node successor(Node p) {
+        if (p.right != nil) {
+            return minNode(p.right);
+        }
+        Node q = p.parent;
+        while (q != nil && p == q.right) {
+            p = q;
+            q = q.parent;
+        }
+        return q;
+    }
+
+    /** Returns the smallest key, or null if the map is empty. */
+    public K min() {
+        return root == nil ? null : minNode(root).key;
+    }
+
+    /** Returns the largest key, or null if the map is empty. */
+    public K max() {
+        return root == nil ? null : maxNode(root).key;
+    }
+
+    /** Returns the Node with the largest key less than or equal to KEY, or nil. */
+    private Node floorNode(K key) {
+        Node best = nil;
+        Node p = root;
+        while (p != nil) {
+            int cmp = key.compareTo(p.key);
+            if (cmp == 0) {
+                return p;
+            } else if (cmp < 0) {
+                p = p.left;
+            } else {
+                best = p;
+                p = p.right;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the Node with the smallest key greater than or equal to KEY, or nil. */
+    private Node ceilingNode(K key) {
+        Node best = nil;
+        Node p = root;
+        while (p != nil) {
+            int cmp = key.compareTo(p.key);
+            if (cmp == 0) {
+                return p;
+            } else if (cmp > 0) {
+                p = p.right;
+            } else {
+                best = p;
+                p = p.left;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the largest key less than or equal to KEY, or null if there is none. */
+    public K floor(K key) {
+        return floorNode(key).key;
+    }
+
+    /** Returns the smallest key greater than or equal to KEY, or null if there is none. */
+    public K ceiling(K key) {
+        return ceilingNode(key).key;
+    }
+
+    /** Returns the number of keys strictly less than KEY. */
+    public int rank(K key) {
+        int rank = 0;
+        Node p = root;
+        while (p != nil) {
+            int cmp = key.compareTo(p.key);
+            if (cmp == 0) {
+                return rank + p.left.size;
+            } else if (cmp < 0) {
+                p = p.left;
+            } else {
+                rank += p.left.size + 1;
+                p = p.right;
+            }
+        }
+        return rank;
+    }
+
+    /** Returns the key of rank I, i.e. the key with exactly I smaller keys. */
+    public K select(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IllegalArgumentException("No key of rank " + i + ".");
+        }
+        Node p = root;
+        while (true) {
+            int leftSize = p.left.size;
+            if (i < leftSize) {
+                p = p.left;
+            } else if (i > leftSize) {
+                i -= leftSize + 1;
+                p = p.right;
+            } else {
+                return p.key;
+            }
+        }
+    }
+
+    /**
+     * Returns the keys from LO to HI inclusive, in increasing order. The keys are
+     * found lazily while iterating, so this takes O(log n + k) time for k keys.
+     */
+    public Iterable<K> range(K lo, K hi) {
+        return () -> new KeyIterator(ceilingNode(lo), hi);
     }
 
     //////////////// EVERYTHING BELOW THIS LINE IS OPTIONAL ////////////////
@@ -81,7 +412,11 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     /* Returns a Set view of the keys contained in this map. */
     @Override
     public Set<K> keySet() {
-        throw new UnsupportedOperationException();
+        Set<K> keyset = new TreeSet<>();
+        for (K key : this) {
+            keyset.add(key);
+        }
+        return keyset;
     }
 
     /** Removes KEY from the tree if present
@@ -90,7 +425,12 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      */
     @Override
     public V remove(K key) {
-        throw new UnsupportedOperationException();
+        Node z = getNode(key);
+        if (z == nil) {
+            return null;
+        }
+        delete(z);
+        return z.value;
     }
 
     /** Removes the key-value entry for the specified key only if it is
@@ -99,11 +439,139 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
      **/
     @Override
     public V remove(K key, V value) {
-        throw new UnsupportedOperationException();
+        Node z = getNode(key);
+        if (z == nil || !z.value.equals(value)) {
+            return null;
+        }
+        delete(z);
+        return z.value;
+    }
+
+    /** Deletes node z from the tree, as in CLRS RB-DELETE. */
+    private void delete(Node z) {
+        // y is the node whose position in the tree disappears: z, or z's successor
+        Node y = (z.left == nil || z.right == nil) ? z : minNode(z.right);
+        for (Node q = y.parent; q != nil; q = q.parent) {
+            q.size -= 1;
+        }
+
+        boolean removedColor = y.color;
+        Node x;
+        if (z.left == nil) {
+            x = z.right;
+            replaceChild(z, x);
+        } else if (z.right == nil) {
+            x = z.left;
+            replaceChild(z, x);
+        } else {
+            x = y.right;
+            if (y.parent == z) {
+                x.parent = y; // x may be nil, whose parent deleteFixup relies on
+            } else {
+                replaceChild(y, x);
+                y.right = z.right;
+                y.right.parent = y;
+            }
+            replaceChild(z, y);
+            y.left = z.left;
+            y.left.parent = y;
+            y.color = z.color;
+            y.size = z.size;
+        }
+        if (removedColor == BLACK) {
+            deleteFixup(x);
+        }
+        nil.parent = nil;
     }
 
+    /** Restores the red-black properties when x carries an extra black. */
+    private void deleteFixup(Node x) {
+        while (x != root && x.color == BLACK) {
+            if (x == x.parent.left) {
+                Node w = x.parent.right;
+                if (w.color == RED) {
+                    w.color = BLACK;
+                    x.parent.color = RED;
+                    rotateLeft(x.parent);
+                    w = x.parent.right;
+                }
+                if (w.left.color == BLACK && w.right.color == BLACK) {
+                    w.color = RED;
+                    x = x.parent;
+                } else {
+                    if (w.right.color == BLACK) {
+                        w.left.color = BLACK;
+                        w.color = RED;
+                        rotateRight(w);
+                        w = x.parent.right;
+                    }
+                    w.color = x.parent.color;
+                    x.parent.color = BLACK;
+                    w.right.color = BLACK;
+                    rotateLeft(x.parent);
+                    x = root;
+                }
+            } else {
+                Node w = x.parent.left;
+                if (w.color == RED) {
+                    w.color = BLACK;
+                    x.parent.color = RED;
+                    rotateRight(x.parent);
+                    w = x.parent.left;
+                }
+                if (w.right.color == BLACK && w.left.color == BLACK) {
+                    w.color = RED;
+                    x = x.parent;
+                } else {
+                    if (w.left.color == BLACK) {
+                        w.right.color = BLACK;
+                        w.color = RED;
+                        rotateLeft(w);
+                        w = x.parent.left;
+                    }
+                    w.color = x.parent.color;
+                    x.parent.color = BLACK;
+                    w.left.color = BLACK;
+                    rotateRight(x.parent);
+                    x = root;
+                }
+            }
+        }
+        x.color = BLACK;
+    }
+
+    /**
+     * Returns an iterator over the keys in increasing order. It follows parent
+     * pointers rather than keeping a stack, so it allocates nothing after creation.
+     * The map must not be modified while iterating.
+     */
     @Override
     public Iterator<K> iterator() {
-        throw new UnsupportedOperationException();
+        return new KeyIterator(root == nil ? nil : minNode(root), null);
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private Node next;
+        private final K hi; /* Last key to return, or null for no limit. */
+
+        KeyIterator(Node first, K hi) {
+            this.next = first;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != nil && (hi == null || next.key.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            next = successor(next);
+            return key;
+        }
     }
 }
@@ -0,0 +1,206 @@
+package lab9;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A read-only implementation of interface Map61B for static data, storing the keys
+ * in one array in Eytzinger (breadth-first) order: the root of an implicit balanced
+ * BST is at index 1, and the children of index k are at 2k and 2k + 1.
+ *
+ * A lookup is a binary search that always runs to the bottom of the tree, with no
+ * early exit on equality; its only data-dependent step picks a child, and whether
+ * that compiles to a conditional move or a branch is up to the JIT. The top levels
+ * of the tree share a few cache lines at the front of the array, and each level
+ * below any slot is contiguous: the descendants of slot k one to four levels down
+ * are runs of 2, 4, 8 and 16 consecutive slots, starting at 2k, 4k, 8k and 16k. So
+ * the references a lookup reads can be prefetched a few levels ahead, unlike in a
+ * binary search over a sorted array. There are no nodes, so the map takes just two
+ * arrays. The keys themselves are still objects, though, and each comparison reads
+ * one that may be anywhere in the heap; when the keys are small boxed values that
+ * were allocated in order, a BPlusTreeMap, whose leaves compare neighbouring keys,
+ * can be faster.
+ *
+ * Modifying methods throw UnsupportedOperationException. Build one from sorted keys,
+ * or with BPlusTreeMap.freeze().
+ */
+public class EytzingerMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    /* keys[k] and values[k] for k from 1 to n; index 0 is unused. */
+    private final Object[] keys;
+    private final Object[] values;
+    private final int n;
+
+    /**
+     * Creates an EytzingerMap of the given keys and values in O(n) time.
+     * @param sortedKeys The keys, in strictly increasing order.
+     * @param sortedValues The value for each key.
+     */
+    public EytzingerMap(K[] sortedKeys, V[] sortedValues) {
+        if (sortedKeys.length != sortedValues.length) {
+            throw new IllegalArgumentException("Need exactly one value per key.");
+        }
+        for (int i = 0; i < sortedKeys.length; i += 1) {
+            if (sortedKeys[i] == null || sortedValues[i] == null) {
+                throw new IllegalArgumentException("Null keys and values not allowed.");
+            }
+            if (i > 0 && sortedKeys[i - 1].compareTo(sortedKeys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly increasing.");
+            }
+        }
+        this.n = sortedKeys.length;
+        this.keys = new Object[n + 1];
+        this.values = new Object[n + 1];
+        fill(sortedKeys, sortedValues, 0, 1);
+    }
+
+    /**
+     * Fills the subtree rooted at index k with the sorted entries from index i on,
+     * in order, and returns the index of the first entry not used.
+     */
+    private int fill(K[] sortedKeys, V[] sortedValues, int i, int k) {
+        if (k <= n) {
+            i = fill(sortedKeys, sortedValues, i, 2 * k);
+            keys[k] = sortedKeys[i];
+            values[k] = sortedValues[i];
+            i = fill(sortedKeys, sortedValues, i + 1, 2 * k + 1);
+        }
+        return i;
+    }
+
+    private K key(int k) {
+        return (K) keys[k];
+    }
+
+    /**
+     * Returns the index of the smallest key greater than or equal to KEY, or 0 if
+     * there is none. The loop runs to the bottom of the tree without branching on
+     * equality; the final shift undoes the right turns taken after the last left
+     * turn, which was at the answer.
+     */
+    private int lowerBound(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        int k = 1;
+        while (k <= n) {
+            k = 2 * k + (key(k).compareTo(key) < 0 ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /** Returns the index of the next key after the one at index k, or 0 if none. */
+    private int successor(int k) {
+        if (2 * k + 1 <= n) {
+            k = 2 * k + 1;
+            while (2 * k <= n) {
+                k = 2 * k;
+            }
+            return k;
+        }
+        while ((k & 1) == 1) {
+            k >>>= 1;
+        }
+        return k >>> 1;
+    }
+
+    /* Removes all of the mappings from this map. */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("EytzingerMap is read-only.");
+    }
+
+    /* Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    @Override
+    public V get(K key) {
+        int k = lowerBound(key);
+        if (k != 0 && key(k).compareTo(key) == 0) {
+            return (V) values[k];
+        }
+        return null;
+    }
+
+    /* Associates the specified value with the specified key in this map. */
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("EytzingerMap is read-only.");
+    }
+
+    /* Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /* Returns the smallest key greater than or equal to KEY, or null if there is none. */
+    public K ceiling(K key) {
+        int k = lowerBound(key);
+        return k == 0 ? null : key(k);
+    }
+
+    /**
+     * Returns the keys from LO to HI inclusive, in increasing order. The keys are
+     * found lazily while iterating, so this takes O(log n + k) time for k keys.
+     */
+    public Iterable<K> range(K lo, K hi) {
+        return () -> new KeyIterator(lowerBound(lo), hi);
+    }
+
+    /* Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keyset = new TreeSet<>();
+        for (K key : this) {
+            keyset.add(key);
+        }
+        return keyset;
+    }
+
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("EytzingerMap is read-only.");
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        throw new UnsupportedOperationException("EytzingerMap is read-only.");
+    }
+
+    /** Returns an iterator over the keys in increasing order. */
+    @Override
+    public Iterator<K> iterator() {
+        int k = n == 0 ? 0 : 1;
+        while (2 * k <= n && k != 0) {
+            k = 2 * k;
+        }
+        return new KeyIterator(k, null);
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private int k;
+        private final K hi; /* Last key to return, or null for no limit. */
+
+        KeyIterator(int first, K hi) {
+            this.k = first;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return k != 0 && (hi == null || key(k).compareTo(hi) <= 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = key(k);
+            k = successor(k);
+            return key;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package lab9;
+
+import java.util.Arrays;
+
+/**
+ *  A hash map from int keys to object values that never boxes its keys. Follows the
+ *  Map61B contract, with get() and remove() returning null for an absent key, so
+ *  null values are not allowed.
+ *
+ *  Uses the same Robin Hood open addressing as MyHashMap, over an int[] of keys and
+ *  an array of values, so a key costs 4 bytes per slot instead of a map entry plus
+ *  a boxed Integer. Whether a slot is occupied is kept in a separate bitset, so
+ *  every int, including 0, can be a key. The table grows by rehashing all at once.
+ */
+public class IntObjectHashMap<V> {
+
+    /** Takes a key-value pair of the map, for forEach. */
+    @FunctionalInterface
+    public interface Consumer<V> {
+        void accept(int key, V value);
+    }
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double MAX_LF = 0.75;
+    /** 2^32 divided by the golden ratio, for Fibonacci hashing. */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    private int[] keys;
+    private V[] values;
+    private long[] occupied; // bit i is set iff slot i holds an entry
+    private int mask;
+    private int shift;
+    private int size;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_SIZE);
+    }
+
+    public IntObjectHashMap(int initialSize) {
+        if (initialSize < 1) {
+            throw new IllegalArgumentException("Initial size must be positive.");
+        }
+        allocate(Math.max(2, Integer.highestOneBit(initialSize - 1) << 1));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = (V[]) new Object[capacity];
+        occupied = new long[(capacity + 63) >>> 6];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private boolean isOccupied(int i) {
+        return (occupied[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private void setOccupied(int i, boolean value) {
+        if (value) {
+            occupied[i >>> 6] |= 1L << i;
+        } else {
+            occupied[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    /** Returns the home slot of key. */
+    private int home(int key) {
+        return (key * GOLDEN) >>> shift;
+    }
+
+    /** Returns how far the entry in slot i is from its home slot. */
+    private int distance(int i) {
+        return (i - home(keys[i])) & mask;
+    }
+
+    /** Returns the slot holding key, or -1 if it is absent. */
+    private int find(int key) {
+        int i = home(key);
+        for (int d = 0; isOccupied(i) && distance(i) >= d; d += 1) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /* Removes all of the mappings from this map. */
+    public void clear() {
+        Arrays.fill(occupied, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /* Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key. */
+    public V get(int key) {
+        int i = find(key);
+        return i == -1 ? null : values[i];
+    }
+
+    /* Returns true if this map contains a mapping for the specified key. */
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+
+    /* Associates the specified value with the specified key in this map. */
+    public void put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not allowed.");
+        }
+        int i = find(key);
+        if (i != -1) {
+            values[i] = value;
+            return;
+        }
+        size += 1;
+        if (size > MAX_LF * keys.length) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+    }
+
+    /** Inserts a key that is not in the map, Robin Hood style. */
+    private void insert(int key, V value) {
+        int i = home(key);
+        int d = 0;
+        while (isOccupied(i)) {
+            int existing = distance(i);
+            if (existing < d) {
+                int k = keys[i];
+                V v = values[i];
+                keys[i] = key;
+                values[i] = value;
+                key = k;
+                value = v;
+                d = existing;
+            }
+            i = (i + 1) & mask;
+            d += 1;
+        }
+        keys[i] = key;
+        values[i] = value;
+        setOccupied(i, true);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        long[] oldOccupied = occupied;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i += 1) {
+            if ((oldOccupied[i >>> 6] & (1L << i)) != 0) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /* Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /* Returns the keys contained in this map, in no particular order. */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i += 1) {
+            if (isOccupied(i)) {
+                result[n] = keys[i];
+                n += 1;
+            }
+        }
+        return result;
+    }
+
+    /* Removes the mapping for the specified key from this map if present, and
+     * returns its value, or null if there was none. */
+    public V remove(int key) {
+        int i = find(key);
+        if (i == -1) {
+            return null;
+        }
+        V returnValue = values[i];
+        removeAt(i);
+        return returnValue;
+    }
+
+    /* Removes the entry for the specified key only if it is currently mapped to
+     * the specified value. */
+    public V remove(int key, V value) {
+        int i = find(key);
+        if (i == -1 || !values[i].equals(value)) {
+            return null;
+        }
+        V returnValue = values[i];
+        removeAt(i);
+        return returnValue;
+    }
+
+    /** Removes the entry in slot i, shifting the rest of its cluster back one slot. */
+    private void removeAt(int i) {
+        int j = (i + 1) & mask;
+        while (isOccupied(j) && distance(j) > 0) {
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+            j = (j + 1) & mask;
+        }
+        values[i] = null;
+        setOccupied(i, false);
+        size -= 1;
+    }
+
+    /** Calls action on every key-value pair of the map, in no particular order. */
+    public void forEach(Consumer<? super V> action) {
+        for (int w = 0; w < occupied.length; w += 1) {
+            long bits = occupied[w];
+            while (bits != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                action.accept(keys[i], values[i]);
+                bits &= bits - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package lab9;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, lock-free implementation of interface Map61B with a skip list as
+ * core data structure, for ordered lookups shared between threads.
+ *
+ * The list follows the lock-free skip list of Herlihy and Shavit, "The Art of
+ * Multiprocessor Programming", ch. 14. Each node sits in the bottom level and, with
+ * probability 1/2 per level, in the levels above, so a search skips down from the
+ * top level in O(log n) expected steps. A node being deleted has each of its next
+ * pointers marked, by a compare-and-set that points it at a marker node holding the
+ * old successor (as in Harris's lists and java.util.concurrent), which keeps the
+ * next pointers plain references rather than AtomicMarkableReferences, whose pairs
+ * cost an extra cache miss per step. Any thread that meets a marked node while
+ * searching for a place to insert or delete unlinks it, so no thread ever waits for
+ * another.
+ *
+ * A key is in the map iff its node's value is non-null. put() on an existing key
+ * and remove() both change the value with a compare-and-set, which is where they take
+ * effect, so a put can never be lost by landing on a node that is being deleted.
+ * get(), floor(), ceiling() and iteration only read, and never modify the list.
+ *
+ * size(), keySet() and iteration are weakly consistent: while other threads are
+ * writing, they reflect some of those writes and not others. Null keys and null
+ * values are not allowed.
+ */
+public class LockFreeSkipListMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+        AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+
+    private static class Node<K, V> {
+        final K key;
+        volatile Object value; /* A V, or null once the key has been removed */
+        final AtomicReferenceArray<Node<K, V>> next; /* Successor, or Marker, per level */
+
+        Node(K key, V value, int height) {
+            this.key = key;
+            this.value = value;
+            this.next = new AtomicReferenceArray<>(height);
+        }
+
+        int height() {
+            return next.length();
+        }
+    }
+
+    /** Takes the place of a marked next pointer, and holds the successor it pointed to. */
+    private static final class Marker<K, V> extends Node<K, V> {
+        final Node<K, V> succ;
+
+        Marker(Node<K, V> succ) {
+            super(null, null, 0);
+            this.succ = succ;
+        }
+    }
+
+    /** Returns the node a next pointer leads to, whether or not it is marked. */
+    private static <K, V> Node<K, V> unmark(Node<K, V> link) {
+        return link instanceof Marker ? ((Marker<K, V>) link).succ : link;
+    }
+
+    /* Sentinels: head is before every key, and tail after every key. */
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private final Node<K, V> tail = new Node<>(null, null, 0);
+    private final LongAdder size = new LongAdder();
+    /* The height of the tallest node ever added; searches start at this level. */
+    private final AtomicInteger levels = new AtomicInteger(1);
+
+    /* Creates an empty LockFreeSkipListMap. */
+    public LockFreeSkipListMap() {
+        for (int i = 0; i < MAX_LEVEL; i += 1) {
+            head.next.set(i, tail);
+        }
+    }
+
+    /** Returns true if node n comes before KEY, i.e. is not tail and has a smaller key. */
+    private boolean before(Node<K, V> n, K key) {
+        return n != tail && n.key.compareTo(key) < 0;
+    }
+
+    /**
+     * Returns a random height from 1 to MAX_LEVEL, with P(height > h) = 2^-h, and
+     * makes sure searches start at least that high.
+     */
+    private int randomHeight() {
+        int r = ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1));
+        int height = Integer.numberOfTrailingZeros(r) + 1;
+        if (height > levels.get()) { // rare, so the counter is seldom written
+            levels.accumulateAndGet(height, Math::max);
+        }
+        return height;
+    }
+
+    /**
+     * Fills preds and succs, at every level, with the last node before KEY and the
+     * node after it, unlinking marked nodes on the way. Returns the node holding KEY
+     * at the bottom level, or null if there is none.
+     */
+    private Node<K, V> find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            Node<K, V> curr = null;
+            for (int level = levels.get() - 1; level >= 0; level -= 1) {
+                curr = pred.next.get(level);
+                if (curr instanceof Marker) {
+                    continue retry; // pred is being deleted
+                }
+                while (curr != tail) {
+                    Node<K, V> link = curr.next.get(level);
+                    if (link instanceof Marker) {
+                        Node<K, V> succ = ((Marker<K, V>) link).succ;
+                        if (!pred.next.compareAndSet(level, curr, succ)) {
+                            continue retry; // pred changed or was marked itself
+                        }
+                        curr = succ;
+                    } else if (curr.key.compareTo(key) < 0) {
+                        pred = curr;
+                        curr = link;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return curr != tail && curr.key.compareTo(key) == 0 ? curr : null;
+        }
+    }
+
+    /**
+     * Returns the first node at the bottom level whose key is not before KEY, or tail,
+     * without modifying the list. Marked nodes are stepped over rather than unlinked.
+     */
+    private Node<K, V> ceilingNode(K key) {
+        Node<K, V> pred = head;
+        Node<K, V> curr = null;
+        for (int level = levels.get() - 1; level >= 0; level -= 1) {
+            curr = unmark(pred.next.get(level));
+            // Comparing before reading curr's links spares a cache miss on the node
+            // each level stops at; a marked node stopped at is harmless to a reader
+            while (before(curr, key)) {
+                Node<K, V> link = curr.next.get(level);
+                if (!(link instanceof Marker)) {
+                    pred = curr;
+                }
+                curr = unmark(link);
+            }
+        }
+        return curr;
+    }
+
+    /** Returns the first node at or after n at the bottom level that holds a key. */
+    private Node<K, V> firstLive(Node<K, V> n) {
+        while (n != tail && n.value == null) {
+            n = unmark(n.next.get(0));
+        }
+        return n;
+    }
+
+    /** Marks every next pointer of n, top down, so that searches unlink it. */
+    private static <K, V> void markAll(Node<K, V> n) {
+        for (int level = n.height() - 1; level >= 0; level -= 1) {
+            Node<K, V> link = n.next.get(level);
+            while (!(link instanceof Marker)
+                && !n.next.compareAndSet(level, link, new Marker<>(link))) {
+                link = n.next.get(level);
+            }
+        }
+    }
+
+    /* Removes all of the mappings from this map. Keys put while this runs may remain. */
+    @Override
+    public void clear() {
+        for (K key : this) {
+            remove(key);
+        }
+    }
+
+    /* Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key. Never blocks.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        Node<K, V> n = ceilingNode(key);
+        if (n != tail && n.key.compareTo(key) == 0) {
+            return (V) n.value;
+        }
+        return null;
+    }
+
+    /* Associates the specified value with the specified key in this map. */
+    @Override
+    public void put(K key, V value) {
+        doPut(key, value, false);
+    }
+
+    /**
+     * Adds key with value if key is absent, and returns null; otherwise returns the
+     * value key already has and leaves it unchanged.
+     */
+    public V putIfAbsent(K key, V value) {
+        return doPut(key, value, true);
+    }
+
+    /** Puts key with value, unless onlyIfAbsent and key is present. Returns the old value. */
+    private V doPut(K key, V value, boolean onlyIfAbsent) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not allowed.");
+        }
+        Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL];
+        int height = randomHeight();
+        while (true) {
+            Node<K, V> found = find(key, preds, succs);
+            if (found != null) {
+                Object old = found.value;
+                if (old == null) {
+                    markAll(found); // help the remover, then search again
+                    continue;
+                }
+                if (onlyIfAbsent || VALUE.compareAndSet(found, old, value)) {
+                    return (V) old;
+                }
+                continue;
+            }
+
+            Node<K, V> node = new Node<>(key, value, height);
+            for (int level = 0; level < height; level += 1) {
+                node.next.set(level, succs[level]);
+            }
+            // Linking into the bottom level is where the put takes effect
+            if (!preds[0].next.compareAndSet(0, succs[0], node)) {
+                continue;
+            }
+            size.increment();
+            linkUpperLevels(node, preds, succs);
+            return null;
+        }
+    }
+
+    /**
+     * Links node into levels 1 and up, searching again whenever a predecessor has
+     * changed. Gives up if node is being deleted, since it no longer needs to be found.
+     */
+    private void linkUpperLevels(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+        for (int level = 1; level < node.height(); level += 1) {
+            while (true) {
+                Node<K, V> succ = succs[level];
+                Node<K, V> current = node.next.get(level);
+                if (current instanceof Marker
+                    || (current != succ && !node.next.compareAndSet(level, current, succ))) {
+                    return;
+                }
+                if (preds[level].next.compareAndSet(level, succ, node)) {
+                    break;
+                }
+                if (find(node.key, preds, succs) != node) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /* Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        return (int) Math.max(0, size.sum());
+    }
+
+    //////////////// ORDERED OPERATIONS ////////////////
+
+    /** Returns the smallest key greater than or equal to KEY, or null if there is none. */
+    public K ceiling(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        Node<K, V> n = firstLive(ceilingNode(key));
+        return n == tail ? null : n.key;
+    }
+
+    /** Returns the largest key less than or equal to KEY, or null if there is none. */
+    public K floor(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        boolean inclusive = true;
+        while (true) {
+            Node<K, V> n = lastBefore(key, inclusive);
+            if (n == head) {
+                return null;
+            }
+            if (n.value != null) {
+                return n.key;
+            }
+            // n was removed meanwhile, so look for the key before it instead
+            key = n.key;
+            inclusive = false;
+        }
+    }
+
+    /**
+     * Returns the last unmarked node at the bottom level whose key is less than KEY,
+     * or at most KEY if inclusive, or head if there is none.
+     */
+    private Node<K, V> lastBefore(K key, boolean inclusive) {
+        Node<K, V> pred = head;
+        for (int level = levels.get() - 1; level >= 0; level -= 1) {
+            Node<K, V> curr = unmark(pred.next.get(level));
+            while (curr != tail) {
+                int cmp = curr.key.compareTo(key);
+                if (cmp > 0 || (cmp == 0 && !inclusive)) {
+                    break;
+                }
+                Node<K, V> link = curr.next.get(level);
+                if (!(link instanceof Marker)) {
+                    pred = curr;
+                }
+                curr = unmark(link);
+            }
+        }
+        return pred;
+    }
+
+    /**
+     * Returns the keys from FROMKEY inclusive to TOKEY exclusive, in increasing order,
+     * as a weakly consistent view found lazily while iterating.
+     */
+    public Iterable<K> subMap(K fromKey, K toKey) {
+        if (fromKey == null || toKey == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        return () -> new KeyIterator(ceilingNode(fromKey), toKey);
+    }
+
+    //////////////// EVERYTHING BELOW THIS LINE IS OPTIONAL ////////////////
+
+    /* Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keyset = new TreeSet<>();
+        for (K key : this) {
+            keyset.add(key);
+        }
+        return keyset;
+    }
+
+    /* Removes the mapping for the specified key from this map if present. */
+    @Override
+    public V remove(K key) {
+        return remove(key, null, false);
+    }
+
+    /* Removes the entry for the specified key only if it is currently mapped to
+     * the specified value. */
+    @Override
+    public V remove(K key, V value) {
+        return remove(key, value, true);
+    }
+
+    private V remove(K key, V value, boolean matchValue) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL];
+        while (true) {
+            Node<K, V> found = find(key, preds, succs);
+            if (found == null) {
+                return null;
+            }
+            Object old = found.value;
+            if (old == null || (matchValue && !old.equals(value))) {
+                return null;
+            }
+            // Clearing the value is where the remove takes effect
+            if (VALUE.compareAndSet(found, old, null)) {
+                size.decrement();
+                markAll(found);
+                find(key, preds, succs); // unlinks found
+                return (V) old;
+            }
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the keys in increasing order. It never
+     * throws ConcurrentModificationException, and may or may not reflect writes made
+     * while iterating.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator(head.next.get(0), null);
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private Node<K, V> next;
+        private final K toKey; /* Key to stop before, or null for no limit. */
+
+        KeyIterator(Node<K, V> first, K toKey) {
+            this.next = firstLive(first);
+            this.toKey = toKey;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != tail && (toKey == null || next.key.compareTo(toKey) < 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            next = firstLive(unmark(next.next.get(0)));
+            return key;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package lab9;
+
+import java.util.Arrays;
+
+/**
+ *  A hash map from long keys to double values that never boxes either. Follows the
+ *  Map61B contract, except that an absent key is reported by containsKey() or by
+ *  the default passed to getOrDefault(), since a primitive get() cannot return null.
+ *
+ *  Uses the same Robin Hood open addressing as MyHashMap, over a long[] of keys and
+ *  a double[] of values, so an entry costs 16 bytes per slot instead of a map entry
+ *  plus a boxed Long and Double. Whether a slot is occupied is kept in a separate
+ *  bitset, so every long, including 0, can be a key. The table grows by rehashing
+ *  all at once, which for primitive arrays is a fast sequential copy.
+ */
+public class LongDoubleHashMap {
+
+    /** Takes a key-value pair of the map, for forEach. */
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long key, double value);
+    }
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double MAX_LF = 0.75;
+    /** 2^64 divided by the golden ratio, for Fibonacci hashing. */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private double[] values;
+    private long[] occupied; // bit i is set iff slot i holds an entry
+    private int mask;
+    private int shift;
+    private int size;
+
+    public LongDoubleHashMap() {
+        this(DEFAULT_SIZE);
+    }
+
+    public LongDoubleHashMap(int initialSize) {
+        if (initialSize < 1) {
+            throw new IllegalArgumentException("Initial size must be positive.");
+        }
+        allocate(Math.max(2, Integer.highestOneBit(initialSize - 1) << 1));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        occupied = new long[(capacity + 63) >>> 6];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private boolean isOccupied(int i) {
+        return (occupied[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private void setOccupied(int i, boolean value) {
+        if (value) {
+            occupied[i >>> 6] |= 1L << i;
+        } else {
+            occupied[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    /** Returns the home slot of key. */
+    private int home(long key) {
+        return (int) ((key * GOLDEN) >>> shift);
+    }
+
+    /** Returns how far the entry in slot i is from its home slot. */
+    private int distance(int i) {
+        return (i - home(keys[i])) & mask;
+    }
+
+    /** Returns the slot holding key, or -1 if it is absent. */
+    private int find(long key) {
+        int i = home(key);
+        for (int d = 0; isOccupied(i) && distance(i) >= d; d += 1) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /* Removes all of the mappings from this map. */
+    public void clear() {
+        Arrays.fill(occupied, 0);
+        size = 0;
+    }
+
+    /* Returns the value to which the specified key is mapped, or defaultValue if
+     * this map contains no mapping for the key. */
+    public double getOrDefault(long key, double defaultValue) {
+        int i = find(key);
+        return i == -1 ? defaultValue : values[i];
+    }
+
+    /* Returns the value to which the specified key is mapped, or 0 if this map
+     * contains no mapping for the key. */
+    public double get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    /* Returns true if this map contains a mapping for the specified key. */
+    public boolean containsKey(long key) {
+        return find(key) != -1;
+    }
+
+    /* Associates the specified value with the specified key in this map. */
+    public void put(long key, double value) {
+        int i = find(key);
+        if (i != -1) {
+            values[i] = value;
+            return;
+        }
+        size += 1;
+        if (size > MAX_LF * keys.length) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+    }
+
+    /** Inserts a key that is not in the map, Robin Hood style. */
+    private void insert(long key, double value) {
+        int i = home(key);
+        int d = 0;
+        while (isOccupied(i)) {
+            int existing = distance(i);
+            if (existing < d) {
+                long k = keys[i];
+                double v = values[i];
+                keys[i] = key;
+                values[i] = value;
+                key = k;
+                value = v;
+                d = existing;
+            }
+            i = (i + 1) & mask;
+            d += 1;
+        }
+        keys[i] = key;
+        values[i] = value;
+        setOccupied(i, true);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        long[] oldOccupied = occupied;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i += 1) {
+            if ((oldOccupied[i >>> 6] & (1L << i)) != 0) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /* Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /* Returns the keys contained in this map, in no particular order. */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i += 1) {
+            if (isOccupied(i)) {
+                result[n] = keys[i];
+                n += 1;
+            }
+        }
+        return result;
+    }
+
+    /* Removes the mapping for the specified key from this map if present.
+     * Returns true if there was such a mapping. */
+    public boolean remove(long key) {
+        int i = find(key);
+        if (i == -1) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    /* Removes the entry for the specified key only if it is currently mapped to
+     * the specified value. Returns true if there was such an entry. */
+    public boolean remove(long key, double value) {
+        int i = find(key);
+        if (i == -1 || Double.compare(values[i], value) != 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    /** Removes the entry in slot i, shifting the rest of its cluster back one slot. */
+    private void removeAt(int i) {
+        int j = (i + 1) & mask;
+        while (isOccupied(j) && distance(j) > 0) {
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+            j = (j + 1) & mask;
+        }
+        setOccupied(i, false);
+        size -= 1;
+    }
+
+    /** Calls action on every key-value pair of the map, in no particular order. */
+    public void forEach(Consumer action) {
+        for (int w = 0; w < occupied.length; w += 1) {
+            long bits = occupied[w];
+            while (bits != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                action.accept(keys[i], values[i]);
+                bits &= bits - 1;
+            }
+        }
+    }
+}
@@ -1,51 +1,192 @@
 package lab9;
 
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  *  A hash table-backed Map implementation. Provides amortized constant time
  *  access to elements via get(), remove(), and put() in the best case.
  *
- *  @author Your name here
+ *  Uses open addressing with Robin Hood linear probing over flat parallel arrays
+ *  of keys, values and hash codes, so a lookup touches a few adjacent array slots
+ *  rather than following a chain of bucket objects. Robin Hood insertion keeps
+ *  probe sequences short and lets an unsuccessful lookup stop as soon as it passes
+ *  an entry closer to its home slot than the key would be. Deletion shifts the
+ *  rest of the cluster back one slot instead of leaving tombstones.
+ *
+ *  The capacity is always a power of two, and a key's home slot is taken from the
+ *  top bits of its hash code multiplied by the golden ratio (Fibonacci hashing),
+ *  which spreads poor hash codes across the whole table.
+ *
+ *  Resizing is incremental: when the table grows, the old table is kept and each
+ *  later put or remove moves a few of its clusters into the new table, so that no
+ *  single operation pays for rehashing every entry. Null keys and null values are
+ *  not allowed.
  */
 public class MyHashMap<K, V> implements Map61B<K, V> {
 
     private static final int DEFAULT_SIZE = 16;
     private static final double MAX_LF = 0.75;
+    /** Minimum number of old table slots migrated by each put or remove. */
+    private static final int MIGRATION_SLOTS = 8;
+    /** 2^32 divided by the golden ratio, for Fibonacci hashing. */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    /**
+     * An open addressing table. A slot is empty iff its key is null. The distance
+     * of an entry from its home slot is not stored, as it can be computed from the
+     * stored hash code.
+     */
+    private static class Table<K, V> {
+        final K[] keys;
+        final V[] values;
+        final int[] hashes;
+        final int mask;
+        final int shift;
+
+        Table(int capacity) {
+            keys = (K[]) new Object[capacity];
+            values = (V[]) new Object[capacity];
+            hashes = new int[capacity];
+            mask = capacity - 1;
+            shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        /** Returns the home slot of a hash code. */
+        int home(int h) {
+            return (h * GOLDEN) >>> shift;
+        }
+
+        /** Returns how far the entry in slot i is from its home slot. */
+        int distance(int i) {
+            return (i - home(hashes[i])) & mask;
+        }
+
+        /** Returns the slot holding key, or -1 if it is not in this table. */
+        int find(K key, int h) {
+            int i = home(h);
+            for (int d = 0; keys[i] != null && distance(i) >= d; d += 1) {
+                if (hashes[i] == h && keys[i].equals(key)) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts a key that is not in this table. Walking from the key's home slot,
+         * whenever the entry in a slot is closer to its home than the entry being
+         * inserted, the two swap places and the displaced entry carries on.
+         */
+        void insert(K key, V value, int h) {
+            int i = home(h);
+            int d = 0;
+            while (keys[i] != null) {
+                int existing = distance(i);
+                if (existing < d) {
+                    K k = keys[i];
+                    V v = values[i];
+                    int eh = hashes[i];
+                    keys[i] = key;
+                    values[i] = value;
+                    hashes[i] = h;
+                    key = k;
+                    value = v;
+                    h = eh;
+                    d = existing;
+                }
+                i = (i + 1) & mask;
+                d += 1;
+            }
+            keys[i] = key;
+            values[i] = value;
+            hashes[i] = h;
+        }
 
-    private ArrayMap<K, V>[] buckets;
+        /**
+         * Removes the entry in slot i, then shifts each following entry of the cluster
+         * back one slot until reaching an empty slot or an entry in its home slot.
+         */
+        void removeAt(int i) {
+            int j = (i + 1) & mask;
+            while (keys[j] != null && distance(j) > 0) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                hashes[i] = hashes[j];
+                i = j;
+                j = (j + 1) & mask;
+            }
+            keys[i] = null;
+            values[i] = null;
+        }
+    }
+
+    private final double maxLoadFactor;
+    private Table<K, V> table;
     private int size;
 
-    private int loadFactor() {
-        return size / buckets.length;
+    /* While resizing, the table being emptied into table, else null. Its remaining
+     * entries are in the slots from migrateCursor up to migrateSlotsLeft slots on,
+     * which always start just after an empty slot, so every remaining cluster and the
+     * home slots of its entries lie wholly inside that range. */
+    private Table<K, V> oldTable;
+    private int migrateCursor;
+    private int migrateSlotsLeft;
+
+    private double loadFactor() {
+        return (double) size / table.capacity();
     }
 
     public MyHashMap() {
-        buckets = new ArrayMap[DEFAULT_SIZE];
-        this.clear();
+        this(DEFAULT_SIZE, MAX_LF);
+    }
+
+    public MyHashMap(int initialSize) {
+        this(initialSize, MAX_LF);
+    }
+
+    public MyHashMap(int initialSize, double loadFactor) {
+        if (initialSize < 1) {
+            throw new IllegalArgumentException("Initial size must be positive.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1.");
+        }
+        this.maxLoadFactor = loadFactor;
+        this.table = new Table<>(tableSizeFor(initialSize));
+    }
+
+    /** Returns the smallest power of two that is at least n, and at least 2. */
+    private static int tableSizeFor(int n) {
+        if (n <= 2) {
+            return 2;
+        }
+        return Integer.highestOneBit(n - 1) << 1;
     }
 
     /* Removes all of the mappings from this map. */
     @Override
     public void clear() {
         this.size = 0;
-        for (int i = 0; i < this.buckets.length; i += 1) {
-            this.buckets[i] = new ArrayMap<>();
-        }
+        this.table = new Table<>(DEFAULT_SIZE);
+        this.oldTable = null;
     }
 
-    /** Computes the hash function of the given key. Consists of
-     *  computing the hashcode, followed by modding by the number of buckets.
-     *  To handle negative numbers properly, uses floorMod instead of %.
+    /** Computes the hash function of the given key. The result is spread over the
+     *  table by Table.home, so it does not need to be reduced here.
      */
     private int hash(K key) {
         if (key == null) {
-            return 0;
+            throw new IllegalArgumentException("Null key not allowed.");
         }
-
-        int numBuckets = buckets.length;
-        return Math.floorMod(key.hashCode(), numBuckets);
+        return key.hashCode();
     }
 
     /* Returns the value to which the specified key is mapped, or null if this
@@ -53,19 +194,97 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      */
     @Override
     public V get(K key) {
-        throw new UnsupportedOperationException();
+        int h = hash(key);
+        int i = table.find(key, h);
+        if (i != -1) {
+            return table.values[i];
+        }
+        if (oldTable != null) {
+            i = oldTable.find(key, h);
+            if (i != -1) {
+                return oldTable.values[i];
+            }
+        }
+        return null;
     }
 
     /* Associates the specified value with the specified key in this map. */
     @Override
     public void put(K key, V value) {
-        throw new UnsupportedOperationException();
+        int h = hash(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not allowed.");
+        }
+        migrate();
+        int i = table.find(key, h);
+        if (i != -1) {
+            table.values[i] = value;
+            return;
+        }
+        if (oldTable != null) {
+            i = oldTable.find(key, h);
+            if (i != -1) {
+                oldTable.values[i] = value;
+                return;
+            }
+        }
+        size += 1;
+        if (loadFactor() > maxLoadFactor) {
+            resize();
+        }
+        table.insert(key, value, h);
     }
 
     /* Returns the number of key-value mappings in this map. */
     @Override
     public int size() {
-        throw new UnsupportedOperationException();
+        return size;
+    }
+
+    /**
+     * Replaces the table with one twice the size, and starts migrating the entries
+     * of the old table into it. Migrating at least MIGRATION_SLOTS slots per put
+     * empties the old table long before the new one can reach its load factor.
+     */
+    private void resize() {
+        while (oldTable != null) {
+            migrate();
+        }
+        oldTable = table;
+        table = new Table<>(oldTable.capacity() * 2);
+
+        // Start just after an empty slot, so that no cluster is split
+        int start = 0;
+        while (oldTable.keys[start] != null) {
+            start += 1;
+        }
+        migrateCursor = (start + 1) & oldTable.mask;
+        migrateSlotsLeft = oldTable.capacity();
+    }
+
+    /**
+     * Moves at least MIGRATION_SLOTS slots of the old table, if any, into the new
+     * table, carrying on to the end of the current cluster. Entries are simply
+     * cleared from the old table, since the rest of their cluster moves too.
+     */
+    private void migrate() {
+        int moved = 0;
+        while (oldTable != null) {
+            K key = oldTable.keys[migrateCursor];
+            if (key != null) {
+                table.insert(key, oldTable.values[migrateCursor], oldTable.hashes[migrateCursor]);
+                oldTable.keys[migrateCursor] = null;
+                oldTable.values[migrateCursor] = null;
+            }
+            migrateCursor = (migrateCursor + 1) & oldTable.mask;
+            migrateSlotsLeft -= 1;
+            moved += 1;
+            if (migrateSlotsLeft == 0) {
+                oldTable = null;
+            } else if (key == null && moved >= MIGRATION_SLOTS) {
+                return;
+            }
+        }
     }
 
     //////////////// EVERYTHING BELOW THIS LINE IS OPTIONAL ////////////////
@@ -73,7 +292,11 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     /* Returns a Set view of the keys contained in this map. */
     @Override
     public Set<K> keySet() {
-        throw new UnsupportedOperationException();
+        Set<K> keyset = new HashSet<>();
+        for (K key : this) {
+            keyset.add(key);
+        }
+        return keyset;
     }
 
     /* Removes the mapping for the specified key from this map if exists.
@@ -81,7 +304,7 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * UnsupportedOperationException. */
     @Override
     public V remove(K key) {
-        throw new UnsupportedOperationException();
+        return remove(key, null, false);
     }
 
     /* Removes the entry for the specified key only if it is currently mapped to
@@ -89,11 +312,73 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * throw an UnsupportedOperationException.*/
     @Override
     public V remove(K key, V value) {
-        throw new UnsupportedOperationException();
+        return remove(key, value, true);
     }
 
+    /** Removes key, if present and, when matchValue is set, mapped to value. */
+    private V remove(K key, V value, boolean matchValue) {
+        int h = hash(key);
+        migrate();
+        Table<K, V> t = table;
+        int i = t.find(key, h);
+        if (i == -1 && oldTable != null) {
+            t = oldTable;
+            i = t.find(key, h);
+        }
+        if (i == -1 || (matchValue && !t.values[i].equals(value))) {
+            return null;
+        }
+        V returnValue = t.values[i];
+        t.removeAt(i);
+        size -= 1;
+        return returnValue;
+    }
+
+    /**
+     * Returns an iterator over the keys of this map, in no particular order.
+     * The map must not be modified while iterating.
+     */
     @Override
     public Iterator<K> iterator() {
-        throw new UnsupportedOperationException();
+        return new KeyIterator();
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private Table<K, V> current = oldTable != null ? oldTable : table;
+        private int slot = -1;
+
+        KeyIterator() {
+            advance();
+        }
+
+        /** Moves slot to the next non-empty slot, moving on to table after oldTable. */
+        private void advance() {
+            while (current != null) {
+                slot += 1;
+                while (slot < current.capacity() && current.keys[slot] == null) {
+                    slot += 1;
+                }
+                if (slot < current.capacity()) {
+                    return;
+                }
+                current = current == table ? null : table;
+                slot = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = current.keys[slot];
+            advance();
+            return key;
+        }
     }
 }
@@ -0,0 +1,349 @@
+package lab9;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ *  A thread-safe hash table-backed Map implementation, for maps shared between
+ *  the worker threads of a server.
+ *
+ *  The map is split into segments, each a separately locked chained hash table,
+ *  and a key's segment is chosen by the top bits of its hash. Writers lock only
+ *  their key's segment, so writes to different segments run in parallel, and each
+ *  segment resizes itself under its own lock. Reads never lock: a chain node's key
+ *  and hash never change, its value and next pointer are volatile, and a segment's
+ *  table and bins are published with volatile writes, so a reader always sees a
+ *  consistent chain, if not necessarily the very latest one. Resizing copies each
+ *  chain rather than relinking it, so readers still walking the old table are not
+ *  disturbed.
+ *
+ *  size(), keySet() and iteration are weakly consistent: while other threads are
+ *  writing, they reflect some of those writes and not others. Null keys and null
+ *  values are not allowed.
+ */
+public class StripedHashMap<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int DEFAULT_SEGMENT_SIZE = 16;
+    private static final double MAX_LF = 0.75;
+
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** A chained hash table guarded by its own lock. Only locked methods write. */
+    private static class Segment<K, V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;
+
+        Segment(int capacity) {
+            table = new AtomicReferenceArray<>(capacity);
+        }
+
+        /** Returns the node for key, without locking, or null if there is none. */
+        Node<K, V> find(K key, int hash) {
+            AtomicReferenceArray<Node<K, V>> t = table;
+            Node<K, V> e = t.get(hash & (t.length() - 1));
+            while (e != null) {
+                if (e.hash == hash && e.key.equals(key)) {
+                    return e;
+                }
+                e = e.next;
+            }
+            return null;
+        }
+
+        /** Adds a node for a key that is not in this segment. Call with the lock held. */
+        void insert(K key, int hash, V value) {
+            AtomicReferenceArray<Node<K, V>> t = table;
+            if (count + 1 > MAX_LF * t.length()) {
+                t = resize(t);
+            }
+            int i = hash & (t.length() - 1);
+            t.set(i, new Node<>(hash, key, value, t.get(i)));
+            count += 1;
+        }
+
+        /**
+         * Publishes a table twice the size, holding copies of all nodes. Readers that
+         * are still in the old table keep following the old, unchanged chains.
+         */
+        private AtomicReferenceArray<Node<K, V>> resize(AtomicReferenceArray<Node<K, V>> old) {
+            int capacity = old.length() * 2;
+            AtomicReferenceArray<Node<K, V>> t = new AtomicReferenceArray<>(capacity);
+            for (int j = 0; j < old.length(); j += 1) {
+                for (Node<K, V> e = old.get(j); e != null; e = e.next) {
+                    int i = e.hash & (capacity - 1);
+                    t.set(i, new Node<>(e.hash, e.key, e.value, t.get(i)));
+                }
+            }
+            table = t;
+            return t;
+        }
+
+        /** Unlinks the node for key, if its value matches. Call with the lock held. */
+        V remove(K key, int hash, V value, boolean matchValue) {
+            AtomicReferenceArray<Node<K, V>> t = table;
+            int i = hash & (t.length() - 1);
+            Node<K, V> prev = null;
+            for (Node<K, V> e = t.get(i); e != null; prev = e, e = e.next) {
+                if (e.hash == hash && e.key.equals(key)) {
+                    V old = e.value;
+                    if (matchValue && !old.equals(value)) {
+                        return null;
+                    }
+                    if (prev == null) {
+                        t.set(i, e.next);
+                    } else {
+                        prev.next = e.next;
+                    }
+                    count -= 1;
+                    return old;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+
+    public StripedHashMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a map with at least numSegments segments, rounded up to a power of two.
+     * This bounds how many threads can write at once without waiting for each other.
+     */
+    public StripedHashMap(int numSegments) {
+        if (numSegments < 1 || numSegments > (1 << 16)) {
+            throw new IllegalArgumentException("Need between 1 and 65536 segments.");
+        }
+        int n = numSegments == 1 ? 1 : Integer.highestOneBit(numSegments - 1) << 1;
+        segments = (Segment<K, V>[]) new Segment[n];
+        for (int i = 0; i < n; i += 1) {
+            segments[i] = new Segment<>(DEFAULT_SEGMENT_SIZE);
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    /**
+     * Computes the hash function of the given key: the key's hash code, mixed with
+     * MurmurHash3's finalizer so that every bit of the result depends on every bit of
+     * the hash code. The top bits choose the segment and the bottom bits the bin.
+     */
+    private static int hash(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed.");
+        }
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        // A shift by 32 is a shift by 0 in Java, so a single segment is special
+        return segmentShift == 32 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /* Removes all of the mappings from this map. Each segment is emptied atomically,
+     * but puts to other segments may happen while this runs. */
+    @Override
+    public void clear() {
+        for (Segment<K, V> s : segments) {
+            s.lock();
+            try {
+                s.table = new AtomicReferenceArray<>(DEFAULT_SEGMENT_SIZE);
+                s.count = 0;
+            } finally {
+                s.unlock();
+            }
+        }
+    }
+
+    /* Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key. Never blocks.
+     */
+    @Override
+    public V get(K key) {
+        int h = hash(key);
+        Node<K, V> e = segmentFor(h).find(key, h);
+        return e == null ? null : e.value;
+    }
+
+    /* Associates the specified value with the specified key in this map. */
+    @Override
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values not allowed.");
+        }
+        int h = hash(key);
+        Segment<K, V> s = segmentFor(h);
+        s.lock();
+        try {
+            Node<K, V> e = s.find(key, h);
+            if (e != null) {
+                e.value = value;
+            } else {
+                s.insert(key, h, value);
+            }
+        } finally {
+            s.unlock();
+        }
+    }
+
+    /**
+     * Returns the value for key, first computing it with mappingFunction and adding
+     * it if key has no value. The whole operation is atomic: however many threads
+     * call this for the same absent key at once, mappingFunction is called once and
+     * they all get the value it returned. If it returns null, nothing is added.
+     * Only the key's segment is locked, and only if the key is absent, so the
+     * function should be short and must not modify this map.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int h = hash(key);
+        Segment<K, V> s = segmentFor(h);
+        Node<K, V> e = s.find(key, h);
+        if (e != null) {
+            return e.value;
+        }
+        s.lock();
+        try {
+            e = s.find(key, h);
+            if (e != null) {
+                return e.value;
+            }
+            V value = mappingFunction.apply(key);
+            if (value != null) {
+                s.insert(key, h, value);
+            }
+            return value;
+        } finally {
+            s.unlock();
+        }
+    }
+
+    /* Returns the number of key-value mappings in this map. */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> s : segments) {
+            size += s.count;
+        }
+        return size;
+    }
+
+    //////////////// EVERYTHING BELOW THIS LINE IS OPTIONAL ////////////////
+
+    /* Returns a Set view of the keys contained in this map. */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keyset = new HashSet<>();
+        for (K key : this) {
+            keyset.add(key);
+        }
+        return keyset;
+    }
+
+    /* Removes the mapping for the specified key from this map if exists. */
+    @Override
+    public V remove(K key) {
+        return remove(key, null, false);
+    }
+
+    /* Removes the entry for the specified key only if it is currently mapped to
+     * the specified value. */
+    @Override
+    public V remove(K key, V value) {
+        return remove(key, value, true);
+    }
+
+    private V remove(K key, V value, boolean matchValue) {
+        int h = hash(key);
+        Segment<K, V> s = segmentFor(h);
+        s.lock();
+        try {
+            return s.remove(key, h, value, matchValue);
+        } finally {
+            s.unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the keys of this map. It never throws
+     * ConcurrentModificationException, returns each key at most once, and may or may
+     * not reflect writes made while iterating.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private int segment = -1;
+        private AtomicReferenceArray<Node<K, V>> table;
+        private int bin;
+        private Node<K, V> next;
+
+        KeyIterator() {
+            advance();
+        }
+
+        /** Moves next to the following node, moving through bins and then segments. */
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null) {
+                if (table == null || bin == table.length()) {
+                    segment += 1;
+                    if (segment == segments.length) {
+                        return;
+                    }
+                    table = segments[segment].table;
+                    bin = 0;
+                } else {
+                    next = table.get(bin);
+                    bin += 1;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            advance();
+            return key;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package lab9tester;
+
+import lab9.IntObjectHashMap;
+import lab9.LongDoubleHashMap;
+import lab9.LongIntHashMap;
+import lab9.MyHashMap;
+
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap used per entry by the primitive-specialised maps and by the
+ * boxed maps they replace, for keys that look like OSM node ids. The numbers are
+ * taken from Runtime after forcing garbage collection, so they are approximate;
+ * run with a fixed heap, e.g. java -Xms2g -Xmx2g lab9tester.MemoryTestPrimitiveMaps.
+ */
+public class MemoryTestPrimitiveMaps {
+    private static final int N = 1000000;
+    /* OSM node ids are large and sparse, so boxed keys are never cached. */
+    private static final long FIRST_ID = 4000000000L;
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Prints the bytes per entry of the map built by build, which it keeps alive. */
+    private static void measure(String name, Supplier<Object> build) {
+        long before = usedMemory();
+        Object map = build.get();
+        long after = usedMemory();
+        System.out.printf("%-36s %6.1f bytes/entry%n", name, (double) (after - before) / N);
+        if (map.hashCode() == 0) {
+            System.out.print(""); // keeps map reachable until after the measurement
+        }
+    }
+
+    public static void main(String[] args) {
+        measure("HashMap<Long, Integer>", () -> {
+            HashMap<Long, Integer> m = new HashMap<>();
+            for (int i = 0; i < N; i++) {
+                m.put(FIRST_ID + 7L * i, i + 1000);
+            }
+            return m;
+        });
+        measure("MyHashMap<Long, Integer>", () -> {
+            MyHashMap<Long, Integer> m = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                m.put(FIRST_ID + 7L * i, i + 1000);
+            }
+            return m;
+        });
+        measure("LongIntHashMap", () -> {
+            LongIntHashMap m = new LongIntHashMap();
+            for (int i = 0; i < N; i++) {
+                m.put(FIRST_ID + 7L * i, i + 1000);
+            }
+            return m;
+        });
+        measure("HashMap<Long, Double>", () -> {
+            HashMap<Long, Double> m = new HashMap<>();
+            for (int i = 0; i < N; i++) {
+                m.put(FIRST_ID + 7L * i, i * 0.5);
+            }
+            return m;
+        });
+        measure("LongDoubleHashMap", () -> {
+            LongDoubleHashMap m = new LongDoubleHashMap();
+            for (int i = 0; i < N; i++) {
+                m.put(FIRST_ID + 7L * i, i * 0.5);
+            }
+            return m;
+        });
+        /* Values are shared, so only the cost of the map and its keys is counted. */
+        String value = "value";
+        measure("HashMap<Integer, String>", () -> {
+            HashMap<Integer, String> m = new HashMap<>();
+            for (int i = 0; i < N; i++) {
+                m.put(i + 1000, value);
+            }
+            return m;
+        });
+        measure("IntObjectHashMap<String>", () -> {
+            IntObjectHashMap<String> m = new IntObjectHashMap<>();
+            for (int i = 0; i < N; i++) {
+                m.put(i + 1000, value);
+            }
+            return m;
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package lab9tester;
+
+import lab9.StripedHashMap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of StripedHashMap against a synchronized HashMap and
+ * java.util.concurrent.ConcurrentHashMap, with 1, 2, 4, ... threads up to the
+ * number of available cores. Each thread runs a read-mostly mix (90% get, 9% put,
+ * 1% remove) over a shared, pre-filled key space for a fixed time.
+ * Run with e.g. java -Xmx2g lab9tester.SpeedTestConcurrentMaps.
+ */
+public class SpeedTestConcurrentMaps {
+    private static final int KEYS = 1 << 20;
+    private static final long RUN_MILLIS = 2000;
+
+    /* The operations of the benchmark, on any of the maps. */
+    private interface Ops {
+        Integer get(Integer key);
+        void put(Integer key, Integer value);
+        Integer remove(Integer key);
+    }
+
+    private static Ops striped() {
+        StripedHashMap<Integer, Integer> m = new StripedHashMap<>(64);
+        return new Ops() {
+            public Integer get(Integer key) {
+                return m.get(key);
+            }
+
+            public void put(Integer key, Integer value) {
+                m.put(key, value);
+            }
+
+            public Integer remove(Integer key) {
+                return m.remove(key);
+            }
+        };
+    }
+
+    private static Ops of(Map<Integer, Integer> m) {
+        return new Ops() {
+            public Integer get(Integer key) {
+                return m.get(key);
+            }
+
+            public void put(Integer key, Integer value) {
+                m.put(key, value);
+            }
+
+            public Integer remove(Integer key) {
+                return m.remove(key);
+            }
+        };
+    }
+
+    /** Returns the millions of operations per second done by the given threads. */
+    private static double throughput(Ops m, Integer[] keys, int numThreads)
+            throws InterruptedException {
+        for (int i = 0; i < KEYS; i += 2) {
+            m.put(keys[i], i);
+        }
+        long[] counts = new long[numThreads * 16]; /* Padded to avoid false sharing */
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + RUN_MILLIS * 1000000;
+                long ops = 0;
+                while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+                    Integer key = keys[random.nextInt(KEYS)];
+                    int op = random.nextInt(100);
+                    if (op < 90) {
+                        m.get(key);
+                    } else if (op < 99) {
+                        m.put(key, op);
+                    } else {
+                        m.remove(key);
+                    }
+                    ops += 1;
+                }
+                counts[id * 16] = ops;
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total / (RUN_MILLIS * 1000.0);
+    }
+
+    private static void measure(String name, java.util.function.Supplier<Ops> maps,
+                                Integer[] keys, int maxThreads) throws InterruptedException {
+        throughput(maps.get(), keys, maxThreads); // warm up
+        StringBuilder line = new StringBuilder(String.format("%-26s", name));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            line.append(String.format("%8.1f", throughput(maps.get(), keys, threads)));
+        }
+        System.out.println(line);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        Integer[] keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i * 31;
+        }
+        StringBuilder header = new StringBuilder(String.format("%-26s", "Mops/s by threads"));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            header.append(String.format("%8d", threads));
+        }
+        System.out.println(header);
+        measure("StripedHashMap", SpeedTestConcurrentMaps::striped, keys, maxThreads);
+        measure("synchronized HashMap",
+            () -> of(Collections.synchronizedMap(new HashMap<>())), keys, maxThreads);
+        measure("ConcurrentHashMap", () -> of(new ConcurrentHashMap<>()), keys, maxThreads);
+    }
+}
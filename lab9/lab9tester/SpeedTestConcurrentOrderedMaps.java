@@ -0,0 +1,192 @@
+package lab9tester;
+
+import lab9.BSTMap;
+import lab9.LockFreeSkipListMap;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures the throughput of LockFreeSkipListMap against a red-black BSTMap behind
+ * one global lock, and java.util.concurrent.ConcurrentSkipListMap, with 1, 2, 4, ...
+ * threads up to the number of available cores. Each thread runs a mixed workload
+ * (60% get, 20% floor, 10% put, 10% remove) over a shared key space, half full,
+ * for a fixed time.
+ * Run with e.g. java -Xmx2g lab9tester.SpeedTestConcurrentOrderedMaps.
+ */
+public class SpeedTestConcurrentOrderedMaps {
+    private static final int KEYS = 1 << 20;
+    private static final long RUN_MILLIS = 2000;
+
+    /* The operations of the benchmark, on any of the maps. */
+    private interface Ops {
+        Integer get(Integer key);
+        Integer floor(Integer key);
+        void put(Integer key, Integer value);
+        Integer remove(Integer key);
+    }
+
+    private static Ops skipList() {
+        LockFreeSkipListMap<Integer, Integer> m = new LockFreeSkipListMap<>();
+        return new Ops() {
+            public Integer get(Integer key) {
+                return m.get(key);
+            }
+
+            public Integer floor(Integer key) {
+                return m.floor(key);
+            }
+
+            public void put(Integer key, Integer value) {
+                m.put(key, value);
+            }
+
+            public Integer remove(Integer key) {
+                return m.remove(key);
+            }
+        };
+    }
+
+    private static Ops lockedBST() {
+        BSTMap<Integer, Integer> m = new BSTMap<>();
+        ReentrantLock lock = new ReentrantLock();
+        return new Ops() {
+            public Integer get(Integer key) {
+                lock.lock();
+                try {
+                    return m.get(key);
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public Integer floor(Integer key) {
+                lock.lock();
+                try {
+                    return m.floor(key);
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public void put(Integer key, Integer value) {
+                lock.lock();
+                try {
+                    m.put(key, value);
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public Integer remove(Integer key) {
+                lock.lock();
+                try {
+                    return m.remove(key);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    private static Ops jdkSkipList() {
+        ConcurrentSkipListMap<Integer, Integer> m = new ConcurrentSkipListMap<>();
+        return new Ops() {
+            public Integer get(Integer key) {
+                return m.get(key);
+            }
+
+            public Integer floor(Integer key) {
+                return m.floorKey(key);
+            }
+
+            public void put(Integer key, Integer value) {
+                m.put(key, value);
+            }
+
+            public Integer remove(Integer key) {
+                return m.remove(key);
+            }
+        };
+    }
+
+    /** Returns the millions of operations per second done by the given threads. */
+    private static double throughput(Ops m, Integer[] keys, int numThreads)
+            throws InterruptedException {
+        for (int i = 0; i < KEYS; i += 2) {
+            m.put(keys[i], i);
+        }
+        long[] counts = new long[numThreads * 16]; /* Padded to avoid false sharing */
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + RUN_MILLIS * 1000000;
+                long ops = 0;
+                while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+                    Integer key = keys[random.nextInt(KEYS)];
+                    int op = random.nextInt(100);
+                    if (op < 60) {
+                        m.get(key);
+                    } else if (op < 80) {
+                        m.floor(key);
+                    } else if (op < 90) {
+                        m.put(key, op);
+                    } else {
+                        m.remove(key);
+                    }
+                    ops += 1;
+                }
+                counts[id * 16] = ops;
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total / (RUN_MILLIS * 1000.0);
+    }
+
+    private static void measure(String name, java.util.function.Supplier<Ops> maps,
+                                Integer[] keys, int maxThreads) throws InterruptedException {
+        throughput(maps.get(), keys, maxThreads); // warm up
+        StringBuilder line = new StringBuilder(String.format("%-26s", name));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            line.append(String.format("%8.2f", throughput(maps.get(), keys, threads)));
+        }
+        System.out.println(line);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        Integer[] keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i * 31;
+        }
+        StringBuilder header = new StringBuilder(String.format("%-26s", "Mops/s by threads"));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            header.append(String.format("%8d", threads));
+        }
+        System.out.println(header);
+        measure("LockFreeSkipListMap", SpeedTestConcurrentOrderedMaps::skipList,
+            keys, maxThreads);
+        measure("BSTMap + global lock", SpeedTestConcurrentOrderedMaps::lockedBST,
+            keys, maxThreads);
+        measure("ConcurrentSkipListMap", SpeedTestConcurrentOrderedMaps::jdkSkipList,
+            keys, maxThreads);
+    }
+}
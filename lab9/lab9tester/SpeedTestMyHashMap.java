@@ -0,0 +1,113 @@
+package lab9tester;
+
+import lab9.MyHashMap;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Compares the speed of MyHashMap against java.util.HashMap on a few mixes of
+ * get, put and remove. Each mix is run several times to warm up the JIT before
+ * the last run is timed, and every run uses the same seeded sequence of keys.
+ * Run with a fixed heap, e.g. java -Xms1g -Xmx1g lab9tester.SpeedTestMyHashMap.
+ */
+public class SpeedTestMyHashMap {
+    private static final int N = 1000000;
+    private static final int OPS = 5000000;
+    private static final int WARMUP_RUNS = 3;
+
+    /* The operations of the benchmark, on either map. */
+    private interface Ops {
+        void put(Integer key, Integer value);
+        Integer get(Integer key);
+        Integer remove(Integer key);
+    }
+
+    private static Ops myHashMap() {
+        MyHashMap<Integer, Integer> m = new MyHashMap<>();
+        return new Ops() {
+            public void put(Integer key, Integer value) {
+                m.put(key, value);
+            }
+
+            public Integer get(Integer key) {
+                return m.get(key);
+            }
+
+            public Integer remove(Integer key) {
+                return m.remove(key);
+            }
+        };
+    }
+
+    private static Ops javaHashMap() {
+        HashMap<Integer, Integer> m = new HashMap<>();
+        return new Ops() {
+            public void put(Integer key, Integer value) {
+                m.put(key, value);
+            }
+
+            public Integer get(Integer key) {
+                return m.get(key);
+            }
+
+            public Integer remove(Integer key) {
+                return m.remove(key);
+            }
+        };
+    }
+
+    /**
+     * Fills a fresh map with N keys, then runs OPS operations with the given
+     * percentages of gets and puts, the rest being removes. Returns the elapsed
+     * time in milliseconds of the fill and the mix together.
+     */
+    private static double run(Ops m, Integer[] keys, int getPercent, int putPercent) {
+        Random random = new Random(61);
+        long start = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            m.put(keys[i], i);
+        }
+        long hits = 0;
+        for (int i = 0; i < OPS; i++) {
+            Integer key = keys[random.nextInt(keys.length)];
+            int op = random.nextInt(100);
+            if (op < getPercent) {
+                hits += m.get(key) == null ? 0 : 1;
+            } else if (op < getPercent + putPercent) {
+                m.put(key, i);
+            } else {
+                hits += m.remove(key) == null ? 0 : 1;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e6;
+        if (hits < 0) {
+            System.out.println(hits); // never happens; keeps the gets from being optimised away
+        }
+        return elapsed;
+    }
+
+    private static void compare(String name, Integer[] keys, int getPercent, int putPercent) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run(myHashMap(), keys, getPercent, putPercent);
+            run(javaHashMap(), keys, getPercent, putPercent);
+        }
+        double mine = run(myHashMap(), keys, getPercent, putPercent);
+        double java = run(javaHashMap(), keys, getPercent, putPercent);
+        System.out.printf("%-28s MyHashMap %8.1f ms   java.util.HashMap %8.1f ms%n",
+                name, mine, java);
+    }
+
+    public static void main(String[] args) {
+        // Twice as many distinct keys as are inserted, so half of all lookups miss
+        Random random = new Random(18);
+        Integer[] keys = new Integer[2 * N];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt();
+        }
+        compare("read heavy (90/5/5)", keys, 90, 5);
+        compare("balanced (50/25/25)", keys, 50, 25);
+        compare("write heavy (10/60/30)", keys, 10, 60);
+        compare("churn (0/50/50)", keys, 0, 50);
+    }
+}
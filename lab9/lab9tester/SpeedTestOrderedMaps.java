@@ -0,0 +1,144 @@
+package lab9tester;
+
+import lab9.BPlusTreeMap;
+import lab9.BSTMap;
+import lab9.EytzingerMap;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compares the speed of the ordered maps on read-mostly workloads: random point
+ * lookups, half of which miss, and short range scans. Every map holds the same N
+ * keys, and each workload is run several times to warm up the JIT before the last
+ * run is timed. Run with a fixed heap, e.g. java -Xmx2g lab9tester.SpeedTestOrderedMaps.
+ */
+public class SpeedTestOrderedMaps {
+    private static final int N = 1000000;
+    private static final int LOOKUPS = 5000000;
+    private static final int SCANS = 500000;
+    private static final int SCAN_WIDTH = 200; /* Range of key values per scan, ~100 keys */
+    private static final int WARMUP_RUNS = 3;
+
+    /* The operations of the benchmark, on any of the maps. */
+    private interface Ops {
+        Integer get(Integer key);
+        Iterable<Integer> range(Integer lo, Integer hi);
+    }
+
+    private static long lookups(Ops m, Integer[] probes) {
+        long hits = 0;
+        for (Integer key : probes) {
+            hits += m.get(key) == null ? 0 : 1;
+        }
+        return hits;
+    }
+
+    private static long scans(Ops m, Integer[] probes) {
+        long sum = 0;
+        for (int i = 0; i < SCANS; i++) {
+            int lo = probes[i];
+            for (int key : m.range(lo, lo + SCAN_WIDTH)) {
+                sum += key;
+            }
+        }
+        return sum;
+    }
+
+    private static void time(String name, Ops m, Integer[] probes) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            checksum += lookups(m, probes) + scans(m, probes);
+        }
+        long start = System.nanoTime();
+        checksum += lookups(m, probes);
+        double lookupMs = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        checksum += scans(m, probes);
+        double scanMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%-16s lookups %8.1f ms   range scans %8.1f ms   (checksum %d)%n",
+                name, lookupMs, scanMs, checksum % 1000);
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(34);
+        // Even keys only, so that probing with any integer misses half the time
+        Integer[] keys = new Integer[N];
+        Integer[] values = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = 2 * i;
+            values[i] = i;
+        }
+        Integer[] probes = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextInt(2 * N);
+        }
+        // Insert in random order, as a map built incrementally would be
+        Integer[] shuffled = keys.clone();
+        for (int i = N - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = tmp;
+        }
+
+        TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+        BSTMap<Integer, Integer> bstMap = new BSTMap<>();
+        BPlusTreeMap<Integer, Integer> bPlusTreeMap = new BPlusTreeMap<>();
+        for (Integer key : shuffled) {
+            treeMap.put(key, key / 2);
+            bstMap.put(key, key / 2);
+            bPlusTreeMap.put(key, key / 2);
+        }
+        BPlusTreeMap<Integer, Integer> bulkLoaded = new BPlusTreeMap<>(keys, values);
+        EytzingerMap<Integer, Integer> frozen = bulkLoaded.freeze();
+
+        time("TreeMap", new Ops() {
+            public Integer get(Integer key) {
+                return treeMap.get(key);
+            }
+
+            public Iterable<Integer> range(Integer lo, Integer hi) {
+                return treeMap.subMap(lo, true, hi, true).keySet();
+            }
+        }, probes);
+        time("BSTMap", new Ops() {
+            public Integer get(Integer key) {
+                return bstMap.get(key);
+            }
+
+            public Iterable<Integer> range(Integer lo, Integer hi) {
+                return bstMap.range(lo, hi);
+            }
+        }, probes);
+        time("BPlusTreeMap", new Ops() {
+            public Integer get(Integer key) {
+                return bPlusTreeMap.get(key);
+            }
+
+            public Iterable<Integer> range(Integer lo, Integer hi) {
+                return bPlusTreeMap.range(lo, hi);
+            }
+        }, probes);
+        time("B+ bulk loaded", new Ops() {
+            public Integer get(Integer key) {
+                return bulkLoaded.get(key);
+            }
+
+            public Iterable<Integer> range(Integer lo, Integer hi) {
+                return bulkLoaded.range(lo, hi);
+            }
+        }, probes);
+        time("EytzingerMap", new Ops() {
+            public Integer get(Integer key) {
+                return frozen.get(key);
+            }
+
+            public Iterable<Integer> range(Integer lo, Integer hi) {
+                return frozen.range(lo, hi);
+            }
+        }, probes);
+        System.out.printf("B+-tree levels: %d incremental, %d bulk loaded%n",
+                bPlusTreeMap.height(), bulkLoaded.height());
+    }
+}
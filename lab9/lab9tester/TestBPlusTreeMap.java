@@ -0,0 +1,148 @@
+package lab9tester;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import lab9.BPlusTreeMap;
+import lab9.EytzingerMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Tests for BPlusTreeMap and the EytzingerMap it freezes into.
+ */
+public class TestBPlusTreeMap {
+
+    //assumes put/size/containsKey/get work
+    @Test
+    public void sanityClearTest() {
+        BPlusTreeMap<String, Integer> b = new BPlusTreeMap<String, Integer>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, 1 + i);
+            assertTrue(b.get("hi" + i).equals(1 + i));
+            assertTrue(b.containsKey("hi" + i));
+        }
+        assertEquals(455, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        for (int i = 0; i < 455; i++) {
+            assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void rangeTest() {
+        BPlusTreeMap<Integer, String> b = new BPlusTreeMap<Integer, String>(4);
+        for (int i = 100; i > 0; i--) {
+            b.put(i * 10, "v" + i);
+        }
+        List<Integer> range = new ArrayList<>();
+        for (int key : b.range(205, 260)) {
+            range.add(key);
+        }
+        assertEquals(Arrays.asList(210, 220, 230, 240, 250, 260), range);
+        range.clear();
+        for (int key : b.range(995, 2000)) {
+            range.add(key);
+        }
+        assertEquals(Arrays.asList(1000), range);
+    }
+
+    @Test
+    public void bulkLoadTest() {
+        for (int n : new int[]{0, 1, 64, 65, 1000, 100000}) {
+            Integer[] keys = new Integer[n];
+            String[] values = new String[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = i * 3;
+                values[i] = "v" + i;
+            }
+            BPlusTreeMap<Integer, String> b = new BPlusTreeMap<>(keys, values);
+            assertEquals(n, b.size());
+            for (int i = 0; i < n; i++) {
+                assertEquals("v" + i, b.get(i * 3));
+                assertEquals(null, b.get(i * 3 + 1));
+            }
+            // the bulk loaded tree can be modified like any other
+            for (int i = 0; i < n; i += 2) {
+                assertEquals("v" + i, b.remove(i * 3));
+                b.put(i * 3 + 1, "w" + i);
+            }
+            assertEquals(n, b.size());
+        }
+    }
+
+    @Test
+    public void frozenTest() {
+        BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            b.put(i * 2, i);
+        }
+        EytzingerMap<Integer, Integer> frozen = b.freeze();
+        assertEquals(1000, frozen.size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i % 2 == 0 ? (Integer) (i / 2) : null, frozen.get(i));
+        }
+        assertEquals(10, (int) frozen.ceiling(9));
+        assertEquals(null, frozen.ceiling(1999));
+        List<Integer> keys = new ArrayList<>();
+        for (int key : frozen) {
+            keys.add(key);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int key : b) {
+            expected.add(key);
+        }
+        assertEquals(expected, keys);
+        List<Integer> range = new ArrayList<>();
+        for (int key : frozen.range(7, 15)) {
+            range.add(key);
+        }
+        assertEquals(Arrays.asList(8, 10, 12, 14), range);
+        try {
+            frozen.put(1, 1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /*
+     * Random mix of operations, checked against java.util.TreeMap. A small order
+     * makes splits, borrows and merges happen at every level.
+     */
+    @Test
+    public void randomizedTest() {
+        for (int order : new int[]{3, 4, 5, 64}) {
+            Random random = new Random(61);
+            BPlusTreeMap<Integer, Integer> b = new BPlusTreeMap<Integer, Integer>(order);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < 100000; i++) {
+                int key = random.nextInt(2000);
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    b.put(key, i);
+                    expected.put(key, i);
+                } else if (op < 9) {
+                    assertEquals(expected.remove(key), b.remove(key));
+                } else {
+                    assertEquals(expected.get(key), b.get(key));
+                }
+                assertEquals(expected.size(), b.size());
+            }
+            List<Integer> keys = new ArrayList<>();
+            for (int key : b) {
+                keys.add(key);
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), keys);
+        }
+    }
+
+    public static void main(String[] args) {
+        jh61b.junit.TestRunner.runTests(TestBPlusTreeMap.class);
+    }
+}
@@ -5,6 +5,12 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 import lab9.BSTMap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
 /**
  * Tests by Brendan Hu, Spring 2015, revised for 2018 by Josh Hug
  */
@@ -86,6 +92,93 @@ public class TestBSTMap {
         assertTrue(b.get("hi") != null);
     }
 
+    // sorted inserts must not degenerate into a linked list
+    @Test
+    public void sortedInsertHeightTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<Integer, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            b.put(i, i);
+        }
+        assertEquals(100000, b.size());
+        // a red-black tree of n nodes has height at most 2 lg(n + 1)
+        assertTrue(b.height() <= 2 * 17);
+    }
+
+    @Test
+    public void orderedOperationsTest() {
+        BSTMap<Integer, String> b = new BSTMap<Integer, String>();
+        for (int i = 10; i <= 100; i += 10) {
+            b.put(i, "v" + i);
+        }
+        assertEquals(10, (int) b.min());
+        assertEquals(100, (int) b.max());
+        assertEquals(30, (int) b.floor(35));
+        assertEquals(30, (int) b.floor(30));
+        assertEquals(null, b.floor(5));
+        assertEquals(40, (int) b.ceiling(35));
+        assertEquals(null, b.ceiling(105));
+        assertEquals(0, b.rank(10));
+        assertEquals(3, b.rank(35));
+        assertEquals(10, b.rank(1000));
+        for (int i = 0; i < b.size(); i++) {
+            assertEquals(i, b.rank(b.select(i)));
+        }
+        List<Integer> range = new ArrayList<>();
+        for (int key : b.range(25, 70)) {
+            range.add(key);
+        }
+        assertEquals(Arrays.asList(30, 40, 50, 60, 70), range);
+    }
+
+    @Test
+    public void fromSortedTest() {
+        Integer[] keys = new Integer[1000];
+        String[] values = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 3;
+            values[i] = "v" + i;
+        }
+        BSTMap<Integer, String> b = BSTMap.fromSorted(keys, values);
+        assertEquals(1000, b.size());
+        assertEquals(10, b.height()); // perfectly balanced: ceil(lg(1001))
+        assertEquals("v7", b.get(21));
+        assertEquals(null, b.get(22));
+        // the result is an ordinary red-black tree that can be modified
+        for (int i = 0; i < 3000; i += 2) {
+            b.put(i, "w" + i);
+        }
+        assertTrue(b.height() <= 2 * 12);
+    }
+
+    /* Random mix of operations, checked against java.util.TreeMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        BSTMap<Integer, Integer> b = new BSTMap<Integer, Integer>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op < 8) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                assertEquals(expected.get(key), b.get(key));
+                assertEquals(expected.floorKey(key), b.floor(key));
+                assertEquals(expected.ceilingKey(key), b.ceiling(key));
+                assertEquals(expected.headMap(key).size(), b.rank(key));
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int key : b) {
+            keys.add(key);
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
     public static void main(String[] args) {
         jh61b.junit.TestRunner.runTests(TestBSTMap.class);
     }
@@ -0,0 +1,185 @@
+package lab9tester;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import lab9.LockFreeSkipListMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for LockFreeSkipListMap, single-threaded against java.util.TreeMap and
+ * under concurrent writers.
+ */
+public class TestLockFreeSkipListMap {
+    private static final int THREADS = 8;
+
+    //assumes put/size/containsKey/get work
+    @Test
+    public void sanityClearTest() {
+        LockFreeSkipListMap<String, Integer> b = new LockFreeSkipListMap<String, Integer>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, 1);
+            assertTrue(null != b.get("hi" + i) && b.containsKey("hi" + i));
+        }
+        assertEquals(455, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        for (int i = 0; i < 455; i++) {
+            assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putIfAbsentTest() {
+        LockFreeSkipListMap<String, Integer> b = new LockFreeSkipListMap<>();
+        assertNull(b.putIfAbsent("a", 1));
+        assertEquals(1, (int) b.putIfAbsent("a", 2));
+        assertEquals(1, (int) b.get("a"));
+        assertNull(b.remove("a", 2));
+        assertEquals(1, (int) b.remove("a", 1));
+        assertEquals(0, b.size());
+    }
+
+    /* Random mix of operations, including the ordered ones, checked against TreeMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        LockFreeSkipListMap<Integer, Integer> b = new LockFreeSkipListMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op < 6) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else if (op < 7) {
+                assertEquals(expected.get(key), b.get(key));
+            } else if (op < 8) {
+                assertEquals(expected.floorKey(key), b.floor(key));
+            } else if (op < 9) {
+                assertEquals(expected.ceilingKey(key), b.ceiling(key));
+            } else {
+                int hi = key + random.nextInt(100);
+                List<Integer> actual = new ArrayList<>();
+                for (int k : b.subMap(key, hi)) {
+                    actual.add(k);
+                }
+                assertEquals(new ArrayList<>(expected.subMap(key, hi).keySet()), actual);
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int k : b) {
+            keys.add(k);
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    /** Runs task(t) on THREADS threads at once, for t from 0, and waits for them all. */
+    private static void runConcurrently(java.util.function.IntConsumer task)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.accept(id);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+
+    /*
+     * Threads own interleaved keys (key % THREADS == thread), so their writes are
+     * neighbours in the list, and check floor and ceiling around keys they own.
+     */
+    @Test
+    public void concurrentWritersTest() throws InterruptedException {
+        LockFreeSkipListMap<Integer, Integer> b = new LockFreeSkipListMap<>();
+        int perThread = 20000;
+        runConcurrently(t -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = i * THREADS + t;
+                b.put(key, i);
+                b.put(key, -i);
+                assertEquals(key, (int) b.floor(key));
+                assertEquals(key, (int) b.ceiling(key));
+                if (i % 3 == 0) {
+                    assertEquals(-i, (int) b.remove(key));
+                    assertNull(b.get(key));
+                }
+            }
+        });
+        int expectedSize = 0;
+        int previous = Integer.MIN_VALUE;
+        for (int key : b) {
+            assertTrue(key > previous);
+            previous = key;
+            expectedSize += 1;
+        }
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < perThread; i++) {
+                Integer expected = i % 3 == 0 ? null : -i;
+                assertEquals(expected, b.get(i * THREADS + t));
+            }
+        }
+        assertEquals(expectedSize, b.size());
+        assertEquals(THREADS * (perThread - (perThread + 2) / 3), b.size());
+    }
+
+    /* All threads put and remove the same small set of keys; the map must stay sorted
+     * and its size must match its contents once they are done. */
+    @Test
+    public void contendedKeysTest() throws InterruptedException {
+        LockFreeSkipListMap<Integer, Integer> b = new LockFreeSkipListMap<>();
+        runConcurrently(t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(64);
+                if (random.nextBoolean()) {
+                    b.put(key, key);
+                } else {
+                    b.remove(key);
+                }
+                Integer value = b.get(key);
+                assertTrue(value == null || value == key);
+            }
+        });
+        int count = 0;
+        int previous = -1;
+        for (int key : b) {
+            assertTrue(key > previous);
+            assertEquals(key, (int) b.get(key));
+            previous = key;
+            count += 1;
+        }
+        assertEquals(count, b.size());
+    }
+
+    public static void main(String[] args) {
+        jh61b.junit.TestRunner.runTests(TestLockFreeSkipListMap.class);
+    }
+}
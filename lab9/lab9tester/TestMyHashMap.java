@@ -5,6 +5,11 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 import lab9.MyHashMap;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
 /**
  * Tests by Brendan Hu, Spring 2015, revised for 2018 by Josh Hug
  */
@@ -127,6 +132,102 @@ public class TestMyHashMap {
         assertEquals(studentIDs.get("evil alan"), studentIDs.get("alan"));
     }
 
+    // assumes put/get work
+    @Test
+    public void removeTest() {
+        MyHashMap<String, Integer> b = new MyHashMap<String, Integer>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(null, b.remove("bye"));
+        assertEquals(null, b.remove("hi3", 4));
+        assertEquals(3, (int) b.remove("hi3", 3));
+        for (int i = 0; i < 455; i += 2) {
+            assertEquals(i, (int) b.remove("hi" + i));
+        }
+        assertEquals(455 - 228 - 1, b.size());
+        for (int i = 0; i < 455; i++) {
+            boolean removed = i % 2 == 0 || i == 3;
+            assertEquals(!removed, b.containsKey("hi" + i));
+        }
+    }
+
+    /* Keys whose hash codes all collide form one long cluster. */
+    private static class BadKey {
+        final int value;
+
+        BadKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BadKey && ((BadKey) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Test
+    public void collidingKeysTest() {
+        MyHashMap<BadKey, Integer> b = new MyHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            b.put(new BadKey(i), i);
+        }
+        for (int i = 0; i < 200; i += 3) {
+            assertEquals(i, (int) b.remove(new BadKey(i)));
+        }
+        for (int i = 0; i < 200; i++) {
+            Integer expected = i % 3 == 0 ? null : i;
+            assertEquals(expected, b.get(new BadKey(i)));
+        }
+    }
+
+    @Test
+    public void iteratorTest() {
+        MyHashMap<Integer, Integer> b = new MyHashMap<>();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            b.put(i * 7, i);
+            expected.add(i * 7);
+        }
+        Set<Integer> actual = new HashSet<>();
+        for (int key : b) {
+            actual.add(key);
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected, b.keySet());
+    }
+
+    /*
+     * Random mix of operations, checked against java.util.HashMap. Small keys make
+     * many operations hit existing keys, including keys still in the old table
+     * during an incremental resize.
+     */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyHashMap<Integer, Integer> b = new MyHashMap<>(1);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op < 8) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                assertEquals(expected.get(key), b.get(key));
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        assertEquals(expected.keySet(), b.keySet());
+    }
+
     public static void main(String[] args) {
         jh61b.junit.TestRunner.runTests(TestMyHashMap.class);
     }
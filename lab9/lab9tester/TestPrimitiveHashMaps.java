@@ -0,0 +1,119 @@
+package lab9tester;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import lab9.IntObjectHashMap;
+import lab9.LongDoubleHashMap;
+import lab9.LongIntHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for the primitive-specialised hash maps.
+ */
+public class TestPrimitiveHashMaps {
+
+    // 0 and the extremes must be ordinary keys, since emptiness is kept in a bitset
+    @Test
+    public void unusualKeysTest() {
+        LongIntHashMap b = new LongIntHashMap();
+        long[] keys = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (int i = 0; i < keys.length; i++) {
+            assertFalse(b.containsKey(keys[i]));
+            b.put(keys[i], i + 10);
+        }
+        assertEquals(4, b.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertTrue(b.containsKey(keys[i]));
+            assertEquals(i + 10, b.get(keys[i]));
+        }
+        assertEquals(-5, b.getOrDefault(42, -5));
+        assertEquals(0, b.get(42));
+        assertTrue(b.remove(0));
+        assertFalse(b.containsKey(0));
+        assertFalse(b.remove(0));
+    }
+
+    @Test
+    public void removeValueTest() {
+        LongDoubleHashMap b = new LongDoubleHashMap();
+        b.put(7, 0.5);
+        assertFalse(b.remove(7, 0.25));
+        assertTrue(b.containsKey(7));
+        assertTrue(b.remove(7, 0.5));
+        assertEquals(0, b.size());
+
+        IntObjectHashMap<String> c = new IntObjectHashMap<>();
+        c.put(7, "seven");
+        assertEquals(null, c.remove(7, "eight"));
+        assertEquals("seven", c.remove(7, "seven"));
+        assertEquals(0, c.size());
+    }
+
+    @Test
+    public void clearTest() {
+        LongIntHashMap b = new LongIntHashMap();
+        for (int i = 0; i < 455; i++) {
+            b.put(i, i);
+        }
+        b.clear();
+        assertEquals(0, b.size());
+        for (int i = 0; i < 455; i++) {
+            assertFalse(b.containsKey(i));
+        }
+    }
+
+    @Test
+    public void forEachTest() {
+        LongDoubleHashMap b = new LongDoubleHashMap(1);
+        Map<Long, Double> expected = new HashMap<>();
+        for (long i = 0; i < 1000; i++) {
+            b.put(i * 1000003, i / 2.0);
+            expected.put(i * 1000003, i / 2.0);
+        }
+        Map<Long, Double> actual = new HashMap<>();
+        b.forEach((key, value) -> actual.put(key, value));
+        assertEquals(expected, actual);
+        assertEquals(1000, b.keys().length);
+    }
+
+    /* Random mix of operations on all three maps, checked against java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        LongIntHashMap a = new LongIntHashMap();
+        LongDoubleHashMap b = new LongDoubleHashMap();
+        IntObjectHashMap<Integer> c = new IntObjectHashMap<>();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000) - 2500;
+            int op = random.nextInt(10);
+            if (op < 5) {
+                a.put(key, i);
+                b.put(key, i);
+                c.put(key, i);
+                expected.put(key, i);
+            } else if (op < 8) {
+                boolean present = expected.remove(key) != null;
+                assertEquals(present, a.remove(key));
+                assertEquals(present, b.remove(key));
+                assertEquals(present, c.remove(key) != null);
+            } else {
+                Integer value = expected.get(key);
+                assertEquals(value == null ? -1 : value, a.getOrDefault(key, -1));
+                assertEquals(value == null ? -1 : value, b.getOrDefault(key, -1), 0);
+                assertEquals(value, c.get(key));
+            }
+            assertEquals(expected.size(), a.size());
+            assertEquals(expected.size(), b.size());
+            assertEquals(expected.size(), c.size());
+        }
+    }
+
+    public static void main(String[] args) {
+        jh61b.junit.TestRunner.runTests(TestPrimitiveHashMaps.class);
+    }
+}
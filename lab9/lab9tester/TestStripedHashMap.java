@@ -0,0 +1,148 @@
+package lab9tester;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import lab9.StripedHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for StripedHashMap, single-threaded and under concurrent writers.
+ */
+public class TestStripedHashMap {
+    private static final int THREADS = 8;
+
+    //assumes put/size/containsKey/get work
+    @Test
+    public void sanityClearTest() {
+        StripedHashMap<String, Integer> b = new StripedHashMap<String, Integer>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, 1);
+            assertTrue(null != b.get("hi" + i) && b.containsKey("hi" + i));
+        }
+        assertEquals(455, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        for (int i = 0; i < 455; i++) {
+            assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    /* Random mix of operations, checked against java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        for (int numSegments : new int[]{1, 16}) {
+            Random random = new Random(61);
+            StripedHashMap<Integer, Integer> b = new StripedHashMap<>(numSegments);
+            HashMap<Integer, Integer> expected = new HashMap<>();
+            for (int i = 0; i < 100000; i++) {
+                int key = random.nextInt(5000);
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    b.put(key, i);
+                    expected.put(key, i);
+                } else if (op < 8) {
+                    assertEquals(expected.remove(key), b.remove(key));
+                } else {
+                    assertEquals(expected.get(key), b.get(key));
+                }
+                assertEquals(expected.size(), b.size());
+            }
+            assertEquals(expected.keySet(), b.keySet());
+        }
+    }
+
+    /** Runs task(t) on THREADS threads at once, for t from 0, and waits for them all. */
+    private static void runConcurrently(java.util.function.IntConsumer task)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.accept(id);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+
+    /*
+     * Each thread puts, overwrites and removes its own keys while every segment
+     * resizes many times under it, and reads other threads' keys throughout.
+     */
+    @Test
+    public void concurrentWritersTest() throws InterruptedException {
+        StripedHashMap<Integer, Integer> b = new StripedHashMap<>(4);
+        int perThread = 20000;
+        runConcurrently(t -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = t * perThread + i;
+                b.put(key, i);
+                b.put(key, -i);
+                if (i % 3 == 0) {
+                    assertEquals(-i, (int) b.remove(key));
+                }
+                Integer other = b.get((t + 1) % THREADS * perThread + i);
+                assertTrue(other == null || Math.abs(other) == i);
+            }
+        });
+        int expectedSize = 0;
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < perThread; i++) {
+                Integer expected = i % 3 == 0 ? null : -i;
+                assertEquals(expected, b.get(t * perThread + i));
+                expectedSize += expected == null ? 0 : 1;
+            }
+        }
+        assertEquals(expectedSize, b.size());
+    }
+
+    /* All threads race to compute the same keys; each must be computed exactly once. */
+    @Test
+    public void computeIfAbsentTest() throws InterruptedException {
+        StripedHashMap<Integer, Integer> b = new StripedHashMap<>();
+        AtomicInteger calls = new AtomicInteger();
+        int numKeys = 10000;
+        int[][] seen = new int[THREADS][numKeys];
+        runConcurrently(t -> {
+            for (int i = 0; i < numKeys; i++) {
+                seen[t][i] = b.computeIfAbsent(i, k -> calls.incrementAndGet());
+            }
+        });
+        assertEquals(numKeys, calls.get());
+        assertEquals(numKeys, b.size());
+        for (int i = 0; i < numKeys; i++) {
+            for (int t = 1; t < THREADS; t++) {
+                assertEquals(seen[0][i], seen[t][i]);
+            }
+        }
+        assertEquals(null, b.computeIfAbsent(-1, k -> null));
+        assertFalse(b.containsKey(-1));
+    }
+
+    public static void main(String[] args) {
+        jh61b.junit.TestRunner.runTests(TestStripedHashMap.class);
+    }
+}
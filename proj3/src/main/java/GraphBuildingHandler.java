@@ -36,6 +36,13 @@ public class GraphBuildingHandler extends DefaultHandler {
                     "residential", "living_street", "motorway_link", "trunk_link", "primary_link",
                     "secondary_link", "tertiary_link"));
 
+    /** Values of the oneway tag meaning traffic only flows in the order the way lists its nodes. */
+    private static final Set<String> ONEWAY_FORWARD = new HashSet<>(Arrays.asList
+            ("yes", "true", "1"));
+    /** Values of the oneway tag meaning traffic only flows against the order of the nodes. */
+    private static final Set<String> ONEWAY_REVERSE = new HashSet<>(Arrays.asList
+            ("-1", "reverse"));
+
     //  flags and GraphDB info that will be added at the </way> tag
     private String activeState = "";
     private Long nodeID;
@@ -45,6 +52,17 @@ public class GraphBuildingHandler extends DefaultHandler {
     private String wayName;
 
     private boolean isValidWay;
+    private String highwayType;
+    private String oneway; // value of the oneway tag, or null if absent
+    private boolean isRoundabout;
+
+    //  restriction relation info that will be added at the </relation> tag
+    private String relationType;
+    private String restrictionType;
+    private Long fromWay;
+    private Long viaNode;
+    private Long toWay;
+
     private final GraphDB g;
 
     /**
@@ -91,6 +109,15 @@ public class GraphBuildingHandler extends DefaultHandler {
             activeState = "way";
             wayID = Long.parseLong(attributes.getValue("id"));
         }
+        else if (qName.equals("relation")) {
+            /* Encountered a new <relation...> tag. Only turn restrictions are of interest. */
+            activeState = "relation";
+            relationType = null;
+            restrictionType = null;
+            fromWay = null;
+            viaNode = null;
+            toWay = null;
+        }
         else if (activeState.equals("way") && qName.equals("nd")) {
             /* Found a node within a way block.
             Add node to g.nodeStaging, a queue of nodes that is kept track of in the case
@@ -107,10 +134,38 @@ public class GraphBuildingHandler extends DefaultHandler {
             if (k.equals("highway") && ALLOWED_HIGHWAY_TYPES.contains(v)) {
                 // Set isValidWay flag for edge drawing & queue clearing at end.
                 isValidWay = true;
+                highwayType = v;
 
             } else if (k.equals("name")) {
                 // Note: not every way has a name
                 wayName = v;
+            } else if (k.equals("oneway")) {
+                oneway = v;
+            } else if (k.equals("junction") && v.equals("roundabout")) {
+                isRoundabout = true;
+            }
+        }
+        else if (activeState.equals("relation") && qName.equals("member")) {
+            /* A restriction relation has a from way, a via node and a to way. Restrictions
+            whose via is itself a way are rare and are ignored. */
+            String role = attributes.getValue("role");
+            String type = attributes.getValue("type");
+            long ref = Long.parseLong(attributes.getValue("ref"));
+            if (role.equals("from") && type.equals("way")) {
+                fromWay = ref;
+            } else if (role.equals("via") && type.equals("node")) {
+                viaNode = ref;
+            } else if (role.equals("to") && type.equals("way")) {
+                toWay = ref;
+            }
+        }
+        else if (activeState.equals("relation") && qName.equals("tag")) {
+            String k = attributes.getValue("k");
+            String v = attributes.getValue("v");
+            if (k.equals("type")) {
+                relationType = v;
+            } else if (k.equals("restriction") || k.equals("restriction:motorcar")) {
+                restrictionType = v;
             }
         }
         else if (activeState.equals("node") && qName.equals("tag") && attributes.getValue("k")
@@ -139,15 +194,20 @@ public class GraphBuildingHandler extends DefaultHandler {
         if (qName.equals("way")) {
             if (isValidWay) {
                 int numNodes = nodeStaging.size();
+                int direction = onewayDirection();
 
-                /* Connect current and next node both ways, updating curr and next pointers
-                each iteration, until staging queue is empty. */
+                /* Connect current and next node in each allowed direction, updating curr and
+                next pointers each iteration, until staging queue is empty. */
                 Long currNode = nodeStaging.poll();
                 g.nodes.get(currNode).way = wayID;
                 while (nodeStaging.peek() != null) {
                     Long nextNode = nodeStaging.peek();
-                    g.nodes.get(currNode).adjacent.add(nextNode);
-                    g.nodes.get(nextNode).adjacent.add(currNode);
+                    if (direction >= 0) {
+                        g.addEdge(currNode, nextNode, wayID);
+                    }
+                    if (direction <= 0) {
+                        g.addEdge(nextNode, currNode, wayID);
+                    }
 
                     // Set new value for currNode for next iteration
                     currNode = nodeStaging.poll();
@@ -162,7 +222,36 @@ public class GraphBuildingHandler extends DefaultHandler {
             } else {
                 nodeStaging.clear();
             }
+            highwayType = null;
+            oneway = null;
+            isRoundabout = false;
+        } else if (qName.equals("relation")) {
+            if ("restriction".equals(relationType) && restrictionType != null
+                    && fromWay != null && viaNode != null && toWay != null) {
+                if (restrictionType.startsWith("no_")) {
+                    g.addRestriction(viaNode, fromWay, toWay, false);
+                } else if (restrictionType.startsWith("only_")) {
+                    g.addRestriction(viaNode, fromWay, toWay, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns 1 if the current way may only be travelled in the order of its nodes, -1 if
+     * only in the reverse order, or 0 if it may be travelled both ways. Roundabouts and
+     * motorways are one-way unless tagged otherwise.
+     */
+    private int onewayDirection() {
+        if (oneway == null) {
+            boolean impliedOneway = isRoundabout || "motorway".equals(highwayType);
+            return impliedOneway ? 1 : 0;
+        } else if (ONEWAY_FORWARD.contains(oneway)) {
+            return 1;
+        } else if (ONEWAY_REVERSE.contains(oneway)) {
+            return -1;
         }
+        return 0;
     }
 
 }
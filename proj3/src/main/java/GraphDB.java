@@ -25,14 +25,48 @@ public class GraphDB {
         double lat;
         String name;
         boolean isLocation;
-        ArrayList<Long> adjacent;
+        ArrayList<Edge> edges; // outgoing edges only
+        int inDegree;
+        int component; // label of the strongly connected component containing this node
         long way;
         long id;
 
         Node(double lon, double lat) {
             this.lon = lon;
             this.lat = lat;
-            this.adjacent = new ArrayList<>();
+            this.edges = new ArrayList<>();
+        }
+    }
+
+    // Inner class for a directed road segment between two consecutive nodes of a way
+    public static class Edge {
+        final int id; // index of this edge in GraphDB.edges
+        final long from;
+        final long to;
+        final long way;
+        final double length;
+
+        Edge(int id, long from, long to, long way, double length) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.way = way;
+            this.length = length;
+        }
+    }
+
+    /* Inner class for a turn restriction at some via node, read from an OSM restriction
+    relation. A "no" restriction forbids turning from fromWay onto toWay; an "only"
+    restriction forbids turning from fromWay onto anything other than toWay. */
+    public static class Restriction {
+        final long fromWay;
+        final long toWay;
+        final boolean only;
+
+        Restriction(long fromWay, long toWay, boolean only) {
+            this.fromWay = fromWay;
+            this.toWay = toWay;
+            this.only = only;
         }
     }
 
@@ -52,21 +86,41 @@ public class GraphDB {
     HashMap<String, List<Map<String, Object>>> locations;
     HashMap<String, String> fullToCleanedName;
     HashMap<Long, Way> ways;
+    ArrayList<Edge> edges;
+    HashMap<Long, List<Restriction>> restrictions; // keyed by via node
     Set<Long> uncleanedNodes;
     KDTree kdTree;
+    TrafficOverlay traffic;
+    int[] componentSizes; // number of nodes in each component, indexed by label
+    int mainComponent;    // label of the largest component
     protected Trie trie;
 
     /**
      * Example constructor shows how to create and start an XML parser.
      * You do not need to modify this constructor, but you're welcome to do so.
+     * Nodes outside the largest strongly connected component are kept, but never snapped to.
      *
      * @param dbPath Path to the XML file to be parsed.
      */
     public GraphDB(String dbPath) {
+        this(dbPath, false);
+    }
+
+    /**
+     * Creates a graph from an XML file, optionally dropping every node that is not in
+     * the largest strongly connected component (e.g. parking lots and private roads that
+     * are not joined to the road network, or that one-way streets lead into but not out of).
+     *
+     * @param dbPath Path to the XML file to be parsed.
+     * @param dropSmallComponents Whether to remove nodes outside the largest component.
+     */
+    public GraphDB(String dbPath, boolean dropSmallComponents) {
         this.nodes = new HashMap<>();
         this.locations = new HashMap<>();
         this.fullToCleanedName = new HashMap<>();
         this.ways = new HashMap<>();
+        this.edges = new ArrayList<>();
+        this.restrictions = new HashMap<>();
         this.uncleanedNodes = new HashSet<>();
 
         try {
@@ -88,10 +142,15 @@ public class GraphDB {
         }
         // final step is to destroy all disconnected nodes or those that are not a location
         clean();
+        labelComponents();
+        if (dropSmallComponents) {
+            dropSmallComponents();
+        }
 
-        // After cleaning, make KDTree of nodes for nearest node searching
-        this.kdTree = new KDTree(nodes);
+        // After cleaning, make KDTree of main component nodes for nearest node searching
+        this.kdTree = new KDTree(mainComponentNodes());
         this.trie = buildTrie();
+        this.traffic = new TrafficOverlay(edges.size());
     }
 
     /**
@@ -141,12 +200,209 @@ public class GraphDB {
                 locationInfo.put("id", node.id);
                 locations.get(cleanedName).add(locationInfo);
             }
-            if (node.adjacent.isEmpty()) {
+            if (node.edges.isEmpty() && node.inDegree == 0) {
                 nodes.remove(nodeID);
             }
         }
     }
 
+    /**
+     * Labels each node with its strongly connected component, so that one-way streets
+     * are taken into account, using an iterative version of Tarjan's algorithm. Labels
+     * are dense from 0, and mainComponent is set to the label of the largest component.
+     * Tarjan's algorithm finishes a component only after every component it can reach,
+     * so whenever there is a route from v to w, component(v) >= component(w).
+     * Runs in theta(n + e) time.
+     */
+    private void labelComponents() {
+        // Number the nodes 0 to n - 1, using component to hold the number for now
+        int n = 0;
+        Node[] byNumber = new Node[nodes.size()];
+        for (Node node : nodes.values()) {
+            node.component = n;
+            byNumber[n] = node;
+            n += 1;
+        }
+        int[] pre = new int[n];      // preorder number, or -1 if not yet visited
+        int[] low = new int[n];      // least preorder number reachable through the subtree
+        int[] label = new int[n];    // component label, or -1 if not yet finished
+        int[] nextEdge = new int[n]; // index of the next outgoing edge to follow
+        int[] stack = new int[n];    // visited nodes whose component is not finished
+        int[] path = new int[n];     // nodes on the current depth-first path
+        Arrays.fill(pre, -1);
+        Arrays.fill(label, -1);
+        int count = 0;
+        int numComponents = 0;
+        List<Integer> sizes = new ArrayList<>();
+
+        for (int s = 0; s < n; s += 1) {
+            if (pre[s] != -1) {
+                continue;
+            }
+            int top = 0;
+            int depth = 0;
+            pre[s] = count;
+            low[s] = count;
+            count += 1;
+            stack[top++] = s;
+            path[depth++] = s;
+            while (depth > 0) {
+                int v = path[depth - 1];
+                List<Edge> out = byNumber[v].edges;
+                if (nextEdge[v] < out.size()) {
+                    int w = nodes.get(out.get(nextEdge[v]).to).component;
+                    nextEdge[v] += 1;
+                    if (pre[w] == -1) {
+                        pre[w] = count;
+                        low[w] = count;
+                        count += 1;
+                        stack[top++] = w;
+                        path[depth++] = w;
+                    } else if (label[w] == -1) {
+                        // w is still on the stack, so it is in v's component
+                        low[v] = Math.min(low[v], pre[w]);
+                    }
+                    continue;
+                }
+                depth -= 1;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == pre[v]) {
+                    // v is the root of a component: everything above it on the stack
+                    int size = 0;
+                    int w;
+                    do {
+                        w = stack[--top];
+                        label[w] = numComponents;
+                        size += 1;
+                    } while (w != v);
+                    sizes.add(size);
+                    numComponents += 1;
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i += 1) {
+            byNumber[i].component = label[i];
+        }
+        componentSizes = new int[numComponents];
+        mainComponent = 0;
+        for (int c = 0; c < numComponents; c += 1) {
+            componentSizes[c] = sizes.get(c);
+            if (componentSizes[c] > componentSizes[mainComponent]) {
+                mainComponent = c;
+            }
+        }
+    }
+
+    /**
+     * Removes all nodes outside the main component. One-way streets can lead from the
+     * main component into a dropped node, so edges into dropped nodes are taken off the
+     * remaining nodes' edge lists too. Edges stay in edges so that edge ids remain
+     * dense, but no edge that touches a dropped node can be reached from a remaining one.
+     */
+    private void dropSmallComponents() {
+        nodes.values().removeIf(node -> node.component != mainComponent);
+        for (Node node : nodes.values()) {
+            node.edges.removeIf(e -> !nodes.containsKey(e.to));
+        }
+        componentSizes = new int[]{componentSizes[mainComponent]};
+        for (Node node : nodes.values()) {
+            node.component = 0;
+        }
+        mainComponent = 0;
+    }
+
+    /** Returns the nodes of the main component, keyed by id. */
+    private Map<Long, Node> mainComponentNodes() {
+        Map<Long, Node> main = new HashMap<>();
+        for (Map.Entry<Long, Node> entry : nodes.entrySet()) {
+            if (entry.getValue().component == mainComponent) {
+                main.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return main;
+    }
+
+    /** Returns the label of the strongly connected component containing v. */
+    int component(long v) {
+        return nodes.get(v).component;
+    }
+
+    /** Returns true if v is in the largest strongly connected component. */
+    boolean inMainComponent(long v) {
+        return component(v) == mainComponent;
+    }
+
+    /**
+     * Returns true if v and w are in the same strongly connected component, in which
+     * case there are routes from v to w and back, ignoring turn restrictions.
+     */
+    boolean connected(long v, long w) {
+        return component(v) == component(w);
+    }
+
+    /**
+     * Returns false if there is certainly no route from v to w, since v's component
+     * was labelled before w's. If true, there may be a route, and there is one,
+     * ignoring turn restrictions, if v and w are connected.
+     */
+    boolean mayReach(long v, long w) {
+        return component(v) >= component(w);
+    }
+
+    /** Returns the number of strongly connected components. */
+    int numComponents() {
+        return componentSizes.length;
+    }
+
+    /**
+     * Adds a directed edge from v to w along the given way, and returns it.
+     * The edge's id is its index in edges, so edge ids are dense from 0 to numEdges() - 1.
+     */
+    Edge addEdge(long v, long w, long way) {
+        Edge e = new Edge(edges.size(), v, w, way, distance(v, w));
+        edges.add(e);
+        nodes.get(v).edges.add(e);
+        nodes.get(w).inDegree += 1;
+        return e;
+    }
+
+    /** Adds a turn restriction at the via node. */
+    void addRestriction(long via, long fromWay, long toWay, boolean only) {
+        restrictions.computeIfAbsent(via, k -> new ArrayList<>())
+                .add(new Restriction(fromWay, toWay, only));
+    }
+
+    /**
+     * Returns true if a route may continue from edge in onto edge out, where out leaves the
+     * node that in arrives at. Only nodes that are the via node of some restriction need
+     * to be looked at, so this is a single hash lookup for almost every node.
+     */
+    boolean turnAllowed(Edge in, Edge out) {
+        List<Restriction> atVia = restrictions.get(in.to);
+        if (atVia == null) {
+            return true;
+        }
+        for (Restriction r : atVia) {
+            if (r.fromWay != in.way) {
+                continue;
+            }
+            if (r.only && r.toWay != out.way) {
+                return false;
+            }
+            if (!r.only && r.toWay == out.way) {
+                /* A no_u_turn onto the same way only forbids doubling back. */
+                if (r.fromWay != r.toWay || out.to == in.from) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns an iterable of all vertex IDs in the graph.
      * @return An iterable of id's of all vertices in the graph.
@@ -156,12 +412,36 @@ public class GraphDB {
     }
 
     /**
-     * Returns ids of all vertices adjacent to v.
+     * Returns ids of all vertices adjacent to v, i.e. that can be reached from v along a
+     * single edge. One-way streets are only adjacent in their direction of travel.
      * @param v The id of the vertex we are looking adjacent to.
      * @return An iterable of the ids of the neighbors of v.
      */
     Iterable<Long> adjacent(long v) {
-        return nodes.get(v).adjacent;
+        List<Long> adjacent = new ArrayList<>();
+        for (Edge e : nodes.get(v).edges) {
+            adjacent.add(e.to);
+        }
+        return adjacent;
+    }
+
+    /**
+     * Returns the outgoing edges of v.
+     * @param v The id of the vertex.
+     * @return The directed edges leaving v.
+     */
+    List<Edge> edges(long v) {
+        return nodes.get(v).edges;
+    }
+
+    /** Returns the edge with the given id. */
+    Edge edge(int id) {
+        return edges.get(id);
+    }
+
+    /** Returns the number of directed edges in the graph. */
+    int numEdges() {
+        return edges.size();
     }
 
 
@@ -219,7 +499,10 @@ public class GraphDB {
     }
 
     /**
-     * Returns the vertex closest to the given longitude and latitude.
+     * Returns the vertex of the main component closest to the given longitude and latitude.
+     * Small components are never snapped to, so that a route cannot start or end in e.g.
+     * a parking lot that no road leads to, or one that one-way streets only lead into.
+     * Any two snapped vertices are thus connected, with routes both ways.
      *
      * @param lon The target longitude.
      * @param lat The target latitude.
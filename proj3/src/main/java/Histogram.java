@@ -0,0 +1,142 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed-memory histogram of non-negative long values, in the style of
+ * HdrHistogram. Values are bucketed log-linearly: every power of two range is split
+ * into SUB_BUCKETS equally sized sub-buckets, so any recorded value is reported with a
+ * relative error of at most 1 / SUB_BUCKETS (about 3%).
+ *
+ * Recording is a couple of atomic increments and never blocks, so many Spark worker
+ * threads can record into the same histogram without it becoming a contention point.
+ * Reads (percentiles, mean, etc.) are weakly consistent with concurrent recording.
+ */
+public class Histogram {
+    /** Number of bits used for the linear part of a bucket index. */
+    private static final int SUB_BUCKET_BITS = 5;
+    /** Number of linear sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Enough buckets to index any positive long. */
+    private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final long unitDivisor;
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Creates an empty histogram.
+     * @param name name used when reporting this histogram
+     * @param unit unit label used when reporting, e.g. "us"
+     * @param unitDivisor recorded values are divided by this when reporting, e.g. 1000
+     *                    to report values recorded in nanoseconds as microseconds
+     */
+    public Histogram(String name, String unit, long unitDivisor) {
+        this.name = name;
+        this.unit = unit;
+        this.unitDivisor = unitDivisor;
+        this.counts = new AtomicLongArray(NUM_BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /** Records a single value. Negative values are recorded as 0. */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+
+        long currMax = max.get();
+        while (value > currMax && !max.compareAndSet(currMax, value)) {
+            currMax = max.get();
+        }
+    }
+
+    /** Records the time elapsed since startNanos, a value previously read from System.nanoTime(). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the index of the bucket holding value. Values below 2 * SUB_BUCKETS map to
+     * themselves; above that, the highest SUB_BUCKET_BITS + 1 bits of the value are kept.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    /** Returns the largest value that maps to the bucket at index. */
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Returns the total number of recorded values. */
+    public long count() {
+        return count.sum();
+    }
+
+    /** Returns the mean of all recorded values, in reporting units. */
+    public double mean() {
+        long n = count.sum();
+        if (n == 0) {
+            return 0.0;
+        }
+        return (double) sum.sum() / n / unitDivisor;
+    }
+
+    /** Returns the largest recorded value, in reporting units. */
+    public double max() {
+        return (double) max.get() / unitDivisor;
+    }
+
+    /**
+     * Returns the value at the given percentile (0 to 100) in reporting units.
+     * The result is the upper bound of the bucket holding that percentile, capped at max.
+     */
+    public double percentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i += 1) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                long value = Math.min(highestValueInBucket(i), max.get());
+                return (double) value / unitDivisor;
+            }
+        }
+        return max();
+    }
+
+    /** Appends a single plain text line summarising this histogram to sb. */
+    void report(StringBuilder sb) {
+        sb.append(String.format("%s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p999=%.1f "
+                        + "max=%.1f unit=%s%n", name, count(), mean(), percentile(50),
+                percentile(90), percentile(99), percentile(99.9), max(), unit));
+    }
+}
@@ -5,6 +5,7 @@ import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.*;
+import java.util.function.IntSupplier;
 import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.IOException;
@@ -66,6 +67,22 @@ public class MapServer {
      **/
     private static final String[] REQUIRED_ROUTE_REQUEST_PARAMS = {"start_lat", "start_lon",
         "end_lat", "end_lon"};
+    /**
+     * Each traffic request to the server identifies a road segment by its edge id.<br>
+     * edge : id of the directed edge to penalise, close or reopen.
+     **/
+    private static final String[] REQUIRED_TRAFFIC_REQUEST_PARAMS = {"edge"};
+    /**
+     * Penalty requests also carry the factor to multiply the edge's weight by.<br>
+     * factor : weight multiplier, e.g. 2 doubles the cost of the edge.
+     **/
+    private static final String[] REQUIRED_PENALTY_REQUEST_PARAMS = {"edge", "factor"};
+    /**
+     * Route requests may also ask for alternative routes.<br>
+     * alternatives : optional, the number of routes wanted, at most MAX_ALTERNATIVES.
+     **/
+    private static final String OPTIONAL_ALTERNATIVES_PARAM = "alternatives";
+    private static final int MAX_ALTERNATIVES = 5;
 
     /**
      * The result of rastering must be a map containing all of the
@@ -113,39 +130,64 @@ public class MapServer {
         /* Define the raster endpoint for HTTP GET requests. I use anonymous functions to define
          * the request handlers. */
         get("/raster", (req, res) -> {
+            long requestStart = System.nanoTime();
             HashMap<String, Double> params =
                     getRequestParams(req, REQUIRED_RASTER_REQUEST_PARAMS);
+            Metrics.RASTER_PARSE.recordSince(requestStart);
             /* The png image is written to the ByteArrayOutputStream */
             ByteArrayOutputStream os = new ByteArrayOutputStream();
             /* getMapRaster() does almost all the work for this API call */
+            long stageStart = System.nanoTime();
             Map<String, Object> rasteredImgParams = rasterer.getMapRaster(params);
+            Metrics.RASTER_RASTERISE.recordSince(stageStart);
 
             boolean rasterSuccess = validateRasteredImgParams(rasteredImgParams);
 
             if (rasterSuccess) {
                 writeImagesToOutputStream(rasteredImgParams, os);
+                stageStart = System.nanoTime();
                 String encodedImage = Base64.getEncoder().encodeToString(os.toByteArray());
                 rasteredImgParams.put("b64_encoded_image_data", encodedImage);
+                Metrics.RASTER_BASE64.recordSince(stageStart);
             }
 
             /* Encode response to Json */
             Gson gson = new Gson();
-            return gson.toJson(rasteredImgParams);
+            String json = gson.toJson(rasteredImgParams);
+            Metrics.RASTER.recordSince(requestStart);
+            return json;
         });
 
         /* Define the routing endpoint for HTTP GET requests. */
         get("/route", (req, res) -> {
+            long requestStart = System.nanoTime();
             HashMap<String, Double> params =
                     getRequestParams(req, REQUIRED_ROUTE_REQUEST_PARAMS);
-            route = Router.shortestPath(graph, params.get("start_lon"), params.get("start_lat"),
-                    params.get("end_lon"), params.get("end_lat"));
+            Metrics.ROUTE_PARSE.recordSince(requestStart);
+            int numRoutes = getAlternativesParam(req);
+            List<List<Long>> routes = Router.alternativePaths(graph, params.get("start_lon"),
+                    params.get("start_lat"), params.get("end_lon"), params.get("end_lat"),
+                    numRoutes);
+            route = routes.isEmpty() ? new LinkedList<>() : routes.get(0);
             String directions = getDirectionsText();
             Map<String, Object> routeParams = new HashMap<>();
             routeParams.put("routing_success", !route.isEmpty());
+            if (numRoutes > 1) {
+                List<Map<String, Object>> alternatives = new ArrayList<>();
+                for (List<Long> r : routes) {
+                    Map<String, Object> alternative = new HashMap<>();
+                    alternative.put("route", r);
+                    alternative.put("distance", routeDistance(r));
+                    alternatives.add(alternative);
+                }
+                routeParams.put("alternatives", alternatives);
+            }
             routeParams.put("directions_success", directions.length() > 0);
             routeParams.put("directions", directions);
             Gson gson = new Gson();
-            return gson.toJson(routeParams);
+            String json = gson.toJson(routeParams);
+            Metrics.ROUTE.recordSince(requestStart);
+            return json;
         });
 
         /* Define the API endpoint for clearing the current route. */
@@ -156,18 +198,54 @@ public class MapServer {
 
         /* Define the API endpoint for search */
         get("/search", (req, res) -> {
+            long requestStart = System.nanoTime();
             Set<String> reqParams = req.queryParams();
             String term = req.queryParams("term");
             Gson gson = new Gson();
+            String json;
             /* Search for actual location data. */
             if (reqParams.contains("full")) {
+                long stageStart = System.nanoTime();
                 List<Map<String, Object>> data = getLocations(term);
-                return gson.toJson(data);
+                Metrics.SEARCH_FULL.recordSince(stageStart);
+                json = gson.toJson(data);
             } else {
                 /* Search for prefix matching strings. */
+                long stageStart = System.nanoTime();
                 List<String> matches = getLocationsByPrefix(term);
-                return gson.toJson(matches);
+                Metrics.SEARCH_PREFIX.recordSince(stageStart);
+                json = gson.toJson(matches);
             }
+            Metrics.SEARCH.recordSince(requestStart);
+            return json;
+        });
+
+        /* Define the traffic endpoints, which change edge weights for subsequent routes.
+         * They change server state, so they only answer POST requests, with parameters in
+         * the query string or a form body. Each returns the overlay version after the update. */
+        post("/traffic/penalise", (req, res) -> {
+            HashMap<String, Double> params =
+                    getRequestParams(req, REQUIRED_PENALTY_REQUEST_PARAMS);
+            int edge = getEdgeParam(params);
+            return updateTraffic(() -> graph.traffic.setFactor(edge, params.get("factor")));
+        });
+
+        post("/traffic/close", (req, res) -> {
+            int edge = getEdgeParam(getRequestParams(req, REQUIRED_TRAFFIC_REQUEST_PARAMS));
+            return updateTraffic(() -> graph.traffic.close(edge));
+        });
+
+        post("/traffic/reopen", (req, res) -> {
+            int edge = getEdgeParam(getRequestParams(req, REQUIRED_TRAFFIC_REQUEST_PARAMS));
+            return updateTraffic(() -> graph.traffic.reset(edge));
+        });
+
+        post("/traffic/clear", (req, res) -> updateTraffic(() -> graph.traffic.resetAll()));
+
+        /* Define the metrics endpoint, which reports request latencies as plain text. */
+        get("/metrics", (req, res) -> {
+            res.type("text/plain");
+            return Metrics.report();
         });
 
         /* Define map application redirect */
@@ -203,6 +281,63 @@ public class MapServer {
         return params;
     }
 
+    /**
+     * Returns the number of routes asked for by the optional alternatives parameter, or 1
+     * if it is absent. Halts if it is not an integer between 1 and MAX_ALTERNATIVES.
+     */
+    private static int getAlternativesParam(spark.Request req) {
+        String value = req.queryParams(OPTIONAL_ALTERNATIVES_PARAM);
+        if (value == null) {
+            return 1;
+        }
+        int numRoutes = 0;
+        try {
+            numRoutes = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            halt(HALT_RESPONSE, "Incorrect parameters - alternatives must be an integer.");
+        }
+        if (numRoutes < 1 || numRoutes > MAX_ALTERNATIVES) {
+            halt(HALT_RESPONSE, "Incorrect parameters - alternatives must be between 1 and "
+                    + MAX_ALTERNATIVES + ".");
+        }
+        return numRoutes;
+    }
+
+    /** Returns the great-circle length of a route, in the units of GraphDB.distance. */
+    private static double routeDistance(List<Long> r) {
+        double total = 0;
+        for (int i = 1; i < r.size(); i += 1) {
+            total += graph.distance(r.get(i - 1), r.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * Returns the edge id from a validated parameter map, halting if it is not the id
+     * of an edge in the graph.
+     */
+    private static int getEdgeParam(HashMap<String, Double> params) {
+        double edge = params.get("edge");
+        if (edge != Math.rint(edge) || edge < 0 || edge >= graph.numEdges()) {
+            halt(HALT_RESPONSE, "Incorrect parameters - no such edge.");
+        }
+        return (int) edge;
+    }
+
+    /**
+     * Applies an update to the traffic overlay and returns the new overlay version as Json,
+     * halting if the update is rejected.
+     */
+    private static String updateTraffic(IntSupplier update) {
+        int version = 0;
+        try {
+            version = update.getAsInt();
+        } catch (IllegalArgumentException e) {
+            halt(HALT_RESPONSE, "Incorrect parameters - " + e.getMessage());
+        }
+        return new Gson().toJson(version);
+    }
+
     /**
      * Writes the images corresponding to rasteredImgParams to the output stream.
      * In Spring 2016, students had to do this on their own, but in 2017,
@@ -219,9 +354,13 @@ public class MapServer {
         Graphics graphic = img.getGraphics();
         int x = 0, y = 0;
 
+        long compositeNanos = 0;
         for (int r = 0; r < numVertTiles; r += 1) {
             for (int c = 0; c < numHorizTiles; c += 1) {
-                graphic.drawImage(getImage(IMG_ROOT + renderGrid[r][c]), x, y, null);
+                BufferedImage tile = getImage(IMG_ROOT + renderGrid[r][c]);
+                long drawStart = System.nanoTime();
+                graphic.drawImage(tile, x, y, null);
+                compositeNanos += System.nanoTime() - drawStart;
                 x += MapServer.TILE_SIZE;
                 if (x >= img.getWidth()) {
                     x = 0;
@@ -238,6 +377,7 @@ public class MapServer {
 
         final double wdpp = (lrlon - ullon) / img.getWidth();
         final double hdpp = (ullat - lrlat) / img.getHeight();
+        long routeStart = System.nanoTime();
         if (route != null && !route.isEmpty()) {
             Graphics2D g2d = (Graphics2D) graphic;
             g2d.setColor(MapServer.ROUTE_STROKE_COLOR);
@@ -251,29 +391,36 @@ public class MapServer {
                 return w;
             });
         }
+        Metrics.RASTER_COMPOSITE.record(compositeNanos + System.nanoTime() - routeStart);
 
         rasteredImageParams.put("raster_width", img.getWidth());
         rasteredImageParams.put("raster_height", img.getHeight());
 
+        long encodeStart = System.nanoTime();
         try {
             ImageIO.write(img, "png", os);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        Metrics.RASTER_ENCODE.recordSince(encodeStart);
 
     }
 
     private static BufferedImage getImage(String imgPath) {
+        long loadStart = System.nanoTime();
         BufferedImage tileImg = null;
         if (tileImg == null) {
             try {
                 // File in = new File(imgPath);
                 // tileImg = ImageIO.read(in);
                 tileImg = ImageIO.read(Thread.currentThread().getContextClassLoader().getResource(imgPath));
+                Metrics.TILES_LOADED.increment();
             } catch (IOException | NullPointerException e) {
+                Metrics.TILES_MISSING.increment();
                 e.printStackTrace();
             }
         }
+        Metrics.RASTER_TILE_LOAD.recordSince(loadStart);
         return tileImg;
     }
 
@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Static registry of the latency histograms and counters recorded by MapServer and
+ * Router. All recorders are created when this class is loaded, so recording never
+ * touches a shared map; it only increments the atomics inside the recorder itself.
+ * The whole registry is rendered as plain text by the /metrics endpoint.
+ */
+public class Metrics {
+    /** Latencies are recorded in nanoseconds and reported in microseconds. */
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private static final List<Histogram> HISTOGRAMS = new ArrayList<>();
+    private static final Map<String, LongAdder> COUNTERS = new LinkedHashMap<>();
+
+    /* Whole-request latency for each endpoint. */
+    static final Histogram RASTER = latency("raster");
+    static final Histogram ROUTE = latency("route");
+    static final Histogram SEARCH = latency("search");
+
+    /* Stages of a /raster request. */
+    static final Histogram RASTER_PARSE = latency("raster.parse");
+    static final Histogram RASTER_RASTERISE = latency("raster.rasterise");
+    static final Histogram RASTER_TILE_LOAD = latency("raster.tile_load");
+    static final Histogram RASTER_COMPOSITE = latency("raster.composite");
+    static final Histogram RASTER_ENCODE = latency("raster.encode");
+    static final Histogram RASTER_BASE64 = latency("raster.base64");
+
+    /* Stages of a /route request. */
+    static final Histogram ROUTE_PARSE = latency("route.parse");
+    static final Histogram ROUTE_SNAP = latency("route.snap");
+    static final Histogram ROUTE_SEARCH = latency("route.search");
+    static final Histogram ROUTE_UNPACK = latency("route.unpack");
+    static final Histogram ROUTE_ALTERNATIVES = latency("route.alternatives");
+    static final Histogram ROUTE_SETTLED = histogram("route.settled_nodes", "nodes", 1);
+
+    /* Stages of a /search request. */
+    static final Histogram SEARCH_PREFIX = latency("search.prefix");
+    static final Histogram SEARCH_FULL = latency("search.full");
+
+    /* Counters for tile loading and routing outcomes. */
+    static final LongAdder TILES_LOADED = counter("tiles.loaded");
+    static final LongAdder TILES_MISSING = counter("tiles.missing");
+    static final LongAdder ROUTES_FOUND = counter("route.found");
+    static final LongAdder ROUTES_NOT_FOUND = counter("route.not_found");
+
+    /** Creates and registers a histogram of nanosecond latencies reported in microseconds. */
+    private static Histogram latency(String name) {
+        return histogram(name, "us", NANOS_PER_MICRO);
+    }
+
+    /** Creates and registers a histogram. Only called from static initializers. */
+    private static Histogram histogram(String name, String unit, long unitDivisor) {
+        Histogram h = new Histogram(name, unit, unitDivisor);
+        HISTOGRAMS.add(h);
+        return h;
+    }
+
+    /**
+     * Creates and registers a named counter. Any cache added to the server should
+     * register its hit and miss counters here so that they appear in the report.
+     */
+    static LongAdder counter(String name) {
+        synchronized (COUNTERS) {
+            return COUNTERS.computeIfAbsent(name, k -> new LongAdder());
+        }
+    }
+
+    /** Returns all histograms and counters, one per line, as plain text. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Histogram h : HISTOGRAMS) {
+            h.report(sb);
+        }
+        synchronized (COUNTERS) {
+            for (Map.Entry<String, LongAdder> e : COUNTERS.entrySet()) {
+                sb.append(e.getKey()).append(" ").append(e.getValue().sum()).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -11,14 +11,26 @@ import java.util.regex.Pattern;
  * down to the priority you use to order your vertices.
  */
 public class Router {
+    /** Weight multiplier applied to the edges of each path found when looking for alternatives. */
+    private static final double ALTERNATIVE_PENALTY = 1.4;
+    /** Alternatives may be at most this many times longer than the shortest path. */
+    private static final double ALTERNATIVE_MAX_STRETCH = 1.5;
+    /** Alternatives may share at most this fraction of their length with any other route. */
+    private static final double ALTERNATIVE_MAX_OVERLAP = 0.7;
+    /** Number of penalised searches allowed per alternative requested. */
+    private static final int ALTERNATIVE_SEARCHES = 2;
 
-    /** Private class to represent a vertex-distance pair in the pQueue. */
+    /**
+     * Private class to represent an edge-distance pair in the pQueue. The search runs over
+     * directed edges rather than vertices, so that the turn restriction between the edge
+     * we arrived on and the edge we leave on can be checked during relaxation.
+     */
     private static class Node {
-        long nodeID;
+        int edgeID;
         double distance;
 
-        Node(long nodeID, double distance) {
-            this.nodeID = nodeID;
+        Node(int edgeID, double distance) {
+            this.edgeID = edgeID;
             this.distance = distance;
         }
     }
@@ -55,55 +67,334 @@ public class Router {
      */
     public static List<Long> shortestPath(GraphDB g, double stlon, double stlat,
                                           double destlon, double destlat) {
+        // Find the closest nodes to start and dest coordinates
+        long snapStart = System.nanoTime();
+        long startID = g.closest(stlon, stlat);
+        long destID = g.closest(destlon, destlat);
+        Metrics.ROUTE_SNAP.recordSince(snapStart);
 
-        // Below is the implementation of a*
-        PriorityQueue<Node> fringe = new PriorityQueue<>(getDistanceComparator());
-        HashMap<Long, Long> edgeTo = new HashMap<>(g.size());
-        HashMap<Long, Double> distTo = new HashMap<>(g.size());
+        return shortestPath(g, startID, destID);
+    }
 
-        // Find the closest nodes to start and dest coordinates
+    /**
+     * Return the shortest legal path between two vertices of g, or an empty list if there
+     * is none. Legal paths follow edges in their direction of travel, never make a turn
+     * forbidden by a turn restriction and never use an edge closed in g's traffic overlay.
+     * Fails at once, without searching, if the component labels of g rule out a route.
+     * Edge weights are read from a single overlay snapshot taken when the search starts.
+     *
+     * @param g The graph to use.
+     * @param startID The id of the start vertex.
+     * @param destID The id of the destination vertex.
+     * @return A list of node id's in the order visited on the shortest path.
+     */
+    static List<Long> shortestPath(GraphDB g, long startID, long destID) {
+        if (startID == destID) {
+            Metrics.ROUTES_FOUND.increment();
+            return new ArrayList<>(Collections.singletonList(startID));
+        }
+        if (!g.mayReach(startID, destID)) {
+            Metrics.ROUTES_NOT_FOUND.increment();
+            return new ArrayList<>();
+        }
+        Search search = new Search(g, startID, destID);
+        int targetEdge = search.run(null);
+        if (targetEdge == -1) {
+            Metrics.ROUTES_NOT_FOUND.increment();
+            return new ArrayList<>();
+        }
+        Metrics.ROUTES_FOUND.increment();
+
+        long unpackStart = System.nanoTime();
+        List<Long> path = search.path(search.edges(targetEdge));
+        Metrics.ROUTE_UNPACK.recordSince(unpackStart);
+        return path;
+    }
+
+    /**
+     * Return up to k routes from the node closest to a start location to the node closest
+     * to the destination location. The first route is the shortest path; the others are
+     * alternatives found by the penalty method, see alternativePaths(GraphDB, long, long, int).
+     *
+     * @param g The graph to use.
+     * @param stlon The longitude of the start location.
+     * @param stlat The latitude of the start location.
+     * @param destlon The longitude of the destination location.
+     * @param destlat The latitude of the destination location.
+     * @param k The maximum number of routes to return.
+     * @return A list of routes, each a list of node id's in the order visited.
+     */
+    public static List<List<Long>> alternativePaths(GraphDB g, double stlon, double stlat,
+                                                    double destlon, double destlat, int k) {
+        long snapStart = System.nanoTime();
         long startID = g.closest(stlon, stlat);
         long destID = g.closest(destlon, destlat);
+        Metrics.ROUTE_SNAP.recordSince(snapStart);
+
+        return alternativePaths(g, startID, destID, k);
+    }
 
-        // Fill distTo with infinity for all nodes except start node
-        for (long nodeID : g.vertices()) {
-            distTo.put(nodeID, Double.MAX_VALUE);
+    /**
+     * Return up to k legal routes between two vertices of g, shortest first, or an empty
+     * list if there is no route at all.
+     *
+     * Alternatives are found with the penalty method: after each search, the weights of the
+     * edges on the path just found are multiplied by ALTERNATIVE_PENALTY and the search is
+     * repeated. A new path is kept if it is at most ALTERNATIVE_MAX_STRETCH times longer
+     * than the shortest path, and shares at most ALTERNATIVE_MAX_OVERLAP of its length with
+     * each route already kept. Penalties are at least 1, so the A* heuristic stays
+     * admissible, and every search reuses the same arrays and fringe.
+     *
+     * @param g The graph to use.
+     * @param startID The id of the start vertex.
+     * @param destID The id of the destination vertex.
+     * @param k The maximum number of routes to return.
+     * @return A list of routes, each a list of node id's in the order visited.
+     */
+    static List<List<Long>> alternativePaths(GraphDB g, long startID, long destID, int k) {
+        long alternativesStart = System.nanoTime();
+        List<List<Long>> routes = new ArrayList<>();
+        if (k < 1) {
+            return routes;
         }
-        distTo.put(startID, 0.0);
+        if (startID == destID) {
+            Metrics.ROUTES_FOUND.increment();
+            routes.add(new ArrayList<>(Collections.singletonList(startID)));
+            return routes;
+        }
+        if (!g.mayReach(startID, destID)) {
+            Metrics.ROUTES_NOT_FOUND.increment();
+            return routes;
+        }
+        Search search = new Search(g, startID, destID);
+        int targetEdge = search.run(null);
+        if (targetEdge == -1) {
+            Metrics.ROUTES_NOT_FOUND.increment();
+            return routes;
+        }
+        Metrics.ROUTES_FOUND.increment();
 
-        // Initially add start to PQ, then remove node until target found or fringe.size = 0
-        fringe.add(new Node(startID, 0.0));
-        boolean targetFound = false;
-        while (fringe.size() > 0 && !targetFound) {
-            long p = fringe.poll().nodeID;
-            for (long q : g.adjacent(p)) {
+        int[] shortest = search.edges(targetEdge);
+        double shortestLength = search.length(shortest);
+        long unpackStart = System.nanoTime();
+        routes.add(search.path(shortest));
+        Metrics.ROUTE_UNPACK.recordSince(unpackStart);
 
-                // If new distance < old distance, update distTo and edgeTo
-                double weight = g.distance(p, q);
-                if (distTo.get(p) + weight < distTo.get(q)) {
-                    distTo.put(q, distTo.get(p) + weight);
-                    edgeTo.put(q, p); // has to be q, p
+        // Sorted copies of the edges of each kept route, for overlap checks
+        List<int[]> kept = new ArrayList<>();
+        kept.add(sortedCopy(shortest));
+
+        // Only edges of paths already found are penalised, so keep just those
+        Map<Integer, Double> penalty = new HashMap<>();
+        int[] previous = shortest;
+        int searchesLeft = ALTERNATIVE_SEARCHES * (k - 1);
+        while (routes.size() < k && searchesLeft > 0) {
+            searchesLeft -= 1;
+            for (int e : previous) {
+                penalty.merge(e, ALTERNATIVE_PENALTY, (a, b) -> a * b);
+            }
+            targetEdge = search.run(penalty);
+            if (targetEdge == -1) {
+                break;
+            }
+            int[] candidate = search.edges(targetEdge);
+            previous = candidate;
+
+            double length = search.length(candidate);
+            if (length > ALTERNATIVE_MAX_STRETCH * shortestLength) {
+                continue;
+            }
+            if (isDiverse(search, candidate, length, kept)) {
+                kept.add(sortedCopy(candidate));
+                unpackStart = System.nanoTime();
+                routes.add(search.path(candidate));
+                Metrics.ROUTE_UNPACK.recordSince(unpackStart);
+            }
+        }
+        Metrics.ROUTE_ALTERNATIVES.recordSince(alternativesStart);
+        return routes;
+    }
 
-                    // Add neighbour q to fringe, with heuristic distance factored in
-                    Node n = new Node(q, distTo.get(p) + weight + g.distance(q, destID));
-                    fringe.add(n);
+    /**
+     * Returns true if the edges in candidate, of total length length, make up at most
+     * ALTERNATIVE_MAX_OVERLAP of length in common with each of the kept routes.
+     */
+    private static boolean isDiverse(Search search, int[] candidate, double length,
+                                     List<int[]> kept) {
+        for (int[] route : kept) {
+            double shared = 0;
+            for (int e : candidate) {
+                if (Arrays.binarySearch(route, e) >= 0) {
+                    shared += search.weight(e, null);
+                }
+            }
+            if (shared > ALTERNATIVE_MAX_OVERLAP * length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] sortedCopy(int[] a) {
+        int[] copy = a.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /**
+     * An A* search over the directed edges of g (the line graph) from one start vertex to
+     * one destination vertex, using the great-circle distance to the destination as the
+     * heuristic. The line graph is never built: its vertices are the edge ids of g, and its
+     * edges are the allowed turns at each vertex, so the only extra memory is a few array
+     * entries per edge.
+     *
+     * A Search can be run several times, e.g. with different penalties. Its arrays are
+     * never cleared: instead, each entry is tagged with the number of the run that last
+     * wrote it, so starting a new run is O(1) rather than O(E).
+     */
+    private static class Search {
+        private final GraphDB g;
+        private final long startID;
+        private final long destID;
+        private final double destLon;
+        private final double destLat;
+        private final TrafficOverlay.Snapshot weights;
+        private final double hScale;
+
+        private final PriorityQueue<Node> fringe = new PriorityQueue<>(getDistanceComparator());
+        private final int[] edgeTo;    // previous edge on the best path to each edge
+        private final double[] distTo; // length of the best path ending with each edge
+        private final int[] reached;   // run in which distTo and edgeTo were last written
+        private final int[] settled;   // run in which each edge was last settled
+        private int run;
+
+        Search(GraphDB g, long startID, long destID) {
+            this.g = g;
+            this.startID = startID;
+            this.destID = destID;
+            this.destLon = g.lon(destID);
+            this.destLat = g.lat(destID);
+            this.weights = g.traffic.snapshot();
+            this.hScale = weights.heuristicScale;
+
+            int numEdges = g.numEdges();
+            this.edgeTo = new int[numEdges];
+            this.distTo = new double[numEdges];
+            this.reached = new int[numEdges];
+            this.settled = new int[numEdges];
+            this.run = 0;
+        }
+
+        /**
+         * Returns the weight of edge e, multiplied by its penalty if penalty is not null
+         * and has one for e.
+         */
+        double weight(int e, Map<Integer, Double> penalty) {
+            double w = weights.weight(g.edge(e));
+            if (penalty == null) {
+                return w;
+            }
+            Double factor = penalty.get(e);
+            return factor == null ? w : w * factor;
+        }
+
+        /** Returns the great-circle distance from vertex v to the destination, scaled. */
+        private double heuristic(long v) {
+            return hScale * GraphDB.distance(g.lon(v), g.lat(v), destLon, destLat);
+        }
+
+        /** Records dist as the best distance to edge e, reached from edge from. */
+        private void relax(int e, int from, double dist, long to) {
+            reached[e] = run;
+            distTo[e] = dist;
+            edgeTo[e] = from;
+            fringe.add(new Node(e, dist + heuristic(to)));
+        }
+
+        /**
+         * Runs A* and returns the id of the settled edge arriving at the destination, or -1
+         * if the destination is unreachable.
+         * @param penalty Weight multipliers, at least 1, for the edges that have one, or
+         *                null for none.
+         */
+        int run(Map<Integer, Double> penalty) {
+            long searchStart = System.nanoTime();
+            run += 1;
+            fringe.clear();
+
+            // Initially add the edges leaving start to PQ
+            for (GraphDB.Edge e : g.edges(startID)) {
+                double weight = weight(e.id, penalty);
+                if (weight != Double.POSITIVE_INFINITY) {
+                    relax(e.id, -1, weight, e.to);
+                }
+            }
+
+            // Remove edges until one arriving at the target is settled or fringe.size = 0
+            int targetEdge = -1;
+            int numSettled = 0;
+            while (fringe.size() > 0) {
+                int p = fringe.poll().edgeID;
+                if (settled[p] == run) {
+                    continue; // stale duplicate of an edge already settled
                 }
-                if (q == destID) {
-                    targetFound = true;
+                settled[p] = run;
+                numSettled += 1;
+
+                GraphDB.Edge in = g.edge(p);
+                if (in.to == destID) {
+                    targetEdge = p;
                     break;
                 }
+                for (GraphDB.Edge out : g.edges(in.to)) {
+                    if (settled[out.id] == run || !g.turnAllowed(in, out)) {
+                        continue;
+                    }
+                    // If new distance < old distance, update distTo and edgeTo
+                    double newDist = distTo[p] + weight(out.id, penalty);
+                    if (newDist != Double.POSITIVE_INFINITY
+                            && (reached[out.id] != run || newDist < distTo[out.id])) {
+                        relax(out.id, p, newDist, out.to);
+                    }
+                }
             }
+            Metrics.ROUTE_SEARCH.recordSince(searchStart);
+            Metrics.ROUTE_SETTLED.record(numSettled);
+            return targetEdge;
         }
 
-        // Generate list of nodes corresponding to the shortest path
-        ArrayList<Long> path = new ArrayList<>();
-        Long curr = destID;
-        while (curr != null) {
-            path.add(curr);
-            curr = edgeTo.get(curr);
+        /** Returns the ids of the edges on the path ending with targetEdge, in order. */
+        int[] edges(int targetEdge) {
+            int length = 0;
+            for (int curr = targetEdge; curr != -1; curr = edgeTo[curr]) {
+                length += 1;
+            }
+            int[] path = new int[length];
+            for (int curr = targetEdge; curr != -1; curr = edgeTo[curr]) {
+                length -= 1;
+                path[length] = curr;
+            }
+            return path;
+        }
+
+        /** Returns the total unpenalised weight of the given edges. */
+        double length(int[] edges) {
+            double total = 0;
+            for (int e : edges) {
+                total += weight(e, null);
+            }
+            return total;
+        }
+
+        /** Returns the node id's visited along the given edges, starting with the start. */
+        List<Long> path(int[] edges) {
+            List<Long> path = new ArrayList<>(edges.length + 1);
+            path.add(startID);
+            for (int e : edges) {
+                path.add(g.edge(e).to);
+            }
+            return path;
         }
-        Collections.reverse(path);
-        return path;
     }
 
     /**
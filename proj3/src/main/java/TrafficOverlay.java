@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * Live overrides of edge weights, used to penalise or close road segments (incidents,
+ * events, congestion) without rebuilding the GraphDB. Each edge's weight is its length
+ * multiplied by a factor, which is 1 unless overridden; a closed edge has an infinite
+ * factor.
+ *
+ * The overrides are copy-on-write: every update builds a new immutable Snapshot and
+ * publishes it with a single volatile write. A route query reads the snapshot once at
+ * the start and uses it throughout, so in-flight queries always see one consistent set
+ * of weights, and readers never lock. Updates are rare, so the O(E) copy per update is
+ * a good trade for keeping the per-relaxation lookup a plain array read.
+ */
+public class TrafficOverlay {
+
+    /** An immutable view of all overrides at some version. */
+    public static class Snapshot {
+        /** Incremented on every update, starting from 0 for no overrides. */
+        final int version;
+        /** Weight factor per edge id, or null if no edge is overridden. */
+        private final double[] factors;
+        /**
+         * Factor to multiply the A* heuristic by so that it stays admissible. This is 1
+         * unless some edge has been made cheaper than its great-circle length.
+         */
+        final double heuristicScale;
+
+        private Snapshot(int version, double[] factors) {
+            this.version = version;
+            this.factors = factors;
+            double minFactor = 1.0;
+            if (factors != null) {
+                for (double f : factors) {
+                    minFactor = Math.min(minFactor, f);
+                }
+            }
+            this.heuristicScale = minFactor;
+        }
+
+        /** Returns the weight of e, which is infinite if e is closed. */
+        double weight(GraphDB.Edge e) {
+            if (factors == null) {
+                return e.length;
+            }
+            return e.length * factors[e.id];
+        }
+
+        /** Returns the weight factor of the edge with the given id. */
+        double factor(int edgeID) {
+            return factors == null ? 1.0 : factors[edgeID];
+        }
+    }
+
+    private final int numEdges;
+    private volatile Snapshot current;
+
+    /** Creates an overlay with no overrides for a graph with the given number of edges. */
+    public TrafficOverlay(int numEdges) {
+        this.numEdges = numEdges;
+        this.current = new Snapshot(0, null);
+    }
+
+    /** Returns the current overrides. The result never changes, even if the overlay does. */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Multiplies the weight of an edge by factor, replacing any previous override of it.
+     * A factor above 1 penalises the edge, and an infinite factor closes it.
+     * @return the version of the new snapshot
+     */
+    public synchronized int setFactor(int edgeID, double factor) {
+        if (edgeID < 0 || edgeID >= numEdges) {
+            throw new IllegalArgumentException("No edge with id " + edgeID);
+        }
+        if (Double.isNaN(factor) || factor <= 0) {
+            throw new IllegalArgumentException("Weight factor must be positive: " + factor);
+        }
+        double[] factors;
+        if (current.factors == null) {
+            factors = new double[numEdges];
+            Arrays.fill(factors, 1.0);
+        } else {
+            factors = current.factors.clone();
+        }
+        factors[edgeID] = factor;
+        return publish(factors);
+    }
+
+    /** Closes an edge, so that no route uses it. */
+    public int close(int edgeID) {
+        return setFactor(edgeID, Double.POSITIVE_INFINITY);
+    }
+
+    /** Removes any override of an edge, restoring its normal weight. */
+    public int reset(int edgeID) {
+        return setFactor(edgeID, 1.0);
+    }
+
+    /** Removes all overrides. */
+    public synchronized int resetAll() {
+        return publish(null);
+    }
+
+    private int publish(double[] factors) {
+        current = new Snapshot(current.version + 1, factors);
+        return current.version;
+    }
+}
@@ -0,0 +1,60 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for alternative routes, on a tiny hand-made graph with two nearly equal roads.
+ * See the comment at the top of data/alternatives.osm.xml for a picture of the graph.
+ */
+public class TestAlternativeRoutes {
+    private static final String OSM_DB_PATH_ALTERNATIVES = "data/alternatives.osm.xml";
+    private static GraphDB graphAlternatives;
+
+    @Before
+    public void setUp() throws Exception {
+        graphAlternatives = new GraphDB(OSM_DB_PATH_ALTERNATIVES);
+    }
+
+    @Test
+    public void testFirstRouteIsShortest() {
+        List<List<Long>> routes = Router.alternativePaths(graphAlternatives, 1L, 4L, 3);
+        assertEquals(Router.shortestPath(graphAlternatives, 1L, 4L), routes.get(0));
+        assertEquals(Arrays.asList(1L, 5L, 6L, 4L), routes.get(0));
+    }
+
+    @Test
+    public void testFindsOtherRoad() {
+        List<List<Long>> routes = Router.alternativePaths(graphAlternatives, 1L, 4L, 2);
+        assertEquals(2, routes.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), routes.get(1));
+    }
+
+    @Test
+    public void testAtMostK() {
+        assertEquals(1, Router.alternativePaths(graphAlternatives, 1L, 4L, 1).size());
+        assertEquals(0, Router.alternativePaths(graphAlternatives, 1L, 4L, 0).size());
+        List<List<Long>> routes = Router.alternativePaths(graphAlternatives, 1L, 4L, 5);
+        assertTrue(routes.size() <= 5);
+        Set<List<Long>> distinct = new HashSet<>(routes);
+        assertEquals("Routes must all be different.", routes.size(), distinct.size());
+    }
+
+    @Test
+    public void testClosedRoadHasNoAlternative() {
+        for (GraphDB.Edge e : graphAlternatives.edges(1L)) {
+            if (e.to == 2L) {
+                graphAlternatives.traffic.close(e.id);
+            }
+        }
+        List<List<Long>> routes = Router.alternativePaths(graphAlternatives, 1L, 4L, 2);
+        assertEquals(1, routes.size());
+        assertEquals(Arrays.asList(1L, 5L, 6L, 4L), routes.get(0));
+    }
+}
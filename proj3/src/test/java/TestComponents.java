@@ -0,0 +1,90 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for connected component labelling, on a tiny hand-made graph with an island.
+ * See the comment at the top of data/islands.osm.xml for a picture of the graph.
+ */
+public class TestComponents {
+    private static final String OSM_DB_PATH_ISLANDS = "data/islands.osm.xml";
+    private static final String OSM_DB_PATH_ONEWAY = "data/oneway.osm.xml";
+    private static GraphDB graphIslands;
+    private static GraphDB graphOneway;
+
+    @Before
+    public void setUp() throws Exception {
+        graphIslands = new GraphDB(OSM_DB_PATH_ISLANDS);
+        graphOneway = new GraphDB(OSM_DB_PATH_ONEWAY);
+    }
+
+    @Test
+    public void testLabels() {
+        assertEquals(2, graphIslands.numComponents());
+        assertTrue(graphIslands.connected(1L, 4L));
+        assertTrue(graphIslands.connected(10L, 11L));
+        assertFalse(graphIslands.connected(1L, 10L));
+        assertTrue(graphIslands.inMainComponent(3L));
+        assertFalse(graphIslands.inMainComponent(11L));
+        assertEquals("Small components are flagged, not dropped, by default.",
+                6, TestGraphBuilding.countIterableItems(graphIslands.vertices()));
+    }
+
+    @Test
+    public void testSnapsToMainComponent() {
+        assertEquals(2L, graphIslands.closest(0.1, 37.95));
+        List<Long> actual = Router.shortestPath(graphIslands, 0.1, 37.95, 0.3, 38.0);
+        assertEquals(Arrays.asList(2L, 3L, 4L), actual);
+    }
+
+    @Test
+    public void testUnreachable() {
+        assertTrue(Router.shortestPath(graphIslands, 1L, 11L).isEmpty());
+        assertTrue(Router.alternativePaths(graphIslands, 11L, 4L, 2).isEmpty());
+    }
+
+    @Test
+    public void testDropSmallComponents() {
+        GraphDB dropped = new GraphDB(OSM_DB_PATH_ISLANDS, true);
+        assertEquals(1, dropped.numComponents());
+        assertEquals(4, TestGraphBuilding.countIterableItems(dropped.vertices()));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), Router.shortestPath(dropped, 1L, 4L));
+    }
+
+    @Test
+    public void testOneWayStreets() {
+        assertEquals(4, graphOneway.numComponents());
+        assertTrue(graphOneway.connected(1L, 4L));
+        assertFalse(graphOneway.connected(4L, 6L));
+        assertFalse(graphOneway.inMainComponent(6L));
+        assertFalse(graphOneway.inMainComponent(7L));
+        assertTrue(graphOneway.mayReach(4L, 6L));
+        assertFalse(graphOneway.mayReach(6L, 4L));
+        assertTrue(graphOneway.mayReach(7L, 1L));
+        assertFalse(graphOneway.mayReach(1L, 7L));
+    }
+
+    @Test
+    public void testSnapsToStronglyConnectedComponent() {
+        assertEquals(4L, graphOneway.closest(0.5, 38.0));
+        assertEquals(1L, graphOneway.closest(-0.1, 38.0));
+        assertEquals(Arrays.asList(4L, 5L, 6L), Router.shortestPath(graphOneway, 4L, 6L));
+        assertTrue(Router.shortestPath(graphOneway, 6L, 4L).isEmpty());
+    }
+
+    @Test
+    public void testDropOneWayDeadEnds() {
+        GraphDB dropped = new GraphDB(OSM_DB_PATH_ONEWAY, true);
+        assertEquals(1, dropped.numComponents());
+        assertEquals(4, TestGraphBuilding.countIterableItems(dropped.vertices()));
+        assertEquals(Arrays.asList(4L, 3L, 2L, 1L), Router.shortestPath(dropped, 4L, 1L));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), Router.shortestPath(dropped, 1L, 4L));
+        assertEquals(Arrays.asList(4L, 3L), Router.shortestPath(dropped, 0.5, 38.0, 0.21, 38.0));
+    }
+}
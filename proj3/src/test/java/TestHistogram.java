@@ -0,0 +1,63 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the lock-free Histogram used by the /metrics endpoint.
+ */
+public class TestHistogram {
+
+    @Test
+    public void testBucketsCoverValues() {
+        long[] values = {0, 1, 31, 32, 63, 64, 65, 1000, 123456789L, Long.MAX_VALUE};
+        for (long v : values) {
+            int index = Histogram.bucketIndex(v);
+            assertTrue("bucket too small for " + v, Histogram.highestValueInBucket(index) >= v);
+            if (index > 0) {
+                assertTrue("bucket too large for " + v,
+                        Histogram.highestValueInBucket(index - 1) < v);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram h = new Histogram("test", "ns", 1);
+        for (int i = 1; i <= 1000; i += 1) {
+            h.record(i);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(500.5, h.mean(), 1e-9);
+        assertEquals(1000.0, h.max(), 1e-9);
+        /* Relative error is bounded by the sub-bucket resolution. */
+        assertEquals(500, h.percentile(50), 500 / 32.0);
+        assertEquals(990, h.percentile(99), 990 / 32.0);
+        assertEquals(1000, h.percentile(100), 1e-9);
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        Histogram h = new Histogram("test", "ns", 1);
+        int numThreads = 8;
+        int perThread = 100000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t += 1) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i += 1) {
+                    h.record(i % 100);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals((long) numThreads * perThread, h.count());
+        assertEquals(99.0, h.max(), 1e-9);
+    }
+}
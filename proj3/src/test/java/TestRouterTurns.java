@@ -0,0 +1,52 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that routes obey one-way streets and turn restrictions, on a tiny hand-made graph.
+ * See the comment at the top of data/turns.osm.xml for a picture of the graph.
+ */
+public class TestRouterTurns {
+    private static final String OSM_DB_PATH_TURNS = "data/turns.osm.xml";
+    private static GraphDB graphTurns;
+
+    @Before
+    public void setUp() throws Exception {
+        graphTurns = new GraphDB(OSM_DB_PATH_TURNS);
+    }
+
+    @Test
+    public void testOnewayAdjacency() {
+        HashSet<Long> expected = new HashSet<>(Arrays.asList(2L, 6L));
+        HashSet<Long> actual = new HashSet<>();
+        for (long neighbor : graphTurns.adjacent(5L)) {
+            actual.add(neighbor);
+        }
+        assertEquals(expected, actual);
+        assertEquals("Nodes only reachable by one-way streets must survive clean.",
+                6, TestGraphBuilding.countIterableItems(graphTurns.vertices()));
+    }
+
+    @Test
+    public void testOnewayRoute() {
+        List<Long> actual = Router.shortestPath(graphTurns, 0.2, 38.1, 0.0, 38.1);
+        assertEquals(Arrays.asList(6L, 3L, 2L, 1L, 4L), actual);
+    }
+
+    @Test
+    public void testRestrictedTurn() {
+        List<Long> actual = Router.shortestPath(graphTurns, 0.0, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(1L, 4L, 5L), actual);
+    }
+
+    @Test
+    public void testUnrestrictedTurn() {
+        List<Long> actual = Router.shortestPath(graphTurns, 0.2, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(3L, 2L, 5L), actual);
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that routes follow live edge weight overrides, on the graph in data/turns.osm.xml.
+ */
+public class TestTrafficOverlay {
+    private static final String OSM_DB_PATH_TURNS = "data/turns.osm.xml";
+    private static GraphDB graphTurns;
+
+    @Before
+    public void setUp() throws Exception {
+        graphTurns = new GraphDB(OSM_DB_PATH_TURNS);
+    }
+
+    /** Returns the id of the edge from v to w. */
+    private static int edgeID(GraphDB g, long v, long w) {
+        for (GraphDB.Edge e : g.edges(v)) {
+            if (e.to == w) {
+                return e.id;
+            }
+        }
+        throw new IllegalArgumentException("No edge from " + v + " to " + w);
+    }
+
+    @Test
+    public void testClosedEdge() {
+        graphTurns.traffic.close(edgeID(graphTurns, 2, 5));
+        List<Long> actual = Router.shortestPath(graphTurns, 0.2, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(3L, 2L, 1L, 4L, 5L), actual);
+
+        graphTurns.traffic.reset(edgeID(graphTurns, 2, 5));
+        actual = Router.shortestPath(graphTurns, 0.2, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(3L, 2L, 5L), actual);
+    }
+
+    @Test
+    public void testPenalisedEdge() {
+        graphTurns.traffic.setFactor(edgeID(graphTurns, 2, 5), 1.5);
+        List<Long> actual = Router.shortestPath(graphTurns, 0.2, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(3L, 2L, 5L), actual);
+
+        graphTurns.traffic.setFactor(edgeID(graphTurns, 2, 5), 10);
+        actual = Router.shortestPath(graphTurns, 0.2, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(3L, 2L, 1L, 4L, 5L), actual);
+    }
+
+    @Test
+    public void testCheaperEdgeKeepsRouteOptimal() {
+        /* Making 1-4-5 much cheaper than its length must still find it, even though the
+         * great-circle heuristic would otherwise overestimate. */
+        graphTurns.traffic.setFactor(edgeID(graphTurns, 2, 1), 0.01);
+        graphTurns.traffic.setFactor(edgeID(graphTurns, 1, 4), 0.01);
+        graphTurns.traffic.setFactor(edgeID(graphTurns, 4, 5), 0.01);
+        List<Long> actual = Router.shortestPath(graphTurns, 0.2, 38.0, 0.1, 38.08);
+        assertEquals(Arrays.asList(3L, 2L, 1L, 4L, 5L), actual);
+    }
+
+    @Test
+    public void testSnapshotsAreImmutable() {
+        int edge = edgeID(graphTurns, 2, 5);
+        TrafficOverlay.Snapshot before = graphTurns.traffic.snapshot();
+        int version = graphTurns.traffic.close(edge);
+        TrafficOverlay.Snapshot after = graphTurns.traffic.snapshot();
+
+        assertEquals(before.version + 1, version);
+        assertEquals(version, after.version);
+        assertEquals(1.0, before.factor(edge), 0);
+        assertEquals(Double.POSITIVE_INFINITY, after.factor(edge), 0);
+    }
+}